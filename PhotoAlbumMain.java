@@ -1,23 +1,44 @@
+import shapesphotoalbum.controller.AlbumCache;
 import shapesphotoalbum.controller.GraphicalController;
 import shapesphotoalbum.controller.IController;
 import shapesphotoalbum.controller.WebController;
+import shapesphotoalbum.controller.adaptor.SvgSymbols;
+import shapesphotoalbum.controller.reader.ActionReader;
+import shapesphotoalbum.controller.reader.BinaryAlbumWriter;
+import shapesphotoalbum.controller.reader.CommandCoalescer;
+import shapesphotoalbum.model.AlbumStateFile;
+import shapesphotoalbum.model.EventSourcedAlbumModel;
 import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.MappedSnapshotStore;
 import shapesphotoalbum.model.ShapesPhotoAlbumModel;
 import shapesphotoalbum.view.GraphicalView;
 import shapesphotoalbum.view.IGraphicalView;
 import shapesphotoalbum.view.IWebView;
-import shapesphotoalbum.view.WebView;
+import shapesphotoalbum.view.PagedWebView;
+import shapesphotoalbum.view.PlaybackWebView;
+import shapesphotoalbum.view.StreamingWebView;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class serves as the entry point for testing out the Shapes
  * Photo Album functionality.
  */
 public class PhotoAlbumMain {
+  private static final Path CACHE_DIRECTORY =
+      Path.of(System.getProperty("user.home"), ".cache", "shapes-photo-album");
+  private static final long CACHE_SIZE = 256L << 20;
+  private static final int RENDER_WINDOW_PER_THREAD = 4; // snapshots pending per render thread
+
   /**
    * The main method creates a Shapes Photo Album model, performs various
    * actions on it, takes snapshots at different stages, and prints out the snapshots.
@@ -25,14 +46,27 @@ public class PhotoAlbumMain {
    */
 //    String album = "C:/Users/lunax/Downloads/CS5004/Homework/Homework8/src/hoops.txt";
   public static void main(String[] args) throws IOException {
-    if (args == null || args.length < 4 || args.length > 8)
-      throw new IOException("Usage: MyProgram -in \"input-file\" -view \"type-of-view\" [-out \"where-output-should-go\"] [xmax] [ymax]");
+    if (args == null || args.length < 4 || args.length > 26)
+      throw new IOException("Usage: MyProgram -in \"input-file\" -view \"type-of-view\" [-out \"where-output-should-go\"] [-checkpoint commands | -archive \"archive-file\"] [-parallel] [-compile \"binary-file\"] [-state \"state-file\"] [-cache] [-coalesce] [-tail] [-render threads] [-symbols | -playback | -pages n] [xmax] [ymax]");
 
     String inputFile = null;
     String viewType = null;
     String outputFile = null;
     int maxWidth = 1000;
     int maxHeight = 1000;
+    int checkpointInterval = 0; // 0 keeps every snapshot in memory
+    String archiveFile = null;
+    ForkJoinPool parsePool = null; // null parses the input file in one go
+    String compileFile = null;
+    String stateFile = null;
+    boolean useCache = false;
+    boolean coalesce = false;
+    boolean tail = false;
+    ExecutorService renderPool = null; // null renders the web view on the main thread
+    int renderWindow = 0;
+    boolean symbols = false;
+    boolean playback = false;
+    int pageSize = 0; // 0 writes the whole album on one page
 
     // Process command line arguments
     for (int i = 0; i < args.length; i++) {
@@ -66,6 +100,110 @@ public class PhotoAlbumMain {
         }
       }
 
+      else if (args[i].equals("-checkpoint")) {
+        // Replay snapshots from a checkpoint taken every given number of commands
+        if (i + 1 < args.length && args[i + 1].matches("[1-9]\\d{0,8}")) { // fits in an int
+          checkpointInterval = Integer.parseInt(args[i + 1]);
+          i += 1;
+        }
+        else {
+          System.err.println("Missing number of commands from 1 to 999999999 after -checkpoint option.");
+          return;
+        }
+      }
+
+      else if (args[i].equals("-archive")) {
+        // Keep snapshots in a memory-mapped file instead of the heap
+        if (i + 1 < args.length) {
+          archiveFile = args[i + 1];
+          i += 1;
+        }
+        else {
+          System.err.println("Missing archive file after -archive option.");
+          return;
+        }
+      }
+
+      else if (args[i].equals("-compile")) {
+        // Compile the input file into a binary album instead of viewing it
+        if (i + 1 < args.length) {
+          compileFile = args[i + 1];
+          i += 1;
+        }
+        else {
+          System.err.println("Missing binary file after -compile option.");
+          return;
+        }
+      }
+
+      else if (args[i].equals("-state")) {
+        // Reopen the album from a saved state file, or save it there
+        if (i + 1 < args.length) {
+          stateFile = args[i + 1];
+          i += 1;
+        }
+        else {
+          System.err.println("Missing state file after -state option.");
+          return;
+        }
+      }
+
+      else if (args[i].equals("-cache")) {
+        // Reuse the album built from the same input file in an earlier run
+        useCache = true;
+      }
+
+      else if (args[i].equals("-coalesce")) {
+        // Drop the commands whose effect no snapshot sees before executing them
+        coalesce = true;
+      }
+
+      else if (args[i].equals("-tail")) {
+        // Keep executing the commands appended to the input file while viewing it
+        tail = true;
+      }
+
+      else if (args[i].equals("-render")) {
+        // Render the snapshots of the web view on a pool of threads
+        if (i + 1 < args.length && args[i + 1].matches("[1-9]\\d{0,3}")) { // at most 9999 threads
+          int threads = Integer.parseInt(args[i + 1]);
+          renderPool = Executors.newFixedThreadPool(threads);
+          renderWindow = RENDER_WINDOW_PER_THREAD * threads;
+          i += 1;
+        }
+        else {
+          System.err.println("Missing number of threads from 1 to 9999 after -render option.");
+          return;
+        }
+      }
+
+      else if (args[i].equals("-symbols")) {
+        // Write each shape state once and refer to it from the snapshots of the web view
+        symbols = true;
+      }
+
+      else if (args[i].equals("-playback")) {
+        // Play the snapshots of the web view back in one SVG element from their changes
+        playback = true;
+      }
+
+      else if (args[i].equals("-pages")) {
+        // Split the web view into pages of the given number of snapshots, with an index
+        if (i + 1 < args.length && args[i + 1].matches("[1-9]\\d{0,8}")) { // fits in an int
+          pageSize = Integer.parseInt(args[i + 1]);
+          i += 1;
+        }
+        else {
+          System.err.println("Missing number of snapshots per page from 1 to 999999999 after -pages option.");
+          return;
+        }
+      }
+
+      else if (args[i].equals("-parallel")) {
+        // Parse chunks of the input file at the same time
+        parsePool = ForkJoinPool.commonPool();
+      }
+
       else if (args[i].matches("\\d+")) {
         // Check for optional xmax and ymax
         // If only one number passed in, assume it's xmax
@@ -78,34 +216,128 @@ public class PhotoAlbumMain {
     }
 
     // Validate mandatory parameters
-    if (inputFile == null || viewType == null) {
-      System.err.println("Usage: MyProgram -in \"input-file\" -view \"type-of-view\" [-out \"where-output-should-go\"] [xmax] [ymax]");
+    if (inputFile == null || (viewType == null && compileFile == null)) {
+      System.err.println("Usage: MyProgram -in \"input-file\" -view \"type-of-view\" [-out \"where-output-should-go\"] [-checkpoint commands | -archive \"archive-file\"] [-parallel] [-compile \"binary-file\"] [-state \"state-file\"] [-cache] [-coalesce] [-tail] [-render threads] [-symbols | -playback | -pages n] [xmax] [ymax]");
+      return;
+    }
+
+    if (symbols && renderPool != null) {
+      System.err.println("The -symbols option can't be combined with -render.");
+      return;
+    }
+
+    if (playback && (symbols || renderPool != null)) {
+      System.err.println("The -playback option can't be combined with -symbols or -render.");
+      return;
+    }
+
+    if (pageSize > 0 && (symbols || playback)) {
+      System.err.println("The -pages option can't be combined with -symbols or -playback.");
+      return;
+    }
+
+    if (tail && (!"graphical".equalsIgnoreCase(viewType) || stateFile != null || coalesce)) {
+      System.err.println("The -tail option only works with the graphical view, without -state or -coalesce.");
       return;
     }
 
     try {
       InputStream inputStream = new FileInputStream(inputFile);
-      IModel model = new ShapesPhotoAlbumModel();
+      if (compileFile != null) {
+        BinaryAlbumWriter.compile(inputStream, new FileOutputStream(compileFile));
+        System.out.println("Compiled " + inputFile + " into " + compileFile);
+        return;
+      }
+
+      IModel model = null;
+      Path statePath = stateFile == null ? null : Path.of(stateFile);
+      boolean reopened = statePath != null && Files.exists(statePath);
+
+      // The cache holds in-memory albums, so it only stands in for the default model of a
+      // finished input file
+      AlbumCache cache = null;
+      String cacheKey = null;
+      long start = System.nanoTime();
+      if (useCache && !tail && statePath == null && checkpointInterval == 0 && archiveFile == null) {
+        cache = new AlbumCache(CACHE_DIRECTORY, CACHE_SIZE);
+        cacheKey = AlbumCache.keyOf(Path.of(inputFile));
+        model = cache.get(cacheKey);
+        if (model != null)
+          System.out.printf("Album cache hit: loaded %s in %d ms%n", inputFile, (System.nanoTime() - start) / 1_000_000);
+      }
+
+      boolean loaded = reopened || model != null;
+      if (loaded) {
+        // Reopen the album as it was saved, without running its commands again
+        if (model == null)
+          model = AlbumStateFile.load(statePath);
+        inputStream.close();
+        inputStream = InputStream.nullInputStream();
+      }
+      else if (checkpointInterval > 0)
+        model = new EventSourcedAlbumModel(checkpointInterval);
+      else if (archiveFile != null)
+        model = new ShapesPhotoAlbumModel(new MappedSnapshotStore(Path.of(archiveFile)));
+      else
+        model = new ShapesPhotoAlbumModel();
+
+      // Run the commands through the coalescer here, leaving no input for the controller
+      if (coalesce && !loaded) {
+        CommandCoalescer coalescer = new CommandCoalescer(model::executeCommand);
+        ActionReader.readInput(inputStream, coalescer, parsePool);
+        coalescer.flush();
+        inputStream.close();
+        inputStream = InputStream.nullInputStream();
+        System.out.printf("Coalesced %d commands of %s%n", coalescer.getCoalescedCount(), inputFile);
+      }
 
       // Create controller based on view type
+      IController controller;
       if (viewType.equalsIgnoreCase("graphical")) {
         IGraphicalView view = new GraphicalView("CS5004 Shapes Photo Album Viewer", maxWidth, maxHeight);
-        IController controller = new GraphicalController(model, view, inputStream);
-        controller.go();
+        controller = new GraphicalController(model, view, inputStream, parsePool, tail);
       }
       else if (viewType.equalsIgnoreCase("web")) {
         if (outputFile == null) { // Mandatory output file for web view
           System.err.println("Missing output file.");
           return;
         }
-        IWebView view = new WebView(outputFile);
-        IController controller = new WebController(model, view, inputStream, outputFile);
-        controller.go();
+        IWebView view;
+        if (pageSize > 0) {
+          // pages are written on the render pool, or on a pool of their own as writing blocks
+          if (renderPool == null)
+            renderPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+          view = new PagedWebView(outputFile, pageSize, renderPool);
+        }
+        else if (playback)
+          view = new PlaybackWebView(outputFile);
+        else if (renderPool != null)
+          view = new StreamingWebView(outputFile, renderPool, renderWindow);
+        else if (symbols)
+          view = new StreamingWebView(outputFile, new SvgSymbols());
+        else
+          view = new StreamingWebView(outputFile);
+        controller = new WebController(model, view, inputStream, outputFile, parsePool);
+      }
+      else
+        return;
+
+      // Save the album once its commands ran, so that it reopens instantly next time
+      if (statePath != null && !reopened)
+        AlbumStateFile.save(model, statePath);
+      if (cache != null && cache.getMissCount() > 0) {
+        cache.put(cacheKey, model);
+        System.out.printf("Album cache miss: parsed and executed %s in %d ms, cached for next time%n",
+            inputFile, (System.nanoTime() - start) / 1_000_000);
       }
+      controller.go();
     } catch (FileNotFoundException e) {
       System.err.println("Input file not found: " + inputFile);
     } catch (IOException e) {
       System.err.println("Error reading input file: " + e.getMessage());
+    } finally {
+      if (renderPool != null)
+        renderPool.shutdown();
     }
   }
 }
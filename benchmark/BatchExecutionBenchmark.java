@@ -0,0 +1,87 @@
+import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.ShapesPhotoAlbumModel;
+import shapesphotoalbum.model.command.ChangeColor;
+import shapesphotoalbum.model.command.Create;
+import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.command.Move;
+import shapesphotoalbum.model.command.Resize;
+import shapesphotoalbum.model.command.TakeSnapshot;
+import shapesphotoalbum.model.shape.ShapeType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares executing the commands of a generated album one at a time, as the controllers
+ * used to, with executing each block of commands between two snapshots as a batch.
+ * Usage: java BatchExecutionBenchmark [shapes] [snapshots] [commands-per-snapshot] [rounds]
+ */
+public class BatchExecutionBenchmark {
+  /**
+   * Runs the benchmark.
+   * @param args Optional album sizes and number of timed rounds, see the class description.
+   */
+  public static void main(String[] args) {
+    int shapes = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+    int snapshots = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int commands = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+    int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+    List<List<IAction>> blocks = generate(shapes, snapshots, commands);
+    long total = blocks.stream().mapToLong(List::size).sum();
+
+    System.out.printf("%d shapes, %d snapshots, %d commands per snapshot%n", shapes, snapshots, commands);
+    for (int round = 0; round <= rounds; round++) {
+      boolean warmup = round == 0;
+
+      long start = System.nanoTime();
+      IModel model = new ShapesPhotoAlbumModel();
+      for (List<IAction> block : blocks)
+        for (IAction action : block)
+          model.executeCommand(action);
+      report("per command", total, System.nanoTime() - start, warmup);
+
+      start = System.nanoTime();
+      model = new ShapesPhotoAlbumModel();
+      for (List<IAction> block : blocks)
+        model.executeBatch(block);
+      report("batch per snapshot", total, System.nanoTime() - start, warmup);
+    }
+  }
+
+  private static void report(String name, long commands, long time, boolean warmup) {
+    if (!warmup)
+      System.out.printf("%-20s %,12.0f commands/s%n", name, commands / (time / 1e9));
+  }
+
+  /**
+   * Generates the blocks of an animation-style album, each ending with a snapshot, in which
+   * shapes are edited several times between snapshots.
+   */
+  private static List<List<IAction>> generate(int shapes, int snapshots, int commands) {
+    Random random = new Random(42);
+    List<List<IAction>> blocks = new ArrayList<>();
+    List<IAction> first = new ArrayList<>();
+    for (int i = 0; i < shapes; i++)
+      first.add(new Create("S" + i, ShapeType.OVAL, i % 1000, i / 1000, 20, 20, 255, 128, 0));
+    first.add(new TakeSnapshot("start"));
+    blocks.add(first);
+
+    int active = Math.max(1, commands / 8); // shapes animated in each block
+    for (int s = 0; s < snapshots; s++) {
+      List<IAction> block = new ArrayList<>();
+      int offset = random.nextInt(shapes);
+      for (int c = 0; c < commands; c++) {
+        String shape = "S" + (offset + random.nextInt(active)) % shapes;
+        block.add(switch (c % 3) {
+          case 0 -> new Move(shape, random.nextInt(1000), random.nextInt(1000));
+          case 1 -> new Resize(shape, 1 + random.nextInt(50), 1 + random.nextInt(50));
+          default -> new ChangeColor(shape, random.nextInt(256), random.nextInt(256), 0);
+        });
+      }
+      block.add(new TakeSnapshot("frame " + s));
+      blocks.add(block);
+    }
+    return blocks;
+  }
+}
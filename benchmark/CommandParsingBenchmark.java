@@ -0,0 +1,109 @@
+import shapesphotoalbum.controller.reader.CommandRegistry;
+import shapesphotoalbum.controller.reader.transform.ColorTransform;
+import shapesphotoalbum.controller.reader.transform.CreateTransform;
+import shapesphotoalbum.controller.reader.transform.ITextToAction;
+import shapesphotoalbum.controller.reader.transform.MoveTransform;
+import shapesphotoalbum.controller.reader.transform.RemoveTransform;
+import shapesphotoalbum.controller.reader.transform.ResizeTransform;
+import shapesphotoalbum.controller.reader.transform.SnapshotTransform;
+import shapesphotoalbum.model.command.IAction;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Compares the per-line cost of turning tokenized command lines into actions by creating a
+ * transform for each line, as the reader used to, and by dispatching each line to the
+ * reusable parser registered for its keyword. Building the actions themselves is part of both,
+ * so the difference is the overhead of dispatching.
+ * Usage: java CommandParsingBenchmark [lines] [rounds]
+ */
+public class CommandParsingBenchmark {
+  /**
+   * Runs the benchmark.
+   * @param args Optional number of lines and of timed rounds, see the class description.
+   */
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    String[][] lines = generate(count);
+    CommandRegistry registry = new CommandRegistry();
+
+    System.out.printf("%,d lines, %d rounds%n", count, rounds);
+    for (int round = 0; round <= rounds; round++) {
+      boolean warmup = round == 0;
+      run("transform per line", CommandParsingBenchmark::transform, lines, warmup);
+      run("registry dispatch", registry::parse, lines, warmup);
+    }
+  }
+
+  /**
+   * Parses every line the way the reader did before commands were registered.
+   */
+  private static IAction transform(String[] line) {
+    ITextToAction transform = switch (line[0].toLowerCase()) {
+      case "shape" -> new CreateTransform(line);
+      case "move" -> new MoveTransform(line);
+      case "resize" -> new ResizeTransform(line);
+      case "color" -> new ColorTransform(line);
+      case "snapshot" -> new SnapshotTransform(line);
+      case "remove" -> new RemoveTransform(line);
+      default -> null;
+    };
+    return transform == null ? null : transform.transformToAction();
+  }
+
+  /**
+   * Parses all the lines and prints the time and the heap allocated per line.
+   */
+  private static void run(String name, Function<String[], IAction> parser, String[][] lines,
+                          boolean warmup) {
+    long allocatedBefore = allocatedBytes();
+    long start = System.nanoTime();
+    long actions = 0;
+    for (String[] line : lines)
+      if (parser.apply(line) != null)
+        actions++;
+    long time = System.nanoTime() - start;
+    long allocated = allocatedBytes() - allocatedBefore;
+
+    if (!warmup)
+      System.out.printf("%-20s %6.1f ns/line, %5.1f bytes/line allocated (%d actions)%n",
+          name, (double) time / lines.length, (double) allocated / lines.length, actions);
+  }
+
+  /**
+   * Generates a typical album: shapes created first, then mostly moves, resizes and color
+   * changes with a snapshot now and then.
+   */
+  private static String[][] generate(int count) {
+    Random random = new Random(42);
+    int shapes = Math.max(1, Math.min(1000, count / 10));
+    String[][] lines = new String[count][];
+    for (int i = 0; i < count; i++) {
+      String name = "S" + (i < shapes ? i : random.nextInt(shapes));
+      String x = Integer.toString(random.nextInt(1000));
+      String y = Integer.toString(random.nextInt(1000));
+      if (i < shapes)
+        lines[i] = new String[] {"shape", name, i % 2 == 0 ? "rectangle" : "oval", x, y, "20", "30", "255", "0", "0"};
+      else
+        lines[i] = switch (random.nextInt(5)) {
+          case 0, 1 -> new String[] {"move", name, x, y};
+          case 2 -> new String[] {"resize", name, x, y};
+          case 3 -> new String[] {"color", name, "0", x, "128"};
+          default -> new String[] {"snapshot", "Frame", name};
+        };
+    }
+    return lines;
+  }
+
+  /**
+   * Gets the bytes allocated so far by the current thread, or 0 if the JVM can't tell.
+   */
+  private static long allocatedBytes() {
+    if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+      return threads.getCurrentThreadAllocatedBytes();
+    return 0;
+  }
+}
@@ -0,0 +1,83 @@
+import shapesphotoalbum.model.DeltaSnapshotStore;
+import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.ISnapshotStore;
+import shapesphotoalbum.model.InMemorySnapshotStore;
+import shapesphotoalbum.model.ShapesPhotoAlbumModel;
+import shapesphotoalbum.model.command.ChangeColor;
+import shapesphotoalbum.model.command.Create;
+import shapesphotoalbum.model.command.Move;
+import shapesphotoalbum.model.shape.ShapeType;
+
+import java.util.Random;
+
+/**
+ * Compares the retained memory and read cost of the snapshot stores on a generated
+ * animation-style album, where consecutive snapshots differ by a few shapes.
+ * Usage: java SnapshotStorageBenchmark [shapes] [snapshots] [edits-per-snapshot] [keyframe-interval]
+ */
+public class SnapshotStorageBenchmark {
+  /**
+   * Runs the benchmark.
+   * @param args Optional album sizes, see the class description.
+   */
+  public static void main(String[] args) {
+    int shapes = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    int snapshots = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+    int edits = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    int interval = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+
+    System.out.printf("%d shapes, %d snapshots, %d edits per snapshot%n", shapes, snapshots, edits);
+    run("in-memory", new InMemorySnapshotStore(), shapes, snapshots, edits);
+    run("delta (keyframe every " + interval + ")", new DeltaSnapshotStore(interval),
+        shapes, snapshots, edits);
+  }
+
+  /**
+   * Builds the album on a model using the given store and prints its measurements.
+   */
+  private static void run(String name, ISnapshotStore store, int shapes, int snapshots, int edits) {
+    long before = usedMemory();
+    IModel model = new ShapesPhotoAlbumModel(store);
+    Random random = new Random(42);
+
+    for (int i = 0; i < shapes; i++)
+      model.executeCommand(new Create("S" + i, ShapeType.OVAL, i % 1000, i / 1000, 20, 20, 255, 128, 0));
+    long baseline = usedMemory() - before;
+
+    long start = System.nanoTime();
+    for (int s = 0; s < snapshots; s++) {
+      for (int e = 0; e < edits; e++) {
+        String shape = "S" + random.nextInt(shapes);
+        if (e % 2 == 0)
+          model.executeCommand(new Move(shape, random.nextInt(1000), random.nextInt(1000)));
+        else
+          model.executeCommand(new ChangeColor(shape, random.nextInt(256), 0, 0));
+      }
+      model.takeSnapshot("");
+    }
+    long buildTime = System.nanoTime() - start;
+    long retained = usedMemory() - before - baseline;
+
+    start = System.nanoTime();
+    int reads = Math.min(200, snapshots);
+    long shapesRead = 0;
+    for (int r = 0; r < reads; r++)
+      shapesRead += store.get(random.nextInt(snapshots)).getContent().size();
+    long readTime = System.nanoTime() - start;
+
+    System.out.printf("%-30s snapshots retain %,d KB, build %d ms, random getContent %.3f ms (%d shapes read)%n",
+        name, retained / 1024, buildTime / 1_000_000, readTime / 1e6 / reads, shapesRead);
+    if (model.getCurrentState() == null)
+      System.out.println(); // keeps the model reachable until measured
+  }
+
+  /**
+   * Gets the heap in use after collecting garbage.
+   */
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++)
+      System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
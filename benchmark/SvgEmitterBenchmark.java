@@ -0,0 +1,92 @@
+import shapesphotoalbum.controller.adaptor.SvgEmitter;
+import shapesphotoalbum.model.shape.Color;
+import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.Oval;
+import shapesphotoalbum.model.shape.Point2D;
+import shapesphotoalbum.model.shape.Rectangle;
+import shapesphotoalbum.model.shape.ShapeType;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Compares writing the SVG elements of shapes with String.format, as SnapshotXML used to, and
+ * with the template fragments of SvgEmitter, both into a StringBuilder that is reused.
+ * Usage: java SvgEmitterBenchmark [shapes] [rounds]
+ */
+public class SvgEmitterBenchmark {
+  /**
+   * Runs the benchmark.
+   * @param args Optional number of shapes and of timed rounds, see the class description.
+   */
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    IShape[] shapes = generate(count);
+    SvgEmitter emitter = new SvgEmitter();
+    StringBuilder out = new StringBuilder();
+
+    System.out.printf("%,d shapes, %d rounds%n", count, rounds);
+    for (int round = 0; round <= rounds; round++) {
+      boolean warmup = round == 0;
+
+      out.setLength(0);
+      long allocated = allocatedBytes();
+      long start = System.nanoTime();
+      for (IShape shape : shapes)
+        out.append(format(shape));
+      report("String.format", shapes.length, System.nanoTime() - start, allocatedBytes() - allocated,
+          out.length(), warmup);
+
+      out.setLength(0);
+      allocated = allocatedBytes();
+      start = System.nanoTime();
+      for (IShape shape : shapes)
+        emitter.emitShape(shape, out);
+      report("SvgEmitter", shapes.length, System.nanoTime() - start, allocatedBytes() - allocated,
+          out.length(), warmup);
+    }
+  }
+
+  /**
+   * Formats a shape the way SnapshotXML did before the emitter.
+   */
+  private static String format(IShape shape) {
+    Point2D position = shape.getPosition();
+    Color color = shape.getColor();
+    String template = shape.getType() == ShapeType.RECTANGLE
+        ? "<rect x='%d' y='%d' width='%d' height='%d' fill='rgb(%d,%d,%d)' />\n"
+        : "<ellipse cx='%d' cy='%d' rx='%d' ry='%d' fill='rgb(%d,%d,%d)' />\n";
+    return String.format(template, position.getX(), position.getY(), shape.getHorizontalDimension(),
+        shape.getVerticalDimension(), color.getR(), color.getG(), color.getB());
+  }
+
+  private static void report(String name, int shapes, long time, long allocated, int chars,
+                             boolean warmup) {
+    if (!warmup)
+      System.out.printf("%-14s %6.1f ns/shape, %6.1f bytes/shape allocated (%,d chars)%n",
+          name, (double) time / shapes, (double) allocated / shapes, chars);
+  }
+
+  private static IShape[] generate(int count) {
+    Random random = new Random(42);
+    IShape[] shapes = new IShape[count];
+    for (int i = 0; i < count; i++) {
+      Point2D position = new Point2D(random.nextInt(1000), random.nextInt(1000));
+      Color color = new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+      shapes[i] = i % 2 == 0
+          ? new Rectangle("S" + i, position, 1 + random.nextInt(200), 1 + random.nextInt(200), color)
+          : new Oval("S" + i, position, 1 + random.nextInt(200), 1 + random.nextInt(200), color);
+    }
+    return shapes;
+  }
+
+  /**
+   * Gets the bytes allocated so far by the current thread, or 0 if the JVM can't tell.
+   */
+  private static long allocatedBytes() {
+    if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+      return threads.getCurrentThreadAllocatedBytes();
+    return 0;
+  }
+}
@@ -0,0 +1,73 @@
+import shapesphotoalbum.controller.adaptor.SvgEmitter;
+import shapesphotoalbum.controller.adaptor.SvgSymbols;
+import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.ISnapshot;
+import shapesphotoalbum.model.ShapesPhotoAlbumModel;
+import shapesphotoalbum.model.command.Create;
+import shapesphotoalbum.model.command.Move;
+import shapesphotoalbum.model.shape.ShapeType;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the markup of an animation-style album, where each snapshot moves a few shapes,
+ * written in full and with the shape states shared through an SvgSymbols table: its size, and
+ * the time to write it into a StringBuilder.
+ * Usage: java SvgSymbolsBenchmark [shapes] [snapshots] [moves-per-snapshot] [rounds]
+ */
+public class SvgSymbolsBenchmark {
+  /**
+   * Runs the benchmark.
+   * @param args Optional number of shapes, of snapshots, of moves between two snapshots and of
+   *             timed rounds, see the class description.
+   */
+  public static void main(String[] args) {
+    int shapes = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+    int snapshots = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+    int moves = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+    List<ISnapshot> album = generate(shapes, snapshots, moves);
+    StringBuilder out = new StringBuilder();
+
+    System.out.printf("%,d shapes, %,d snapshots, %d moves per snapshot, %d rounds%n",
+        shapes, snapshots, moves, rounds);
+    for (int round = 0; round <= rounds; round++) {
+      boolean warmup = round == 0;
+
+      out.setLength(0);
+      SvgEmitter full = new SvgEmitter();
+      long start = System.nanoTime();
+      for (ISnapshot snapshot : album)
+        full.emitSnapshot(snapshot, out);
+      report("full", System.nanoTime() - start, out.length(), warmup);
+
+      out.setLength(0);
+      SvgEmitter shared = new SvgEmitter(new SvgSymbols());
+      start = System.nanoTime();
+      for (ISnapshot snapshot : album)
+        shared.emitSnapshot(snapshot, out);
+      report("symbols", System.nanoTime() - start, out.length(), warmup);
+    }
+  }
+
+  private static void report(String name, long time, int chars, boolean warmup) {
+    if (!warmup)
+      System.out.printf("%-8s %8.1f ms, %,12d chars%n", name, time / 1e6, chars);
+  }
+
+  private static List<ISnapshot> generate(int shapes, int snapshots, int moves) {
+    Random random = new Random(42);
+    IModel model = new ShapesPhotoAlbumModel();
+    for (int i = 0; i < shapes; i++)
+      model.executeCommand(new Create("S" + i, i % 2 == 0 ? ShapeType.RECTANGLE : ShapeType.OVAL,
+          random.nextInt(1000), random.nextInt(1000), 1 + random.nextInt(200), 1 + random.nextInt(200),
+          random.nextInt(256), random.nextInt(256), random.nextInt(256)));
+    for (int i = 0; i < snapshots; i++) {
+      for (int j = 0; j < moves; j++)
+        model.executeCommand(new Move("S" + random.nextInt(shapes), random.nextInt(1000), random.nextInt(1000)));
+      model.takeSnapshot("Snapshot " + i);
+    }
+    return model.getSnapshots();
+  }
+}
@@ -0,0 +1,87 @@
+import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.ISnapshot;
+import shapesphotoalbum.model.ShapesPhotoAlbumModel;
+import shapesphotoalbum.model.command.Create;
+import shapesphotoalbum.model.command.Move;
+import shapesphotoalbum.model.shape.ShapeType;
+import shapesphotoalbum.view.StreamingWebView;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compares exporting an album to HTML with the streaming web view on the main thread, on pools
+ * of 1 up to as many threads as there are cores.
+ * Usage: java WebRenderingBenchmark [shapes] [snapshots] [rounds]
+ */
+public class WebRenderingBenchmark {
+  private static final int WINDOW_PER_THREAD = 4;
+
+  /**
+   * Runs the benchmark.
+   * @param args Optional number of shapes, of snapshots and of timed rounds, see the class description.
+   * @throws IOException if the temporary files can't be written.
+   */
+  public static void main(String[] args) throws IOException {
+    int shapes = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+    int snapshots = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+    int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+    int cores = Runtime.getRuntime().availableProcessors();
+    List<ISnapshot> album = generate(shapes, snapshots);
+    Path dir = Files.createTempDirectory("web-rendering");
+
+    System.out.printf("%,d shapes, %,d snapshots, %d cores, %d rounds%n", shapes, snapshots, cores, rounds);
+    for (int round = 0; round <= rounds; round++) {
+      boolean warmup = round == 0;
+      report("main thread", run(dir, album, null, 0), warmup);
+      for (int threads = 1; threads <= cores; threads *= 2) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        report(threads + " threads", run(dir, album, pool, WINDOW_PER_THREAD * threads), warmup);
+        pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Exports the album to a new file and deletes it.
+   * @return The time taken, in nanoseconds.
+   */
+  private static long run(Path dir, List<ISnapshot> album, ExecutorService pool, int window)
+      throws IOException {
+    Path file = dir.resolve("album.html");
+    long start = System.nanoTime();
+    StreamingWebView view = pool == null ? new StreamingWebView(file.toString())
+        : new StreamingWebView(file.toString(), pool, window);
+    for (ISnapshot snapshot : album)
+      view.addSnapshot(snapshot);
+    view.close();
+    long time = System.nanoTime() - start;
+    Files.delete(file);
+    return time;
+  }
+
+  private static void report(String name, long time, boolean warmup) {
+    if (!warmup)
+      System.out.printf("%-12s %8.1f ms%n", name, time / 1e6);
+  }
+
+  private static List<ISnapshot> generate(int shapes, int snapshots) {
+    Random random = new Random(42);
+    IModel model = new ShapesPhotoAlbumModel();
+    for (int i = 0; i < shapes; i++)
+      model.executeCommand(new Create("S" + i, i % 2 == 0 ? ShapeType.RECTANGLE : ShapeType.OVAL,
+          random.nextInt(1000), random.nextInt(1000), 1 + random.nextInt(200), 1 + random.nextInt(200),
+          random.nextInt(256), random.nextInt(256), random.nextInt(256)));
+    for (int i = 0; i < snapshots; i++) {
+      for (int j = 0; j < 10; j++)
+        model.executeCommand(new Move("S" + random.nextInt(shapes), random.nextInt(1000), random.nextInt(1000)));
+      model.takeSnapshot("Snapshot " + i);
+    }
+    return model.getSnapshots();
+  }
+}
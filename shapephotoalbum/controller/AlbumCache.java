@@ -0,0 +1,199 @@
+package shapesphotoalbum.controller;
+
+import shapesphotoalbum.controller.reader.ActionReader;
+import shapesphotoalbum.model.AlbumStateFile;
+import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.ShapesPhotoAlbumModel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps the albums built from input files in a directory, so that running the same input
+ * again loads the built album instead of parsing and executing its commands.
+ * An entry is an {@link AlbumStateFile} named after a hash of the content of the input file
+ * and the {@link ActionReader#PARSER_VERSION}, so changing the input or the parser never
+ * reuses an old entry. When the entries go over the size limit, the least recently used ones
+ * are deleted. The numbers of hits and misses of the cache are counted.
+ */
+public class AlbumCache {
+  private static final long WINDOW_SIZE = 1L << 30; // most bytes of the input mapped at once
+  private static final String SUFFIX = ".album";
+
+  private final Path directory;
+  private final long maxBytes;
+  private long hits;
+  private long misses;
+
+  /**
+   * Constructs a cache keeping its entries in the given directory, creating it if needed.
+   * @param directory The directory holding the entries.
+   * @param maxBytes The most bytes the entries may take together.
+   * @throws IllegalArgumentException If the directory is null or the limit is not positive.
+   * @throws UncheckedIOException If the directory can't be created.
+   */
+  public AlbumCache(Path directory, long maxBytes) {
+    if (directory == null)
+      throw new IllegalArgumentException("No cache directory given");
+    if (maxBytes < 1)
+      throw new IllegalArgumentException("Cache size must be positive");
+
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    try {
+      Files.createDirectories(directory);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't create cache directory " + directory, e);
+    }
+  }
+
+  /**
+   * Computes the key of an input file from the parser version and the content of the file.
+   * @param input The path of the input file.
+   * @return The key of the file.
+   * @throws UncheckedIOException If the file can't be read.
+   */
+  public static String keyOf(Path input) {
+    try (FileChannel channel = FileChannel.open(input)) {
+      long size = channel.size();
+      CRC32C crc = new CRC32C();
+      long hash = 0x9E3779B97F4A7C15L ^ size;
+
+      for (long position = 0; position < size; position += WINDOW_SIZE) {
+        ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+            Math.min(WINDOW_SIZE, size - position));
+        crc.update(window.duplicate());
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        while (window.remaining() >= Long.BYTES)
+          hash = mix(hash ^ window.getLong());
+        while (window.hasRemaining())
+          hash = mix(hash ^ window.get());
+      }
+      return String.format("v%d-%x-%08x-%016x", ActionReader.PARSER_VERSION, size, crc.getValue(), hash);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't read input file " + input, e);
+    }
+  }
+
+  private static long mix(long hash) {
+    return Long.rotateLeft(hash * 0x9E3779B97F4A7C15L, 31);
+  }
+
+  /**
+   * Loads the album cached under a key, and marks it as recently used.
+   * An entry that can't be loaded is deleted and counted as a miss.
+   * @param key The key of the input file, from {@link #keyOf(Path)}.
+   * @return The cached album, or null if there is none.
+   */
+  public ShapesPhotoAlbumModel get(String key) {
+    Path entry = directory.resolve(key + SUFFIX);
+    if (Files.isRegularFile(entry)) {
+      ShapesPhotoAlbumModel model = null;
+      try {
+        model = AlbumStateFile.load(entry);
+      }
+      catch (RuntimeException e) {
+        delete(entry); // written by another version, or damaged
+      }
+
+      if (model != null) {
+        touch(entry);
+        hits++;
+        return model;
+      }
+    }
+
+    misses++;
+    return null;
+  }
+
+  /**
+   * Caches an album under a key, then deletes the least recently used entries until the
+   * cache is within its size limit again.
+   * @param key The key of the input file the album was built from.
+   * @param model The built album.
+   * @throws UncheckedIOException If the album can't be written.
+   */
+  public void put(String key, IModel model) {
+    AlbumStateFile.save(model, directory.resolve(key + SUFFIX));
+    evict();
+  }
+
+  /**
+   * Deletes the least recently used entries while the cache is over its size limit.
+   */
+  private void evict() {
+    record Entry(Path path, FileTime lastUsed, long size) {
+    }
+
+    List<Entry> entries = new ArrayList<>();
+    long total = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+      for (Path path : stream) {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        entries.add(new Entry(path, attributes.lastModifiedTime(), attributes.size()));
+        total += attributes.size();
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't list cache directory " + directory, e);
+    }
+
+    entries.sort(Comparator.comparing(Entry::lastUsed));
+    for (int i = 0; i < entries.size() && total > maxBytes; i++) {
+      delete(entries.get(i).path());
+      total -= entries.get(i).size();
+    }
+  }
+
+  /**
+   * Marks an entry as used now.
+   */
+  private static void touch(Path entry) {
+    try {
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+    catch (IOException ignored) {
+      // the entry is only evicted earlier than it should
+    }
+  }
+
+  private static void delete(Path entry) {
+    try {
+      Files.deleteIfExists(entry);
+    }
+    catch (IOException ignored) {
+      // another run may be using it, it is evicted again later
+    }
+  }
+
+  /**
+   * Gets the number of lookups that found a cached album.
+   * @return The number of hits.
+   */
+  public long getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Gets the number of lookups that found no cached album.
+   * @return The number of misses.
+   */
+  public long getMissCount() {
+    return misses;
+  }
+}
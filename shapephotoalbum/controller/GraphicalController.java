@@ -1,25 +1,42 @@
 package shapesphotoalbum.controller;
 
 import shapesphotoalbum.controller.reader.ActionReader;
+import shapesphotoalbum.controller.reader.InputTailer;
 import shapesphotoalbum.model.IModel;
 import shapesphotoalbum.model.ISnapshot;
+import shapesphotoalbum.model.SnapshotInfo;
 import shapesphotoalbum.model.command.IAction;
 import shapesphotoalbum.view.*;
 
+import javax.swing.SwingUtilities;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The GraphicalController class implements the controller logic for managing the graphical view of the photo album application.
  * It interacts with the model and view components to display snapshots and handle user interactions.
+ * In tail mode, the input file keeps being followed once the window is shown: commands appended
+ * to it are parsed and executed on a background thread, and the snapshots they take are added to
+ * the menu of the view. Until the first snapshot is taken, the buttons only tell the user that
+ * there is nothing to show. The model is only accessed while holding its lock.
  */
 public class GraphicalController implements IController, ICommandDelegate {
+  private static final long TAIL_INTERVAL_MILLIS = 250; // delay between two checks of the input file
+
   IModel model;
   IGraphicalView view;
   InputStream in;
   int currentPage = 0;
-  List<ISnapshot> snapshots;
+  private InputTailer tailer; // follows the input file in tail mode, null otherwise
+  private int menuSize; // snapshots added to the menu by the tail thread
+  private boolean displayed; // whether a snapshot is displayed yet
 
   /**
    * Constructs a GraphicalController with the specified model, graphical view, and input file.
@@ -30,41 +47,162 @@ public class GraphicalController implements IController, ICommandDelegate {
    * @throws FileNotFoundException if the specified input file is not found.
    */
   public GraphicalController(IModel model, IGraphicalView view, InputStream in) throws FileNotFoundException {
+    this(model, view, in, null);
+  }
+
+  /**
+   * Constructs a GraphicalController that parses its input file in parallel chunks.
+   *
+   * @param model the model component of the photo album application.
+   * @param view the graphical view component of the photo album application.
+   * @param in the input file containing commands to execute.
+   * @param parsePool the pool parsing chunks of the input file, or null to parse it in one go.
+   * @throws FileNotFoundException if the specified input file is not found.
+   */
+  public GraphicalController(IModel model, IGraphicalView view, InputStream in, ForkJoinPool parsePool)
+      throws FileNotFoundException {
+    this(model, view, in, parsePool, false);
+  }
+
+  /**
+   * Constructs a GraphicalController that can keep following its input file.
+   *
+   * @param model the model component of the photo album application.
+   * @param view the graphical view component of the photo album application.
+   * @param in the input file containing commands to execute.
+   * @param parsePool the pool parsing chunks of the input file, or null to parse it in one go.
+   *                  Not used in tail mode.
+   * @param tail whether to keep executing the commands appended to the input file once the
+   *             window is shown.
+   * @throws FileNotFoundException if the specified input file is not found.
+   * @throws IllegalArgumentException if tail mode is asked for and the input is not a file.
+   */
+  public GraphicalController(IModel model, IGraphicalView view, InputStream in, ForkJoinPool parsePool,
+                             boolean tail) throws FileNotFoundException {
     this.model = model;
     this.view = view;
     this.in = in;
 
-    // Read input file and execute corresponding actions
-    List<IAction> actions = ActionReader.readInput(in);
-    for (IAction action : actions)
-      model.executeCommand(action);
-    this.snapshots = model.getSnapshots();
+    if (tail) {
+      if (!(in instanceof FileInputStream file))
+        throw new IllegalArgumentException("Only an input file can be tailed");
+
+      // Read the complete lines written so far, the rest is read once the window is shown
+      tailer = new InputTailer(file.getChannel());
+      executeAppended();
+      menuSize = model.getSnapshotCount();
+      return;
+    }
+
+    // Read input file and execute each action, in order, as soon as it is parsed
+    ActionReader.readInput(in, model::executeCommand, parsePool);
   }
 
   /**
    * Starts the controller's main operation.
    * Displays snapshots in the graphical view and handles user interactions.
+   * Snapshots are fetched from the model one at a time as they are displayed.
    */
   @Override
   public void go() {
-    if (snapshots.isEmpty()) {
+    boolean empty = model.getSnapshotCount() == 0;
+    if (empty && tailer == null) {
       this.view.showPopUpWindow("No snapshots in this album.");
       System.exit(0);
     }
 
     this.addSnapshotsToView();
     view.addButtonReactors(this);
-    this.view.displaySnapshot(snapshots.get(currentPage));
+    if (!empty) {
+      this.view.displaySnapshot(model.getSnapshot(currentPage));
+      displayed = true;
+    }
     this.view.displayWindow();
+
+    if (tailer != null) {
+      ScheduledExecutorService tailThread = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "input-tail");
+        thread.setDaemon(true);
+        return thread;
+      });
+      tailThread.scheduleWithFixedDelay(this::tail, TAIL_INTERVAL_MILLIS, TAIL_INTERVAL_MILLIS,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Executes the commands appended to the input file since the last check, then hands the new
+   * snapshots and any error over to the event thread. Runs on the tail thread.
+   */
+  private void tail() {
+    String error = null;
+    try {
+      executeAppended();
+    }
+    catch (RuntimeException e) {
+      error = e.getMessage();
+    }
+
+    List<SnapshotInfo> added;
+    synchronized (model) {
+      int count = model.getSnapshotCount();
+      added = count > menuSize ? model.getSnapshotInfo().subList(menuSize, count) : List.of();
+      menuSize = count;
+    }
+
+    if (added.isEmpty() && error == null)
+      return;
+    String message = error;
+    SwingUtilities.invokeLater(() -> {
+      for (SnapshotInfo info : added)
+        view.addSnapshotToMenu(info.getId());
+      if (!displayed && !added.isEmpty()) {
+        view.displaySnapshot(snapshot(currentPage));
+        displayed = true;
+      }
+      if (message != null)
+        view.showPopUpWindow("Invalid command appended to the input: " + message);
+    });
+  }
+
+  /**
+   * Parses the lines completed since the last check of the input file, then executes their
+   * actions as one batch while holding the lock of the model. The actions of the valid lines
+   * still run, and the error of the first invalid line is the one thrown.
+   */
+  private void executeAppended() {
+    List<IAction> actions = new ArrayList<>();
+    try {
+      tailer.poll(actions::add);
+    }
+    catch (RuntimeException e) {
+      try {
+        executeBatch(actions);
+      }
+      catch (RuntimeException batchError) {
+        e.addSuppressed(batchError);
+      }
+      throw e;
+    }
+    executeBatch(actions);
+  }
+
+  /**
+   * Executes actions as one batch while holding the lock of the model.
+   */
+  private void executeBatch(List<IAction> actions) {
+    synchronized (model) {
+      model.executeBatch(actions);
+    }
   }
 
   /**
-   * Adds snapshots to the graphical view's menu.
+   * Adds snapshots to the graphical view's menu, using only their metadata.
    */
   @Override
   public void addSnapshotsToView() {
-    for (ISnapshot snapshot : snapshots) {
-      this.view.addSnapshotToMenu(snapshot.getId());
+    for (SnapshotInfo info : model.getSnapshotInfo()) {
+      this.view.addSnapshotToMenu(info.getId());
     }
   }
 
@@ -73,7 +211,13 @@ public class GraphicalController implements IController, ICommandDelegate {
    */
   @Override
   public void showInfo() {
-    ISnapshot currentSnapshot = snapshots.get(currentPage);
+    if (isWaiting())
+      return;
+
+    ISnapshot currentSnapshot;
+    synchronized (model) {
+      currentSnapshot = model.getSnapshot(currentPage);
+    }
     String info = String.format("<html>ID: %s<br>Timestamp: %s<br>Description: %s</html>",
         currentSnapshot.getId(), currentSnapshot.getTimestamp(), currentSnapshot.getDescription());
     this.view.displayInfo(info);
@@ -84,13 +228,15 @@ public class GraphicalController implements IController, ICommandDelegate {
    */
   @Override
   public void pageForward() {
-    if (snapshots.size() <= currentPage + 1) {
+    if (isWaiting())
+      return;
+    if (snapshotCount() <= currentPage + 1) {
       this.view.showPopUpWindow("End of the photo album. No snapshots to be shown beyond this one.");
       return;
     }
 
     this.currentPage += 1;
-    this.view.displaySnapshot(snapshots.get(currentPage));
+    this.view.displaySnapshot(snapshot(currentPage));
     this.showInfo();
   }
 
@@ -101,8 +247,11 @@ public class GraphicalController implements IController, ICommandDelegate {
    */
   @Override
   public void selectMenu(int index) {
+    if (isWaiting())
+      return;
+
     this.currentPage = index;
-    this.view.displaySnapshot(snapshots.get(currentPage));
+    this.view.displaySnapshot(snapshot(currentPage));
     this.showInfo();
   }
 
@@ -111,16 +260,49 @@ public class GraphicalController implements IController, ICommandDelegate {
    */
   @Override
   public void pageBackward() {
+    if (isWaiting())
+      return;
     if (currentPage - 1 < 0) {
       this.view.showPopUpWindow("This is the first snapshot of the photo album.");
       return;
     }
 
     this.currentPage -= 1;
-    this.view.displaySnapshot(snapshots.get(currentPage));
+    this.view.displaySnapshot(snapshot(currentPage));
     this.showInfo();
   }
 
+  /**
+   * Checks whether the album is tailed and has no snapshot to display yet, telling the user so.
+   *
+   * @return true if there is no snapshot to act on.
+   */
+  private boolean isWaiting() {
+    if (tailer == null || displayed)
+      return false;
+
+    this.view.showPopUpWindow("No snapshots in this album yet.");
+    return true;
+  }
+
+  /**
+   * Gets a snapshot of the model while holding its lock.
+   */
+  private ISnapshot snapshot(int index) {
+    synchronized (model) {
+      return model.getSnapshot(index);
+    }
+  }
+
+  /**
+   * Gets the number of snapshots of the model while holding its lock.
+   */
+  private int snapshotCount() {
+    synchronized (model) {
+      return model.getSnapshotCount();
+    }
+  }
+
   /**
    * Exits the application.
    */
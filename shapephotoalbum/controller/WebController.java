@@ -4,11 +4,14 @@ import shapesphotoalbum.controller.reader.ActionReader;
 import shapesphotoalbum.model.IModel;
 import shapesphotoalbum.model.ISnapshot;
 import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.command.TakeSnapshot;
 import shapesphotoalbum.view.IWebView;
 
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The WebController class is responsible for controlling the web-based view of the photo album.
@@ -31,15 +34,37 @@ public class WebController implements IController {
    * @throws FileNotFoundException if the specified input file is not found.
    */
   public WebController(IModel model, IWebView view, InputStream in, String out) throws FileNotFoundException {
+    this(model, view, in, out, null);
+  }
+
+  /**
+   * Constructs a WebController that parses its input file in parallel chunks.
+   *
+   * @param model the model to be used for processing commands and managing snapshots.
+   * @param view the web view interface used to display the photo album.
+   * @param in the input file containing commands to initialize the photo album.
+   * @param out the output file path for storing results or logs.
+   * @param parsePool the pool parsing chunks of the input file, or null to parse it in one go.
+   * @throws FileNotFoundException if the specified input file is not found.
+   */
+  public WebController(IModel model, IWebView view, InputStream in, String out, ForkJoinPool parsePool)
+      throws FileNotFoundException {
     this.model = model;
     this.view = view;
     this.in = in;
     this.out = out;
 
-    // Read input commands and execute them on the model
-    List<IAction> actions = ActionReader.readInput(in);
-    for (IAction action : actions)
-      model.executeCommand(action);
+    // Read input commands and execute them on the model one block at a time, each block
+    // ending with a snapshot, as soon as the block is parsed
+    List<IAction> block = new ArrayList<>();
+    ActionReader.readInput(in, action -> {
+      block.add(action);
+      if (action instanceof TakeSnapshot) {
+        model.executeBatch(block);
+        block.clear();
+      }
+    }, parsePool);
+    model.executeBatch(block);
 
     // Retrieve snapshots from the model after executing commands
     this.snapshots = model.getSnapshots();
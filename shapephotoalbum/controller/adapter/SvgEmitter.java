@@ -0,0 +1,179 @@
+package shapesphotoalbum.controller.adaptor;
+
+import shapesphotoalbum.model.ISnapshot;
+import shapesphotoalbum.model.shape.Color;
+import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.Point2D;
+import shapesphotoalbum.model.shape.ShapeType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * The SvgEmitter class writes the SVG markup of snapshots and shapes into a given
+ * {@link Appendable}, producing exactly the text of {@link SnapshotXML}.
+ * Each element is written as fixed template fragments with the numbers in between, so no
+ * format string is parsed, no number is boxed and no intermediate string is built. Numbers go
+ * straight into a {@link StringBuilder}, or through a reused digit buffer into a {@link Writer},
+ * without allocating. An emitter keeps that buffer, so it must not be shared between threads.
+ * Given an {@link SvgSymbols} table, the element of a shape state gets an ID the first time it
+ * is written, and each later shape in that state is written as a {@code <use>} of it instead, so
+ * that a state shared by several snapshots is only written once.
+ */
+public final class SvgEmitter {
+  private static final String[] RECTANGLE =
+      {"<rect", " x='", "' y='", "' width='", "' height='", "' fill='rgb(", ",", ",", ")' />\n"};
+  private static final String[] OVAL =
+      {"<ellipse", " cx='", "' cy='", "' rx='", "' ry='", "' fill='rgb(", ",", ",", ")' />\n"};
+
+  private final char[] digits = new char[11]; // fits any int with its sign
+  private final SvgSymbols symbols; // null to write every shape in full
+
+  /**
+   * Constructs an emitter writing every shape in full.
+   */
+  public SvgEmitter() {
+    this.symbols = null;
+  }
+
+  /**
+   * Constructs an emitter writing the shapes of snapshots whose state is already in a symbol
+   * table as references to its element, and adding the other states to the table.
+   *
+   * @param symbols the table of the shape states.
+   * @throws IllegalArgumentException if the table is null.
+   */
+  public SvgEmitter(SvgSymbols symbols) {
+    if (symbols == null)
+      throw new IllegalArgumentException("No symbol table given");
+    this.symbols = symbols;
+  }
+
+  /**
+   * Writes the markup of a snapshot: its metadata, then an SVG element with its shapes.
+   *
+   * @param snapshot the snapshot to write.
+   * @param out the destination of the markup.
+   * @throws UncheckedIOException if the destination can't be written.
+   */
+  public void emitSnapshot(ISnapshot snapshot, Appendable out) {
+    try {
+      out.append("<p>Snapshot ID: ").append(snapshot.getId()).append("</p>\n");
+      out.append("<p>Snapshot Timestamp: ").append(snapshot.getTimestamp()).append("</p>\n");
+      out.append("<p>Snapshot Description: ").append(snapshot.getDescription()).append("</p>\n\n");
+
+      out.append("<svg width='1000' height='1000'>\n");
+      out.append("<g transform=\"translate(0, 0)\">\n");
+      for (IShape shape : snapshot.getContent()) {
+        if (symbols == null) {
+          emitShape(shape, out);
+          continue;
+        }
+
+        int known = symbols.size();
+        int id = symbols.idOf(shape);
+        if (id >= known)
+          emitElement(shape, id, out); // first seen, its element is the one referred to
+        else
+          emitUse(id, out);
+      }
+      out.append("</g>\n");
+      out.append("</svg>\n");
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't write snapshot markup", e);
+    }
+  }
+
+  /**
+   * Writes the SVG element of a shape. Nothing is written for an unsupported shape type.
+   *
+   * @param shape the shape to write.
+   * @param out the destination of the markup.
+   * @throws UncheckedIOException if the destination can't be written.
+   */
+  public void emitShape(IShape shape, Appendable out) {
+    emitElement(shape, -1, out);
+  }
+
+  /**
+   * Writes a reference to the element of a shape state. Nothing is written for an unsupported
+   * shape type, which has no ID.
+   */
+  private void emitUse(int id, Appendable out) throws IOException {
+    if (id < 0)
+      return;
+    out.append("<use href='#").append(SvgSymbols.ID_PREFIX);
+    appendInt(id, out);
+    out.append("' />\n");
+  }
+
+  /**
+   * Writes the SVG element of a shape, with an ID attribute unless the ID is negative.
+   */
+  private void emitElement(IShape shape, int id, Appendable out) {
+    String[] template;
+    if (shape.getType() == ShapeType.RECTANGLE)
+      template = RECTANGLE;
+    else if (shape.getType() == ShapeType.OVAL)
+      template = OVAL;
+    else
+      return;
+
+    Point2D position = shape.getPosition();
+    Color color = shape.getColor();
+    try {
+      out.append(template[0]);
+      if (id >= 0) {
+        out.append(" id='").append(SvgSymbols.ID_PREFIX);
+        appendInt(id, out);
+        out.append('\'');
+      }
+      out.append(template[1]);
+      appendInt(position.getX(), out);
+      out.append(template[2]);
+      appendInt(position.getY(), out);
+      out.append(template[3]);
+      appendInt(shape.getHorizontalDimension(), out);
+      out.append(template[4]);
+      appendInt(shape.getVerticalDimension(), out);
+      out.append(template[5]);
+      appendInt(color.getR(), out);
+      out.append(template[6]);
+      appendInt(color.getG(), out);
+      out.append(template[7]);
+      appendInt(color.getB(), out);
+      out.append(template[8]);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't write shape markup", e);
+    }
+  }
+
+  /**
+   * Writes the decimal digits of a number, with a minus sign if it is negative.
+   */
+  private void appendInt(int value, Appendable out) throws IOException {
+    if (out instanceof StringBuilder builder) {
+      builder.append(value);
+      return;
+    }
+
+    // Fill the buffer from its end, working on the negative value so that MIN_VALUE fits
+    int start = digits.length;
+    int rest = value < 0 ? value : -value;
+    do {
+      digits[--start] = (char) ('0' - rest % 10);
+      rest /= 10;
+    } while (rest != 0);
+    if (value < 0)
+      digits[--start] = '-';
+
+    if (out instanceof Writer writer)
+      writer.write(digits, start, digits.length - start);
+    else
+      for (int i = start; i < digits.length; i++)
+        out.append(digits[i]);
+  }
+}
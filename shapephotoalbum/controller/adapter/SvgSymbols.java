@@ -0,0 +1,57 @@
+package shapesphotoalbum.controller.adaptor;
+
+import shapesphotoalbum.model.shape.Color;
+import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.Point2D;
+import shapesphotoalbum.model.shape.ShapeType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The SvgSymbols class collects the distinct states of the shapes written by an
+ * {@link SvgEmitter}: a shape with the same type, position, size and color as one seen before,
+ * in any snapshot, gets the same ID. The emitter writes the element of a state in full, with its
+ * ID, where it first appears, and a {@code <use>} of that element everywhere after, so albums
+ * whose shapes mostly stay put are several times smaller.
+ * A table is not thread-safe.
+ */
+public final class SvgSymbols {
+  static final String ID_PREFIX = "s";
+
+  private final Map<State, Integer> ids = new HashMap<>();
+
+  /**
+   * Gets the ID of the state of a shape, adding the state if it is new. A new state gets the
+   * ID {@link #size()} had before the call.
+   *
+   * @param shape the shape to look up.
+   * @return the ID of its state, or -1 for an unsupported shape type.
+   */
+  public int idOf(IShape shape) {
+    if (shape.getType() != ShapeType.RECTANGLE && shape.getType() != ShapeType.OVAL)
+      return -1;
+
+    Point2D position = shape.getPosition();
+    Color color = shape.getColor();
+    State state = new State(shape.getType(), position.getX(), position.getY(),
+        shape.getHorizontalDimension(), shape.getVerticalDimension(), color.getR(), color.getG(),
+        color.getB());
+    return ids.computeIfAbsent(state, key -> ids.size());
+  }
+
+  /**
+   * Gets the number of distinct shape states seen so far.
+   *
+   * @return the number of states.
+   */
+  public int size() {
+    return ids.size();
+  }
+
+  /**
+   * Everything the element of a shape is written from.
+   */
+  private record State(ShapeType type, int x, int y, int width, int height, int r, int g, int b) {
+  }
+}
@@ -1,64 +1,146 @@
 package shapesphotoalbum.controller.reader;
 
-import shapesphotoalbum.controller.reader.transform.*;
+import shapesphotoalbum.controller.reader.transform.TextCommandLine;
 import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * The ActionReader class is responsible for reading input data and converting it into a list of actions.
  * It utilizes different transform classes to parse input data into specific action types.
+ * Actions can also be streamed to a consumer one at a time, as soon as each line is parsed,
+ * so that they can run while the rest of the input is still being read. Files are memory-mapped
+ * and tokenized in place by a {@link MappedFileProcessor}, or split into chunks parsed in parallel
+ * by a {@link ParallelFileProcessor}. Albums compiled by {@link BinaryAlbumWriter} are recognized
+ * from their header and loaded by a {@link BinaryAlbumReader}.
+ * Each line is dispatched on its keyword to a parser of a {@link CommandRegistry}, where other
+ * command types can be registered. The shared registry of {@link #getCommands()} is used unless
+ * another one is given.
  */
 public class ActionReader {
+  /**
+   * The version of the input language and of the way it is parsed into actions. It changes
+   * whenever the same input could give different actions, so that results cached from an
+   * input are not reused after such a change.
+   */
+  public static final int PARSER_VERSION = 1;
+
+  private static final CommandRegistry COMMANDS = new CommandRegistry();
+
+  /**
+   * Gets the registry of the commands understood by the reader by default, to which the parsers
+   * of other command types can be added.
+   * @return The shared command registry.
+   */
+  public static CommandRegistry getCommands() {
+    return COMMANDS;
+  }
+
   /**
    * Reads input data from a file, processes it, and converts it into a list of actions.
    * @param inputStream The InputStream containing the input data.
    * @return A list of parsed actions based on the input data.
    */
   public static List<IAction> readInput(InputStream inputStream) {
+    List<IAction> actions = new ArrayList<>();
+    readInput(inputStream, actions::add);
+    return actions;
+  }
+
+  /**
+   * Reads input data from a file and hands each action to the consumer as soon as its line
+   * is parsed. A {@link FileInputStream} on a regular file is memory-mapped from its current
+   * position and parsed straight from its bytes. Neither the lines nor the actions are kept,
+   * so memory use does not depend on the length of the input. Actions before an invalid line
+   * have already been handed over when the error is thrown.
+   * @param inputStream The InputStream containing the input data.
+   * @param consumer The consumer receiving each action, in order, such as
+   *                 {@code model::executeCommand}.
+   */
+  public static void readInput(InputStream inputStream, Consumer<IAction> consumer) {
+    readInput(inputStream, consumer, null);
+  }
+
+  /**
+   * Reads input data from a file and hands each action to the consumer in order, parsing
+   * chunks of a regular file at the same time on the given pool. Other streams are read one
+   * line at a time.
+   * @param inputStream The InputStream containing the input data.
+   * @param consumer The consumer receiving each action, in order.
+   * @param pool The pool parsing chunks of the file, or null to parse it in one go.
+   */
+  public static void readInput(InputStream inputStream, Consumer<IAction> consumer,
+                               ForkJoinPool pool) {
+    readInput(inputStream, consumer, pool, COMMANDS);
+  }
+
+  /**
+   * Reads input data from a file and hands each action to the consumer in order, parsing
+   * each line with the parser registered for its keyword in the given registry.
+   * @param inputStream The InputStream containing the input data.
+   * @param consumer The consumer receiving each action, in order.
+   * @param pool The pool parsing chunks of the file, or null to parse it in one go.
+   * @param commands The registry of the commands understood.
+   * @throws IllegalArgumentException if the registry is null.
+   */
+  public static void readInput(InputStream inputStream, Consumer<IAction> consumer,
+                               ForkJoinPool pool, CommandRegistry commands) {
+    if (commands == null)
+      throw new IllegalArgumentException("No command registry given");
+
+    // Tokenize regular files in place, building actions without going through strings
+    if (inputStream instanceof FileInputStream file && hasMappableContent(file.getChannel())) {
+      if (BinaryAlbumReader.isBinaryAlbum(file.getChannel()))
+        new BinaryAlbumReader(inputStream).readActions(consumer);
+      else if (pool == null)
+        new MappedFileProcessor(file.getChannel(), commands).processActions(consumer);
+      else
+        new ParallelFileProcessor(file.getChannel(), pool, 0, commands).processActions(consumer);
+      return;
+    }
+
+    // Load compiled albums without parsing any text
+    if (!inputStream.markSupported())
+      inputStream = new BufferedInputStream(inputStream);
+    if (BinaryAlbumReader.isBinaryAlbum(inputStream)) {
+      new BinaryAlbumReader(inputStream).readActions(consumer);
+      return;
+    }
+
     // Create a data processor for the specified input file
     IDataProcessor dataProcessor = new FileProcessor(inputStream);
-    // Process the content of the input file
-    List<String[]> content = dataProcessor.process();
-    List<IAction> actions = new ArrayList<>();
 
-    // Parse each line of content into specific action types
-    for (String[] line : content) {
-      // Determine the command type (first element of the line)
-      String commandType = line[0].toLowerCase();
+    // Parse each line of content into specific action types as it is read, naming the shapes
+    // by their IDs in a table of the reader
+    ShapeNameTable names = new ShapeNameTable();
+    dataProcessor.process(line -> {
+      IAction action = commands.parse(new TextCommandLine(line, names));
+      if (action != null)
+        consumer.accept(action);
+    });
+  }
 
-      // Use different transform classes based on the command type
-      switch (commandType) {
-        case "shape":
-          ITextToAction create = new CreateTransform(line);
-          actions.add(create.transformToAction());
-          break;
-        case "move":
-          ITextToAction move = new MoveTransform(line);
-          actions.add(move.transformToAction());
-          break;
-        case "resize":
-          ITextToAction resize = new ResizeTransform(line);
-          actions.add(resize.transformToAction());
-          break;
-        case "color":
-          ITextToAction color = new ColorTransform(line);
-          actions.add(color.transformToAction());
-          break;
-        case "snapshot":
-          ITextToAction snapShot = new SnapshotTransform(line);
-          actions.add(snapShot.transformToAction());
-          break;
-        case "remove":
-          ITextToAction remove = new RemoveTransform(line);
-          actions.add(remove.transformToAction());
-          break;
-        default:
-          break;
-      }
+  /**
+   * Checks whether a file has content left that can be memory-mapped. Pipes and devices
+   * report no size, and are read as streams instead.
+   * @param channel The channel of the file.
+   * @return True if the file can be read through a {@link MappedFileProcessor}.
+   */
+  private static boolean hasMappableContent(FileChannel channel) {
+    try {
+      return channel.size() > channel.position();
+    }
+    catch (IOException e) {
+      return false;
     }
-    return actions;
   }
 }
@@ -0,0 +1,34 @@
+package shapesphotoalbum.controller.reader;
+
+/**
+ * Holds the constants of the compiled binary album format.
+ * A file starts with {@link #MAGIC} and {@link #VERSION}, followed by one record per
+ * command. A record is an opcode byte followed by its fields: numbers are varints, signed ones
+ * zigzag-encoded first, and strings are a varint length followed by UTF-8 bytes. Shape names
+ * are defined once by a {@link #NAME} record, which gives them the next index of the name
+ * table, and commands refer to them by that index. The file ends with an {@link #END} record.
+ */
+final class BinaryAlbumFormat {
+  /**
+   * The bytes every compiled album starts with. The first byte can't start a text file.
+   */
+  static final byte[] MAGIC = {(byte) 0x89, 'S', 'P', 'A'};
+
+  /**
+   * The version of the format written by {@link BinaryAlbumWriter}.
+   */
+  static final int VERSION = 1;
+
+  static final int NAME = 0; // name
+  static final int CREATE_RECTANGLE = 1; // name x y h v r g b
+  static final int CREATE_OVAL = 2; // name x y h v r g b
+  static final int MOVE = 3; // name x y
+  static final int RESIZE = 4; // name h v
+  static final int COLOR = 5; // name r g b
+  static final int REMOVE = 6; // name
+  static final int SNAPSHOT = 7; // description
+  static final int END = 8;
+
+  private BinaryAlbumFormat() {
+  }
+}
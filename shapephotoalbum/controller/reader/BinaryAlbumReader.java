@@ -0,0 +1,196 @@
+package shapesphotoalbum.controller.reader;
+
+import shapesphotoalbum.model.command.ChangeColor;
+import shapesphotoalbum.model.command.Create;
+import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.command.Move;
+import shapesphotoalbum.model.command.Remove;
+import shapesphotoalbum.model.command.Resize;
+import shapesphotoalbum.model.command.TakeSnapshot;
+import shapesphotoalbum.model.shape.ShapeNameTable;
+import shapesphotoalbum.model.shape.ShapeType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * This class is responsible for loading an album compiled by {@link BinaryAlbumWriter}.
+ * Each record is turned straight into its action, with shape names interned once when they
+ * are defined into a table of the reader, so no text is parsed. Actions are handed to the consumer as soon as they are
+ * read. See {@link BinaryAlbumFormat}.
+ */
+public class BinaryAlbumReader {
+  private final InputStream in;
+  private final byte[] buffer = new byte[1 << 16];
+  private int position;
+  private int limit;
+
+  private final ShapeNameTable names = new ShapeNameTable();
+  private int[] nameIds = new int[64]; // interned ID of each name defined in the file
+  private int nameCount;
+
+  /**
+   * Constructs a BinaryAlbumReader reading the given compiled album.
+   * @param in The InputStream containing the compiled album, starting with its header.
+   */
+  public BinaryAlbumReader(InputStream in) {
+    if (in == null)
+      throw new IllegalArgumentException("No input given");
+
+    this.in = in;
+  }
+
+  /**
+   * Checks whether a stream holds a compiled album, without consuming it.
+   * @param in The stream, which must support {@link InputStream#mark(int)}.
+   * @return True if the stream starts with the header of a compiled album.
+   * @throws UncheckedIOException if the stream can't be read.
+   */
+  public static boolean isBinaryAlbum(InputStream in) {
+    try {
+      in.mark(BinaryAlbumFormat.MAGIC.length);
+      byte[] header = in.readNBytes(BinaryAlbumFormat.MAGIC.length);
+      in.reset();
+      return Arrays.equals(header, BinaryAlbumFormat.MAGIC);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't read input", e);
+    }
+  }
+
+  /**
+   * Checks whether a file holds a compiled album from its current position, without moving
+   * the position.
+   * @param channel The channel of the file.
+   * @return True if the file starts with the header of a compiled album.
+   * @throws UncheckedIOException if the file can't be read.
+   */
+  public static boolean isBinaryAlbum(FileChannel channel) {
+    try {
+      ByteBuffer header = ByteBuffer.allocate(BinaryAlbumFormat.MAGIC.length);
+      long position = channel.position();
+      while (header.hasRemaining())
+        if (channel.read(header, position + header.position()) < 0)
+          return false;
+      return Arrays.equals(header.array(), BinaryAlbumFormat.MAGIC);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't read input file", e);
+    }
+  }
+
+  /**
+   * Reads the compiled album, handing each action to the consumer as soon as it is read.
+   * @param consumer The consumer receiving each action, in order.
+   * @throws IllegalStateException if the input is not a compiled album, was compiled by an
+   *                               unsupported version, or is corrupt or incomplete.
+   * @throws UncheckedIOException if the input can't be read.
+   */
+  public void readActions(Consumer<IAction> consumer) {
+    for (byte b : BinaryAlbumFormat.MAGIC)
+      if ((byte) readByte() != b)
+        throw new IllegalStateException("Not a compiled album");
+    if (readByte() != BinaryAlbumFormat.VERSION)
+      throw new IllegalStateException("Unsupported compiled album version");
+
+    for (int opcode = readByte(); opcode != BinaryAlbumFormat.END; opcode = readByte()) {
+      if (opcode == BinaryAlbumFormat.NAME) {
+        defineName(readString());
+        continue;
+      }
+
+      consumer.accept(switch (opcode) {
+        case BinaryAlbumFormat.CREATE_RECTANGLE, BinaryAlbumFormat.CREATE_OVAL -> new Create(names,
+            name(), opcode == BinaryAlbumFormat.CREATE_RECTANGLE ? ShapeType.RECTANGLE : ShapeType.OVAL,
+            readSigned(), readSigned(), readSigned(), readSigned(),
+            readSigned(), readSigned(), readSigned());
+        case BinaryAlbumFormat.MOVE -> new Move(names, name(), readSigned(), readSigned());
+        case BinaryAlbumFormat.RESIZE -> new Resize(names, name(), readSigned(), readSigned());
+        case BinaryAlbumFormat.COLOR -> new ChangeColor(names, name(), readSigned(), readSigned(), readSigned());
+        case BinaryAlbumFormat.REMOVE -> new Remove(names, name());
+        case BinaryAlbumFormat.SNAPSHOT -> new TakeSnapshot(readString());
+        default -> throw new IllegalStateException("Corrupt compiled album");
+      });
+    }
+  }
+
+  /**
+   * Interns the next name of the name table.
+   */
+  private void defineName(String name) {
+    if (nameCount == nameIds.length)
+      nameIds = Arrays.copyOf(nameIds, nameCount * 2);
+    int id = names.intern(name);
+    if (id == ShapeNameTable.NO_NAME)
+      throw new IllegalStateException("Corrupt compiled album");
+    nameIds[nameCount++] = id;
+  }
+
+  /**
+   * Reads the index of a name and gets the interned ID of that name.
+   */
+  private int name() {
+    int index = readVarint();
+    if (index < 0 || index >= nameCount)
+      throw new IllegalStateException("Corrupt compiled album");
+    return nameIds[index];
+  }
+
+  private int readByte() {
+    if (position == limit) {
+      try {
+        limit = in.read(buffer);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException("Can't read compiled album", e);
+      }
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        throw new IllegalStateException("Incomplete compiled album");
+      }
+    }
+    return buffer[position++] & 0xFF;
+  }
+
+  private int readVarint() {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = readByte();
+      value |= (b & 0x7F) << shift;
+      if (b < 0x80)
+        return value;
+    }
+    throw new IllegalStateException("Corrupt compiled album");
+  }
+
+  private int readSigned() {
+    int value = readVarint();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private String readString() {
+    int length = readVarint();
+    if (length < 0)
+      throw new IllegalStateException("Corrupt compiled album");
+
+    byte[] bytes = new byte[length];
+    for (int copied = 0; copied < length; ) {
+      if (position == limit) {
+        bytes[copied++] = (byte) readByte();
+        continue;
+      }
+      int n = Math.min(length - copied, limit - position);
+      System.arraycopy(buffer, position, bytes, copied, n);
+      position += n;
+      copied += n;
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
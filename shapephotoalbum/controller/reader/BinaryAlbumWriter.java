@@ -0,0 +1,199 @@
+package shapesphotoalbum.controller.reader;
+
+import shapesphotoalbum.model.command.ChangeColor;
+import shapesphotoalbum.model.command.Create;
+import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.command.Move;
+import shapesphotoalbum.model.command.Remove;
+import shapesphotoalbum.model.command.Resize;
+import shapesphotoalbum.model.command.TakeSnapshot;
+import shapesphotoalbum.model.shape.Color;
+import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.ShapeNameTable;
+import shapesphotoalbum.model.shape.ShapeType;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class is responsible for compiling actions into the binary album format read by
+ * {@link BinaryAlbumReader}.
+ * Each action is written as an opcode and varint fields as soon as it is given, and each
+ * shape name is written once, the first time it is used. See {@link BinaryAlbumFormat}.
+ */
+public class BinaryAlbumWriter implements Closeable {
+  private final OutputStream out;
+  private final ShapeNameTable names = new ShapeNameTable(); // ID of each name is its index
+
+  /**
+   * Constructs a BinaryAlbumWriter and writes the header of the format.
+   * @param out The stream the compiled album is written to. It is closed with the writer.
+   * @throws UncheckedIOException if the header can't be written.
+   */
+  public BinaryAlbumWriter(OutputStream out) {
+    if (out == null)
+      throw new IllegalArgumentException("No output given");
+
+    this.out = new BufferedOutputStream(out, 1 << 16);
+    try {
+      this.out.write(BinaryAlbumFormat.MAGIC);
+      this.out.write(BinaryAlbumFormat.VERSION);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't write compiled album", e);
+    }
+  }
+
+  /**
+   * Compiles a text input, in the format read by {@link ActionReader}, into a binary album.
+   * @param text The InputStream containing the commands.
+   * @param out The stream the compiled album is written to. It is closed afterwards, and
+   *            left without an end if compiling fails, so that it is never loaded.
+   * @throws IllegalArgumentException if a command is invalid.
+   * @throws UncheckedIOException if the album can't be written.
+   */
+  public static void compile(InputStream text, OutputStream out) {
+    BinaryAlbumWriter writer = new BinaryAlbumWriter(out);
+    try {
+      ActionReader.readInput(text, writer::write);
+    }
+    catch (RuntimeException e) {
+      try {
+        writer.out.close();
+      }
+      catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    }
+    writer.close();
+  }
+
+  /**
+   * Writes an action after the ones already written.
+   * @param action The action to write.
+   * @throws IllegalArgumentException if the action is not one of the commands of the album.
+   * @throws UncheckedIOException if the action can't be written.
+   */
+  public void write(IAction action) {
+    try {
+      if (action instanceof Create create) {
+        IShape shape = create.getShape();
+        if (shape == null)
+          throw new IllegalArgumentException("This shape isn't supported by the application yet");
+        int name = name(names.find(shape.getName()), shape.getName());
+        Color color = shape.getColor();
+        out.write(shape.getType() == ShapeType.RECTANGLE
+            ? BinaryAlbumFormat.CREATE_RECTANGLE : BinaryAlbumFormat.CREATE_OVAL);
+        writeVarint(name);
+        writeSigned(shape.getPosition().getX());
+        writeSigned(shape.getPosition().getY());
+        writeSigned(shape.getHorizontalDimension());
+        writeSigned(shape.getVerticalDimension());
+        writeSigned(color.getR());
+        writeSigned(color.getG());
+        writeSigned(color.getB());
+      }
+      else if (action instanceof Move move) {
+        int name = name(move.getShapeId(names), move.getShapeName());
+        out.write(BinaryAlbumFormat.MOVE);
+        writeVarint(name);
+        writeSigned(move.getX());
+        writeSigned(move.getY());
+      }
+      else if (action instanceof Resize resize) {
+        int name = name(resize.getShapeId(names), resize.getShapeName());
+        out.write(BinaryAlbumFormat.RESIZE);
+        writeVarint(name);
+        writeSigned(resize.getHorizontalDimension());
+        writeSigned(resize.getVerticalDimension());
+      }
+      else if (action instanceof ChangeColor changeColor) {
+        int name = name(changeColor.getShapeId(names), changeColor.getShapeName());
+        out.write(BinaryAlbumFormat.COLOR);
+        writeVarint(name);
+        writeSigned(changeColor.getR());
+        writeSigned(changeColor.getG());
+        writeSigned(changeColor.getB());
+      }
+      else if (action instanceof Remove remove) {
+        int name = name(remove.getShapeId(names), remove.getShapeName());
+        out.write(BinaryAlbumFormat.REMOVE);
+        writeVarint(name);
+      }
+      else if (action instanceof TakeSnapshot snapshot) {
+        out.write(BinaryAlbumFormat.SNAPSHOT);
+        writeString(snapshot.getDescription() == null ? "" : snapshot.getDescription());
+      }
+      else
+        throw new IllegalArgumentException("This action can't be compiled");
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't write compiled album", e);
+    }
+  }
+
+  /**
+   * Gets the index of a shape name in the file, writing its definition the first time.
+   * Names are interned into the table of the writer as they are defined, so the ID of a name
+   * is its index.
+   * @param nameId The ID of the name in the table of the writer, or NO_NAME if it is not in it.
+   * @param name The name.
+   */
+  private int name(int nameId, String name) throws IOException {
+    if (nameId != ShapeNameTable.NO_NAME)
+      return nameId;
+
+    int index = names.intern(name);
+    if (index == ShapeNameTable.NO_NAME)
+      throw new IllegalArgumentException("Invalid shape name");
+    out.write(BinaryAlbumFormat.NAME);
+    writeString(name);
+    return index;
+  }
+
+  /**
+   * Writes a number as a varint, seven bits per byte starting from the lowest, the high bit
+   * of each byte telling whether more follow.
+   */
+  private void writeVarint(int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  /**
+   * Writes a signed number as a zigzag-encoded varint, so that small negative numbers stay
+   * short.
+   */
+  private void writeSigned(int value) throws IOException {
+    writeVarint((value << 1) ^ (value >> 31));
+  }
+
+  private void writeString(String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    writeVarint(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Ends the compiled album and closes its stream.
+   * @throws UncheckedIOException if the album can't be written.
+   */
+  @Override
+  public void close() {
+    try (out) {
+      out.write(BinaryAlbumFormat.END);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't write compiled album", e);
+    }
+  }
+}
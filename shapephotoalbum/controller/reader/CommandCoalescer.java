@@ -0,0 +1,216 @@
+package shapesphotoalbum.controller.reader;
+
+import shapesphotoalbum.model.command.ChangeColor;
+import shapesphotoalbum.model.command.Create;
+import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.command.Move;
+import shapesphotoalbum.model.command.Remove;
+import shapesphotoalbum.model.command.Resize;
+import shapesphotoalbum.model.shape.IShape;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The CommandCoalescer class removes the commands whose effect no snapshot can see.
+ * Actions are held back until the next snapshot, and meanwhile, for each shape:
+ * <ul>
+ *   <li>a move, resize or color change replaces the previous one of the same kind, since each
+ *   of them sets an absolute value, and is folded into the creation of the shape if the shape
+ *   was created since the last snapshot;</li>
+ *   <li>a removal drops the edits made to the shape since the last snapshot, and also the
+ *   creation of the shape together with the removal itself if the shape was created since the
+ *   last snapshot.</li>
+ * </ul>
+ * The snapshots and the final photo are the same as with every command executed, for inputs
+ * that run without errors. Colors out of bounds are never folded, so they still fail. Actions
+ * of other types, such as registered commands, are passed on in place and end the current run
+ * of folding like a snapshot does.
+ */
+public class CommandCoalescer implements Consumer<IAction> {
+  private final Consumer<IAction> consumer;
+  private final List<IAction> pending = new ArrayList<>(); // dropped actions are set to null
+  private final Map<String, Edits> shapes = new HashMap<>(); // by shape name
+  private long received;
+  private long passed;
+
+  /**
+   * Pending actions on one shape, as indices in the pending list, or -1 if there are none.
+   */
+  private static final class Edits {
+    int create = -1;
+    int move = -1;
+    int resize = -1;
+    int color = -1;
+  }
+
+  /**
+   * Constructs a coalescer passing the remaining actions to the given consumer.
+   * @param consumer The consumer receiving the actions, in order, such as
+   *                 {@code model::executeCommand}.
+   * @throws IllegalArgumentException if the consumer is null.
+   */
+  public CommandCoalescer(Consumer<IAction> consumer) {
+    if (consumer == null)
+      throw new IllegalArgumentException("No consumer given");
+
+    this.consumer = consumer;
+  }
+
+  /**
+   * Removes the commands of a list of actions whose effect no snapshot can see.
+   * @param actions The actions, in order.
+   * @return A new list with the remaining actions, in order.
+   */
+  public static List<IAction> coalesce(List<IAction> actions) {
+    List<IAction> result = new ArrayList<>();
+    CommandCoalescer coalescer = new CommandCoalescer(result::add);
+    actions.forEach(coalescer);
+    coalescer.flush();
+    return result;
+  }
+
+  /**
+   * Receives the next action. Actions are passed on when a snapshot or an action of another
+   * type is received, or when {@link #flush()} is called.
+   * @param action The next action.
+   */
+  @Override
+  public void accept(IAction action) {
+    received++;
+    if (action instanceof Create create && create.getShape() != null)
+      create(create);
+    else if (action instanceof Move move)
+      move(move);
+    else if (action instanceof Resize resize)
+      resize(resize);
+    else if (action instanceof ChangeColor color)
+      changeColor(color);
+    else if (action instanceof Remove remove)
+      remove(remove);
+    else {
+      // snapshots see every pending action, and other actions may depend on them
+      flush();
+      pass(action);
+    }
+  }
+
+  /**
+   * Passes on the pending actions. Called at the end of the input, so that the final photo is
+   * complete.
+   */
+  public void flush() {
+    for (IAction action : pending)
+      if (action != null)
+        pass(action);
+    pending.clear();
+    shapes.clear();
+  }
+
+  private void create(Create create) {
+    Edits edits = new Edits();
+    edits.create = add(create);
+    shapes.put(create.getShape().getName(), edits);
+  }
+
+  private void move(Move move) {
+    Edits edits = shapes.computeIfAbsent(move.getShapeName(), name -> new Edits());
+    if (edits.create >= 0) {
+      IShape shape = ((Create) pending.get(edits.create)).getShape();
+      pending.set(edits.create, recreate(shape, move.getX(), move.getY(),
+          shape.getHorizontalDimension(), shape.getVerticalDimension(),
+          shape.getColor().getR(), shape.getColor().getG(), shape.getColor().getB()));
+      return;
+    }
+    drop(edits.move);
+    edits.move = add(move);
+  }
+
+  private void resize(Resize resize) {
+    Edits edits = shapes.computeIfAbsent(resize.getShapeName(), name -> new Edits());
+    if (edits.create >= 0) {
+      IShape shape = ((Create) pending.get(edits.create)).getShape();
+      pending.set(edits.create, recreate(shape, shape.getPosition().getX(), shape.getPosition().getY(),
+          resize.getHorizontalDimension(), resize.getVerticalDimension(),
+          shape.getColor().getR(), shape.getColor().getG(), shape.getColor().getB()));
+      return;
+    }
+    drop(edits.resize);
+    edits.resize = add(resize);
+  }
+
+  private void changeColor(ChangeColor color) {
+    Edits edits = shapes.computeIfAbsent(color.getShapeName(), name -> new Edits());
+    if (!isColor(color.getR()) || !isColor(color.getG()) || !isColor(color.getB())) {
+      add(color); // fails when executed, wherever it is
+      edits.color = -1;
+      return;
+    }
+
+    if (edits.create >= 0) {
+      IShape shape = ((Create) pending.get(edits.create)).getShape();
+      pending.set(edits.create, recreate(shape, shape.getPosition().getX(), shape.getPosition().getY(),
+          shape.getHorizontalDimension(), shape.getVerticalDimension(),
+          color.getR(), color.getG(), color.getB()));
+      return;
+    }
+    drop(edits.color);
+    edits.color = add(color);
+  }
+
+  private void remove(Remove remove) {
+    Edits edits = shapes.remove(remove.getShapeName());
+    if (edits != null) {
+      drop(edits.move);
+      drop(edits.resize);
+      drop(edits.color);
+      if (edits.create >= 0) {
+        drop(edits.create); // created and removed with no snapshot in between
+        return;
+      }
+    }
+    add(remove);
+  }
+
+  /**
+   * Creates the action adding the given shape with new values.
+   */
+  private static Create recreate(IShape shape, int x, int y, int h, int v, int R, int G, int B) {
+    return new Create(shape.getName(), shape.getType(), x, y, h, v, R, G, B);
+  }
+
+  private static boolean isColor(int value) {
+    return value >= 0 && value <= 255;
+  }
+
+  /**
+   * Holds back an action.
+   * @return The index of the action in the pending list.
+   */
+  private int add(IAction action) {
+    pending.add(action);
+    return pending.size() - 1;
+  }
+
+  private void drop(int index) {
+    if (index >= 0)
+      pending.set(index, null);
+  }
+
+  private void pass(IAction action) {
+    passed++;
+    consumer.accept(action);
+  }
+
+  /**
+   * Gets the number of actions received that were not passed on, because they were dropped
+   * or folded into another action.
+   * @return The number of actions saved.
+   */
+  public long getCoalescedCount() {
+    return received - passed;
+  }
+}
@@ -0,0 +1,142 @@
+package shapesphotoalbum.controller.reader;
+
+import shapesphotoalbum.controller.reader.transform.ColorTransform;
+import shapesphotoalbum.controller.reader.transform.CreateTransform;
+import shapesphotoalbum.controller.reader.transform.ICommandLine;
+import shapesphotoalbum.controller.reader.transform.MoveTransform;
+import shapesphotoalbum.controller.reader.transform.RemoveTransform;
+import shapesphotoalbum.controller.reader.transform.ResizeTransform;
+import shapesphotoalbum.controller.reader.transform.SnapshotTransform;
+import shapesphotoalbum.controller.reader.transform.TextCommandLine;
+import shapesphotoalbum.model.command.IAction;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The CommandRegistry class maps command keywords to the parsers of their lines.
+ * It starts with the built-in commands of the album, and other command types can be added
+ * by registering a parser for a new keyword. Keywords are matched ignoring case. Looking up a
+ * keyword that is already lowercase, as input files usually are, allocates nothing.
+ */
+public class CommandRegistry {
+  private static final Set<String> BUILT_IN =
+      Set.of("shape", "move", "resize", "color", "snapshot", "remove");
+
+  private final Map<String, ICommandParser> parsers = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a registry holding the built-in commands.
+   */
+  public CommandRegistry() {
+    parsers.put("shape", builtIn(CreateTransform::toAction));
+    parsers.put("move", builtIn(MoveTransform::toAction));
+    parsers.put("resize", builtIn(ResizeTransform::toAction));
+    parsers.put("color", builtIn(ColorTransform::toAction));
+    parsers.put("snapshot", builtIn(SnapshotTransform::toAction));
+    parsers.put("remove", builtIn(RemoveTransform::toAction));
+  }
+
+  /**
+   * Wraps the parser of a built-in command, which reads the words of a line through an
+   * {@link ICommandLine} whether or not they were split into strings.
+   */
+  private static ICommandParser builtIn(Function<ICommandLine, IAction> parser) {
+    return new ICommandParser() {
+      @Override
+      public IAction parse(String[] line) {
+        return parser.apply(new TextCommandLine(line));
+      }
+
+      @Override
+      public IAction parse(ICommandLine line) {
+        return parser.apply(line);
+      }
+    };
+  }
+
+  /**
+   * Registers the parser of a command type, replacing the parser registered before for the
+   * same keyword, if any.
+   * @param keyword The keyword starting the lines of the command.
+   * @param parser The parser of the lines, which must keep no state between lines.
+   * @throws IllegalArgumentException if the keyword is empty, contains whitespace or is the
+   *                                  keyword of a built-in command, or the parser is null.
+   */
+  public void register(String keyword, ICommandParser parser) {
+    if (keyword == null || keyword.isEmpty() || !keyword.strip().equals(keyword)
+        || keyword.chars().anyMatch(Character::isWhitespace))
+      throw new IllegalArgumentException("Invalid command keyword");
+    if (parser == null)
+      throw new IllegalArgumentException("No parser given for command " + keyword);
+
+    String key = keyword.toLowerCase(Locale.ROOT);
+    if (BUILT_IN.contains(key))
+      throw new IllegalArgumentException("Built-in command can't be replaced: " + key);
+
+    parsers.put(key, parser);
+  }
+
+  /**
+   * Removes a command type added with {@link #register(String, ICommandParser)}.
+   * @param keyword The keyword of the command.
+   * @throws IllegalArgumentException if the keyword is the keyword of a built-in command.
+   */
+  public void unregister(String keyword) {
+    String key = keyword.toLowerCase(Locale.ROOT);
+    if (BUILT_IN.contains(key))
+      throw new IllegalArgumentException("Built-in command can't be removed: " + key);
+
+    parsers.remove(key);
+  }
+
+  /**
+   * Finds the parser of a command keyword, ignoring case.
+   * @param keyword The keyword, such as the first word of a line.
+   * @return The parser, or null if no command has that keyword.
+   */
+  public ICommandParser find(String keyword) {
+    ICommandParser parser = parsers.get(keyword);
+    if (parser == null) {
+      String lowercase = keyword.toLowerCase(Locale.ROOT);
+      if (!lowercase.equals(keyword))
+        parser = parsers.get(lowercase);
+    }
+    return parser;
+  }
+
+  /**
+   * Parses a command line with the parser of its keyword.
+   * @param line The words of the line, starting with the command keyword.
+   * @return The action of the command, or null if the line is not a command.
+   * @throws IllegalArgumentException if the line is not a valid command.
+   */
+  public IAction parse(String[] line) {
+    ICommandParser parser = find(line[0]);
+    return parser == null ? null : parser.parse(line);
+  }
+
+  /**
+   * Parses a command line with the parser of its keyword, without turning its numbers into
+   * strings for the built-in commands.
+   * @param line The command line, starting with the command keyword.
+   * @return The action of the command, or null if the line is not a command.
+   * @throws IllegalArgumentException if the line is not a valid command.
+   */
+  public IAction parse(ICommandLine line) {
+    ICommandParser parser = find(line.word(0));
+    return parser == null ? null : parser.parse(line);
+  }
+
+  /**
+   * Checks whether a keyword belongs to a built-in command.
+   * @param keyword The lowercase keyword.
+   * @return True for the keywords of the commands the registry starts with.
+   */
+  public static boolean isBuiltIn(String keyword) {
+    return BUILT_IN.contains(keyword);
+  }
+}
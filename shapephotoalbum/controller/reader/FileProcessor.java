@@ -4,11 +4,16 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 /**
  * This class is responsible for processing data from a file.
  */
 public class FileProcessor implements IDataProcessor {
+  private static final Pattern EDGE_SPACES = Pattern.compile("(^\\s+|\\s+$)");
+  private static final Pattern SPACES = Pattern.compile("\\s+");
+
   private final InputStream inputStream;
   private final List<String[]> processed;
 
@@ -29,19 +34,29 @@ public class FileProcessor implements IDataProcessor {
    * @throws RuntimeException if an I/O error occurs while reading the file.
    */
   public List<String[]> process() {
-    try {
-      Scanner scanner = new Scanner(inputStream);
+    process(processed::add);
+    return processed;
+  }
 
-      while (scanner.hasNextLine()) {
-        String[] command = scanner.nextLine().replaceAll("(^\\s+|\\s+$)", "").split("\\s+");
-        processed.add(command);
-      }
+  /**
+   * Processes the input file one line at a time, handing each parsed command to the
+   * consumer before the next line is read.
+   * Exceptions thrown by the consumer are passed on unchanged.
+   * @param consumer The consumer receiving each command, in order.
+   * @throws RuntimeException if an I/O error occurs while reading the file.
+   */
+  @Override
+  public void process(Consumer<String[]> consumer) {
+    Scanner scanner = new Scanner(inputStream);
 
-      scanner.close();
-    } catch (Exception e) {
-      throw new RuntimeException(e);
+    while (scanner.hasNextLine()) {
+      String line = EDGE_SPACES.matcher(scanner.nextLine()).replaceAll("");
+      consumer.accept(SPACES.split(line));
     }
 
-    return processed;
+    IOException error = scanner.ioException();
+    scanner.close();
+    if (error != null)
+      throw new RuntimeException(error);
   }
 }
@@ -0,0 +1,33 @@
+package shapesphotoalbum.controller.reader;
+
+import shapesphotoalbum.controller.reader.transform.ICommandLine;
+import shapesphotoalbum.model.command.IAction;
+
+/**
+ * The ICommandParser interface represents a parser turning the words of a command line into
+ * an action.
+ * A parser keeps no state between lines, so a single instance is registered for a command
+ * keyword in a {@link CommandRegistry} and reused for every line, possibly from several
+ * threads at once.
+ */
+@FunctionalInterface
+public interface ICommandParser {
+  /**
+   * Parses a command line into an action.
+   * @param line The words of the line, starting with the command keyword.
+   * @return The action of the command.
+   * @throws IllegalArgumentException if the line is not a valid command.
+   */
+  IAction parse(String[] line);
+
+  /**
+   * Parses a command line into an action, reading its words through the line. The built-in
+   * parsers read numbers straight from the line, other parsers get its words as strings.
+   * @param line The command line, starting with the command keyword.
+   * @return The action of the command.
+   * @throws IllegalArgumentException if the line is not a valid command.
+   */
+  default IAction parse(ICommandLine line) {
+    return parse(line.words());
+  }
+}
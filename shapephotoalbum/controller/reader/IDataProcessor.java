@@ -1,6 +1,7 @@
 package shapesphotoalbum.controller.reader;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The IDataProcessor interface defines a contract for processing data.
@@ -14,4 +15,13 @@ public interface IDataProcessor {
    *         Each String array represents a record or command from the processed data.
    */
   List<String[]> process();
+
+  /**
+   * Processes data and hands each parsed command to the given consumer as soon as it is
+   * parsed, without keeping the commands.
+   * @param consumer The consumer receiving each command, in order.
+   */
+  default void process(Consumer<String[]> consumer) {
+    process().forEach(consumer);
+  }
 }
@@ -0,0 +1,134 @@
+package shapesphotoalbum.controller.reader;
+
+import shapesphotoalbum.model.command.IAction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.Consumer;
+
+/**
+ * This class is responsible for following an input file that another program keeps appending
+ * commands to. Each call to {@link #poll(Consumer)} parses only the lines completed since the
+ * previous call, starting from the offset where that call stopped, so nothing is read twice.
+ * A line is only parsed once its line break has been written, so a command caught halfway
+ * through being written waits for the next poll. Commands are parsed with the registry of the
+ * {@link ActionReader} unless another is given.
+ */
+public class InputTailer {
+  private static final int SCAN_SIZE = 8192; // bytes read at once looking for the last line break
+
+  private final FileChannel channel;
+  private final CommandRegistry commands;
+  private long offset; // start of the first line not parsed yet
+
+  /**
+   * Constructs a tailer reading the file from the current position of its channel.
+   * @param channel The channel of the input file.
+   * @throws IllegalArgumentException if the channel is null.
+   * @throws UncheckedIOException if the position of the channel can't be read.
+   */
+  public InputTailer(FileChannel channel) {
+    this(channel, ActionReader.getCommands());
+  }
+
+  /**
+   * Constructs a tailer reading the file from the current position of its channel and parsing
+   * its commands with the given registry.
+   * @param channel The channel of the input file.
+   * @param commands The registry of the commands understood.
+   * @throws IllegalArgumentException if the channel or registry is null.
+   * @throws UncheckedIOException if the position of the channel can't be read.
+   */
+  public InputTailer(FileChannel channel, CommandRegistry commands) {
+    if (channel == null)
+      throw new IllegalArgumentException("No input file given");
+    if (commands == null)
+      throw new IllegalArgumentException("No command registry given");
+
+    this.channel = channel;
+    this.commands = commands;
+    try {
+      this.offset = channel.position();
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't read input file", e);
+    }
+  }
+
+  /**
+   * Parses the lines completed since the last poll and hands their actions to the consumer.
+   * Should the file shrink, it is followed again from its new end. An invalid line is skipped
+   * and the lines after it are parsed as usual; once every valid line has been handed over, the
+   * error of the first invalid line is thrown, with those of the others suppressed by it.
+   * @param consumer The consumer receiving each action, in order.
+   * @return True if any line was parsed.
+   * @throws IllegalArgumentException if a command is invalid.
+   * @throws UncheckedIOException if the file can't be read.
+   */
+  public boolean poll(Consumer<IAction> consumer) {
+    long end;
+    try {
+      long size = channel.size();
+      if (size < offset)
+        offset = size; // truncated, only lines written from now on can be told apart
+      end = lastLineEnd(size);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't read input file", e);
+    }
+    if (end == offset)
+      return false;
+
+    IllegalArgumentException error = null;
+    for (long start = offset; start < end; ) {
+      MappedFileProcessor processor = new MappedFileProcessor(channel, start, end, commands);
+      try {
+        processor.processActions(consumer);
+        start = end;
+      }
+      catch (IllegalArgumentException e) {
+        if (error == null)
+          error = e;
+        else
+          error.addSuppressed(e);
+        start = processor.getLineEnd(); // resume after the invalid line
+      }
+    }
+    offset = end;
+    if (error != null)
+      throw error;
+    return true;
+  }
+
+  /**
+   * Gets the offset of the first byte not parsed yet.
+   * @return The offset in the file.
+   */
+  public long getOffset() {
+    return offset;
+  }
+
+  /**
+   * Finds the end of the last complete line written after the offset, scanning backwards from
+   * the end of the file.
+   * @return The offset just after the last line break, or the current offset if there is none.
+   */
+  private long lastLineEnd(long size) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+    for (long end = size; end > offset; ) {
+      int length = (int) Math.min(SCAN_SIZE, end - offset);
+      buffer.clear().limit(length);
+      while (buffer.hasRemaining())
+        if (channel.read(buffer, end - length + buffer.position()) < 0)
+          return offset; // shrunk while being read, try again on the next poll
+
+      for (int i = length - 1; i >= 0; i--)
+        if (buffer.get(i) == '\n')
+          return end - length + i + 1;
+      end -= length;
+    }
+    return offset;
+  }
+}
@@ -0,0 +1,441 @@
+package shapesphotoalbum.controller.reader;
+
+import shapesphotoalbum.controller.reader.transform.ICommandLine;
+import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.shape.ShapeNameTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * This class is responsible for processing data from a file by memory-mapping it and
+ * tokenizing its bytes in place.
+ * Lines are split at whitespace like {@link FileProcessor} does, without reading the file
+ * through a stream or a regular expression. The keyword and the shape name of each line are
+ * decoded only the first time their bytes are seen, so the same strings are reused for every
+ * line naming them. Through {@link #processActions(Consumer)}, each line is handed as an
+ * {@link ICommandLine} to the parser registered for its keyword in a {@link CommandRegistry},
+ * the one of the {@link ActionReader} unless another is given. The built-in commands read their
+ * numbers straight from the mapped bytes, so no string is created for them, and name their
+ * shapes by their IDs in the table of the processor, each interned once. Only commands
+ * registered by other code get the words of their lines as strings. The file is read from the
+ * current position of the channel to its end, and is expected to be UTF-8.
+ */
+public class MappedFileProcessor implements IDataProcessor {
+  private static final long WINDOW_SIZE = 1L << 30; // most bytes mapped at once
+
+  private final FileChannel channel;
+  private final long from; // first byte to read, or -1 for the position of the channel
+  private final long to; // end of the bytes to read, or -1 for the end of the file
+  private final CommandRegistry commands;
+  private long lineEnd; // offset just after the line last handed over
+
+  // tokens of the current line, as offsets in the mapped window
+  private int[] tokenStarts = new int[16];
+  private int[] tokenEnds = new int[16];
+  private int tokenCount;
+  private final MappedLine line = new MappedLine(); // the tokenized line, read in place
+
+  // keywords and names seen so far by the bytes they are made of, so each is only decoded once
+  private byte[][] wordBytes = new byte[64][];
+  private String[] words = new String[64];
+  private int[] wordIds = new int[64]; // ID of each word in the name table, or -1 until needed
+  private int wordCount;
+  private final ShapeNameTable nameTable = new ShapeNameTable(); // table of the processor
+
+  /**
+   * Constructs a MappedFileProcessor reading the given file.
+   * @param channel The channel of the file containing the input data, such as the one of a
+   *                {@link java.io.FileInputStream}. It is left open.
+   */
+  public MappedFileProcessor(FileChannel channel) {
+    this(channel, -1, -1, ActionReader.getCommands());
+  }
+
+  /**
+   * Constructs a MappedFileProcessor reading the given file and parsing its commands with the
+   * given registry.
+   * @param channel The channel of the file containing the input data. It is left open.
+   * @param commands The registry of the commands understood.
+   * @throws IllegalArgumentException if the channel or registry is null.
+   */
+  public MappedFileProcessor(FileChannel channel, CommandRegistry commands) {
+    this(channel, -1, -1, commands);
+  }
+
+  /**
+   * Constructs a MappedFileProcessor reading part of the given file. The position of the
+   * channel is neither used nor changed, so that several parts can be read at once.
+   * @param channel The channel of the file containing the input data. It is left open.
+   * @param from The offset of the first byte to read, which must start a line.
+   * @param to The offset after the last byte to read, which must end a line or the file.
+   * @throws IllegalArgumentException if the channel is null or the range is invalid.
+   */
+  public MappedFileProcessor(FileChannel channel, long from, long to) {
+    this(channel, from, to, ActionReader.getCommands());
+  }
+
+  /**
+   * Constructs a MappedFileProcessor reading part of the given file and parsing its commands
+   * with the given registry. The position of the channel is neither used nor changed.
+   * @param channel The channel of the file containing the input data. It is left open.
+   * @param from The offset of the first byte to read, which must start a line.
+   * @param to The offset after the last byte to read, which must end a line or the file.
+   * @param commands The registry of the commands understood.
+   * @throws IllegalArgumentException if the channel or registry is null or the range is invalid.
+   */
+  public MappedFileProcessor(FileChannel channel, long from, long to, CommandRegistry commands) {
+    if (channel == null)
+      throw new IllegalArgumentException("No input file given");
+    if (from < -1 || to < -1 || (from >= 0) != (to >= 0) || from > to)
+      throw new IllegalArgumentException("Invalid range of input file");
+    if (commands == null)
+      throw new IllegalArgumentException("No command registry given");
+
+    this.channel = channel;
+    this.from = from;
+    this.to = to;
+    this.commands = commands;
+  }
+
+  /**
+   * Processes the input file and returns a list of parsed commands.
+   * Each line from the input file is split into an array of strings,
+   * representing individual commands.
+   * @return A list of parsed commands from the input file.
+   * @throws UncheckedIOException if an I/O error occurs while reading the file.
+   */
+  @Override
+  public List<String[]> process() {
+    List<String[]> processed = new ArrayList<>();
+    process(processed::add);
+    return processed;
+  }
+
+  /**
+   * Processes the input file one line at a time, handing each parsed command to the
+   * consumer before the next line is read.
+   * @param consumer The consumer receiving each command, in order.
+   * @throws UncheckedIOException if an I/O error occurs while reading the file.
+   */
+  @Override
+  public void process(Consumer<String[]> consumer) {
+    forEachLine((window, start, end) -> {
+      tokenize(window, start, end);
+      consumer.accept(tokenCount == 0 ? new String[] {""} : words(window));
+    });
+  }
+
+  /**
+   * Processes the input file one line at a time, parsing each command with the parser
+   * registered for its keyword and handing its action to the consumer before the next line is
+   * read. Lines that are not commands are skipped.
+   * @param consumer The consumer receiving each action, in order.
+   * @throws IllegalArgumentException if a command is invalid.
+   * @throws UncheckedIOException if an I/O error occurs while reading the file.
+   */
+  public void processActions(Consumer<IAction> consumer) {
+    forEachLine((window, start, end) -> {
+      tokenize(window, start, end);
+      if (tokenCount == 0)
+        return;
+      line.window = window;
+      IAction action = commands.parse(line);
+      if (action != null)
+        consumer.accept(action);
+    });
+  }
+
+  /**
+   * Gets the offset in the file just after the line last handed over, line break included, so
+   * that reading can resume after a line that could not be processed.
+   * @return The offset in the file, or 0 if no line has been handed over yet.
+   */
+  public long getLineEnd() {
+    return lineEnd;
+  }
+
+  /**
+   * Receives the bounds of each line of the file in the mapped window holding it.
+   */
+  private interface LineHandler {
+    void line(ByteBuffer window, int from, int to);
+  }
+
+  /**
+   * Maps the file one window at a time, each starting at a line, and hands over every line
+   * without its line break. Leaves the channel at the end of the file, unless only part of
+   * it is read.
+   */
+  private void forEachLine(LineHandler handler) {
+    try {
+      long start = from < 0 ? channel.position() : from;
+      long size = to < 0 ? channel.size() : to;
+
+      while (start < size) {
+        int length = (int) Math.min(WINDOW_SIZE, size - start);
+        ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        boolean last = start + length == size;
+
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+          if (window.get(i) == '\n') {
+            lineEnd = start + i + 1;
+            handler.line(window, lineStart, i);
+            lineStart = i + 1;
+          }
+        }
+
+        if (last) {
+          lineEnd = size;
+          if (lineStart < length)
+            handler.line(window, lineStart, length);
+          start = size;
+        }
+        else {
+          if (lineStart == 0)
+            throw new IllegalStateException("Line too long in input file");
+          start += lineStart; // the next window starts with the unfinished line
+        }
+      }
+      if (to < 0)
+        channel.position(size);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't read input file", e);
+    }
+  }
+
+  /**
+   * Records the bounds of the whitespace-separated tokens of a line.
+   */
+  private void tokenize(ByteBuffer window, int from, int to) {
+    tokenCount = 0;
+    int i = from;
+    while (true) {
+      while (i < to && isSpace(window.get(i)))
+        i++;
+      if (i == to)
+        return;
+
+      if (tokenCount == tokenStarts.length) {
+        tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+        tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+      }
+      tokenStarts[tokenCount] = i;
+      while (i < to && !isSpace(window.get(i)))
+        i++;
+      tokenEnds[tokenCount++] = i;
+    }
+  }
+
+  /**
+   * Checks whether a byte is whitespace, as matched by {@code \s} in a regular expression.
+   */
+  private static boolean isSpace(byte b) {
+    return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+  }
+
+  /**
+   * Gets the words of the tokenized line. The first two, the keyword and the shape name of
+   * the built-in commands, are looked up among the words seen before.
+   */
+  private String[] words(ByteBuffer window) {
+    String[] line = new String[tokenCount];
+    for (int i = 0; i < tokenCount; i++)
+      line[i] = i < 2 ? words[slotOf(window, i)] : decode(window, tokenStarts[i], tokenEnds[i]);
+    return line;
+  }
+
+  /**
+   * Represents the tokenized line as a command line whose words are read from the mapped
+   * window.
+   */
+  private final class MappedLine implements ICommandLine {
+    private ByteBuffer window; // window holding the line
+
+    @Override
+    public int length() {
+      return tokenCount;
+    }
+
+    @Override
+    public String word(int index) {
+      Objects.checkIndex(index, tokenCount);
+      return index < 2 ? words[slotOf(window, index)]
+          : decode(window, tokenStarts[index], tokenEnds[index]);
+    }
+
+    @Override
+    public ShapeNameTable names() {
+      return nameTable;
+    }
+
+    /**
+     * Gets the ID of a word in the table of the processor, interning it the first time these
+     * bytes are asked for.
+     */
+    @Override
+    public int nameId(int index) {
+      Objects.checkIndex(index, tokenCount);
+      int slot = slotOf(window, index);
+      if (wordIds[slot] < 0)
+        wordIds[slot] = nameTable.intern(words[slot]);
+      return wordIds[slot];
+    }
+
+    /**
+     * Parses a token as a decimal integer, with an optional sign, the way
+     * {@link Integer#parseInt(String)} does for ASCII digits.
+     */
+    @Override
+    public int intAt(int index) {
+      Objects.checkIndex(index, tokenCount);
+      int i = tokenStarts[index];
+      int to = tokenEnds[index];
+      boolean negative = window.get(i) == '-';
+      if (negative || window.get(i) == '+')
+        i++;
+      if (i == to)
+        throw new NumberFormatException("Not a number");
+
+      long value = 0;
+      for (; i < to; i++) {
+        int digit = window.get(i) - '0';
+        if (digit < 0 || digit > 9)
+          throw new NumberFormatException("Not a number");
+        value = value * 10 + digit;
+        if (value > (long) Integer.MAX_VALUE + 1)
+          throw new NumberFormatException("Number out of range");
+      }
+
+      if (negative)
+        return (int) -value;
+      if (value > Integer.MAX_VALUE)
+        throw new NumberFormatException("Number out of range");
+      return (int) value;
+    }
+
+    /**
+     * Compares a token with a word byte by byte, which is exact for ASCII words.
+     */
+    @Override
+    public boolean wordEquals(int index, String word) {
+      Objects.checkIndex(index, tokenCount);
+      int from = tokenStarts[index];
+      if (tokenEnds[index] - from != word.length())
+        return false;
+
+      for (int i = 0; i < word.length(); i++)
+        if (window.get(from + i) != word.charAt(i))
+          return false;
+      return true;
+    }
+
+    @Override
+    public String join(int from) {
+      if (from >= tokenCount)
+        return "";
+
+      int length = tokenCount - from - 1;
+      for (int i = from; i < tokenCount; i++)
+        length += tokenEnds[i] - tokenStarts[i];
+
+      byte[] joined = new byte[length];
+      for (int i = from, at = 0; i < tokenCount; i++) {
+        if (i > from)
+          joined[at++] = ' ';
+        window.get(tokenStarts[i], joined, at, tokenEnds[i] - tokenStarts[i]);
+        at += tokenEnds[i] - tokenStarts[i];
+      }
+      return new String(joined, StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Gets the slot of the word in a token in the table of words, decoding the word only the
+   * first time these bytes are seen.
+   */
+  private int slotOf(ByteBuffer window, int token) {
+    int from = tokenStarts[token];
+    int to = tokenEnds[token];
+    int mask = wordBytes.length - 1;
+
+    for (int slot = hash(window, from, to) & mask; ; slot = (slot + 1) & mask) {
+      byte[] bytes = wordBytes[slot];
+      if (bytes == null) {
+        if ((wordCount + 1) * 2 > wordBytes.length) {
+          growWords();
+          return slotOf(window, token);
+        }
+        bytes = new byte[to - from];
+        window.get(from, bytes);
+        wordBytes[slot] = bytes;
+        words[slot] = new String(bytes, StandardCharsets.UTF_8);
+        wordIds[slot] = -1;
+        wordCount++;
+        return slot;
+      }
+      if (sameBytes(bytes, window, from, to))
+        return slot;
+    }
+  }
+
+  /**
+   * Doubles the table of words, placing every word again.
+   */
+  private void growWords() {
+    byte[][] oldBytes = wordBytes;
+    String[] oldWords = words;
+    int[] oldIds = wordIds;
+    wordBytes = new byte[oldBytes.length * 2][];
+    words = new String[oldBytes.length * 2];
+    wordIds = new int[oldBytes.length * 2];
+    int mask = wordBytes.length - 1;
+
+    for (int i = 0; i < oldBytes.length; i++) {
+      if (oldBytes[i] == null)
+        continue;
+      ByteBuffer bytes = ByteBuffer.wrap(oldBytes[i]);
+      int slot = hash(bytes, 0, oldBytes[i].length) & mask;
+      while (wordBytes[slot] != null)
+        slot = (slot + 1) & mask;
+      wordBytes[slot] = oldBytes[i];
+      words[slot] = oldWords[i];
+      wordIds[slot] = oldIds[i];
+    }
+  }
+
+  private static int hash(ByteBuffer bytes, int from, int to) {
+    int hash = 1;
+    for (int i = from; i < to; i++)
+      hash = 31 * hash + bytes.get(i);
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean sameBytes(byte[] bytes, ByteBuffer window, int from, int to) {
+    if (bytes.length != to - from)
+      return false;
+    for (int i = 0; i < bytes.length; i++)
+      if (bytes[i] != window.get(from + i))
+        return false;
+    return true;
+  }
+
+  /**
+   * Decodes the UTF-8 bytes of a token into a string.
+   */
+  private static String decode(ByteBuffer window, int from, int to) {
+    byte[] bytes = new byte[to - from];
+    window.get(from, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
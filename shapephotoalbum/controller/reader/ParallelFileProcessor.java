@@ -0,0 +1,233 @@
+package shapesphotoalbum.controller.reader;
+
+import shapesphotoalbum.model.command.IAction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * This class is responsible for processing data from a file by splitting it into chunks of
+ * whole lines and parsing the chunks at the same time on a fork-join pool.
+ * Each chunk is parsed by its own {@link MappedFileProcessor}, and the results are handed to
+ * the consumer in the order of the file: the commands of a chunk are handed over as soon as
+ * that chunk and every chunk before it are parsed, while later chunks are still being parsed.
+ * At most a few chunks per thread of the pool are parsed or waiting at once, and the results of
+ * a chunk are dropped once handed over, so memory use does not grow with the size of the file.
+ * An invalid command stops the processing after the commands before it were handed over,
+ * the same way as parsing the file in one go.
+ */
+public class ParallelFileProcessor implements IDataProcessor {
+  private static final long MIN_CHUNK_SIZE = 1 << 20;
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private final FileChannel channel;
+  private final ForkJoinPool pool;
+  private final long chunkSize; // 0 to pick a size from the file and the pool
+  private final CommandRegistry commands;
+
+  /**
+   * Constructs a ParallelFileProcessor reading the given file in chunks sized to keep every
+   * thread of the pool busy.
+   * @param channel The channel of the file containing the input data. It is read from its
+   *                current position and left open.
+   * @param pool The pool parsing the chunks, such as {@link ForkJoinPool#commonPool()}.
+   */
+  public ParallelFileProcessor(FileChannel channel, ForkJoinPool pool) {
+    this(channel, pool, 0);
+  }
+
+  /**
+   * Constructs a ParallelFileProcessor reading the given file in chunks of about the given
+   * size, each extended to the end of its last line.
+   * @param channel The channel of the file containing the input data. It is read from its
+   *                current position and left open.
+   * @param pool The pool parsing the chunks.
+   * @param chunkSize The number of bytes in a chunk, or 0 to pick one.
+   * @throws IllegalArgumentException if the channel or pool is null or the size is negative.
+   */
+  public ParallelFileProcessor(FileChannel channel, ForkJoinPool pool, long chunkSize) {
+    this(channel, pool, chunkSize, ActionReader.getCommands());
+  }
+
+  /**
+   * Constructs a ParallelFileProcessor reading the given file in chunks of about the given
+   * size and parsing its commands with the given registry.
+   * @param channel The channel of the file containing the input data. It is read from its
+   *                current position and left open.
+   * @param pool The pool parsing the chunks.
+   * @param chunkSize The number of bytes in a chunk, or 0 to pick one.
+   * @param commands The registry of the commands understood.
+   * @throws IllegalArgumentException if the channel, pool or registry is null or the size is
+   *                                  negative.
+   */
+  public ParallelFileProcessor(FileChannel channel, ForkJoinPool pool, long chunkSize,
+                               CommandRegistry commands) {
+    if (channel == null)
+      throw new IllegalArgumentException("No input file given");
+    if (pool == null)
+      throw new IllegalArgumentException("No pool given");
+    if (chunkSize < 0)
+      throw new IllegalArgumentException("Chunk size can't be negative");
+    if (commands == null)
+      throw new IllegalArgumentException("No command registry given");
+
+    this.channel = channel;
+    this.pool = pool;
+    this.chunkSize = chunkSize;
+    this.commands = commands;
+  }
+
+  /**
+   * Processes the input file and returns a list of parsed commands.
+   * Each line from the input file is split into an array of strings,
+   * representing individual commands.
+   * @return A list of parsed commands from the input file.
+   * @throws UncheckedIOException if an I/O error occurs while reading the file.
+   */
+  @Override
+  public List<String[]> process() {
+    List<String[]> processed = new ArrayList<>();
+    process(processed::add);
+    return processed;
+  }
+
+  /**
+   * Processes the input file in parallel, handing each parsed command to the consumer in
+   * the order of the file.
+   * @param consumer The consumer receiving each command, in order.
+   * @throws UncheckedIOException if an I/O error occurs while reading the file.
+   */
+  @Override
+  public void process(Consumer<String[]> consumer) {
+    processChunks(MappedFileProcessor::process, consumer);
+  }
+
+  /**
+   * Processes the input file in parallel, parsing each command with the parser registered for
+   * its keyword and handing the actions to the consumer in the order of the file.
+   * @param consumer The consumer receiving each action, in order.
+   * @throws IllegalArgumentException if a command is invalid.
+   * @throws UncheckedIOException if an I/O error occurs while reading the file.
+   */
+  public void processActions(Consumer<IAction> consumer) {
+    processChunks(MappedFileProcessor::processActions, consumer);
+  }
+
+  /**
+   * Holds what was parsed from a chunk, and the error that stopped it if any.
+   */
+  private static final class Chunk<T> {
+    private final List<T> results = new ArrayList<>();
+    private RuntimeException error;
+  }
+
+  /**
+   * Parses the chunks on the pool and hands the results to the consumer chunk by chunk, in
+   * order. Only a few chunks per thread are submitted at first, and the next one is submitted
+   * each time the oldest is handed over. Chunks still being parsed are cancelled if a chunk or
+   * the consumer fails.
+   */
+  private <T> void processChunks(BiConsumer<MappedFileProcessor, Consumer<T>> parser,
+                                 Consumer<T> consumer) {
+    long[] bounds = chunkBounds();
+    int maxPending = pool.getParallelism() * CHUNKS_PER_THREAD;
+    Deque<ForkJoinTask<Chunk<T>>> pending = new ArrayDeque<>(maxPending);
+    int next = 0; // index of the next chunk to submit
+
+    try {
+      while (next + 1 < bounds.length && pending.size() < maxPending)
+        pending.add(submit(parser, bounds[next], bounds[++next]));
+
+      while (!pending.isEmpty()) {
+        Chunk<T> chunk = pending.remove().join();
+        if (next + 1 < bounds.length)
+          pending.add(submit(parser, bounds[next], bounds[++next]));
+
+        chunk.results.forEach(consumer);
+        if (chunk.error != null)
+          throw chunk.error;
+        chunk.results.clear();
+      }
+    }
+    finally {
+      for (ForkJoinTask<Chunk<T>> task : pending)
+        task.cancel(false);
+    }
+  }
+
+  /**
+   * Submits the parsing of a chunk to the pool. An error is kept with the results parsed
+   * before it, to be reported once the chunks before it are handed over.
+   */
+  private <T> ForkJoinTask<Chunk<T>> submit(BiConsumer<MappedFileProcessor, Consumer<T>> parser,
+                                            long from, long to) {
+    MappedFileProcessor processor = new MappedFileProcessor(channel, from, to, commands);
+    return pool.submit(() -> {
+      Chunk<T> chunk = new Chunk<>();
+      try {
+        parser.accept(processor, chunk.results::add);
+      }
+      catch (RuntimeException e) {
+        chunk.error = e;
+      }
+      return chunk;
+    });
+  }
+
+  /**
+   * Splits the rest of the file into chunks, each ending right after a line break or at the
+   * end of the file, and moves the channel to the end of the file.
+   * @return The offsets where the chunks start, followed by the end of the file.
+   */
+  private long[] chunkBounds() {
+    try {
+      long start = channel.position();
+      long size = channel.size();
+      long step = chunkSize > 0 ? chunkSize
+          : Math.max(MIN_CHUNK_SIZE, (size - start) / ((long) pool.getParallelism() * CHUNKS_PER_THREAD));
+
+      List<Long> bounds = new ArrayList<>();
+      bounds.add(start);
+      ByteBuffer probe = ByteBuffer.allocate(4096);
+      for (long bound = start; bound < size; ) {
+        bound = Math.min(bound + step, size);
+        bound = nextLineStart(bound, size, probe);
+        bounds.add(bound);
+      }
+      channel.position(size);
+      return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't read input file", e);
+    }
+  }
+
+  /**
+   * Finds where the line going on at an offset ends.
+   * @return The offset right after the first line break at or after the given offset, or
+   *         the end of the file if there is none.
+   */
+  private long nextLineStart(long offset, long size, ByteBuffer probe) throws IOException {
+    while (offset < size) {
+      probe.clear();
+      int read = channel.read(probe, offset);
+      if (read < 0)
+        return size;
+      for (int i = 0; i < read; i++)
+        if (probe.get(i) == '\n')
+          return offset + i + 1;
+      offset += read;
+    }
+    return size;
+  }
+}
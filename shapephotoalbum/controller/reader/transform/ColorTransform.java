@@ -2,13 +2,14 @@ package shapesphotoalbum.controller.reader.transform;
 
 import shapesphotoalbum.model.command.ChangeColor;
 import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 
 /**
  * The ColorTransform class implements the ITextToAction interface to transform textual
  * instructions into a ChangeColor action object.
  */
 public class ColorTransform implements ITextToAction {
-  private final int parametersCount = 5;
+  private static final int PARAMETERS_COUNT = 5;
   private final String[] instruction;
 
   /**
@@ -18,9 +19,7 @@ public class ColorTransform implements ITextToAction {
    * @throws IllegalArgumentException if the instruction is null or has an invalid length.
    */
   public ColorTransform(String[] instruction) {
-    if (instruction == null || instruction.length != parametersCount)
-      throw new IllegalArgumentException("Invalid instruction for action Change Color");
-
+    validate(instruction);
     this.instruction = instruction;
   }
 
@@ -32,28 +31,66 @@ public class ColorTransform implements ITextToAction {
    */
   @Override
   public IAction transformToAction() {
-    return getAction();
+    return toAction(instruction);
   }
 
   /**
-   * Constructs a new ChangeColor action based on the input instruction.
+   * Constructs a new ChangeColor action based on the given instruction, without creating a
+   * transform. This method keeps no state, so it can be reused for any number of lines.
    *
+   * @param instruction The words of the command line.
    * @return A ChangeColor action object representing the transformed textual command.
-   * @throws IllegalArgumentException if the instruction contains invalid or missing parameters.
+   * @throws IllegalArgumentException if the instruction is invalid or contains invalid parameters.
    */
-  private IAction getAction() {
-    String name = instruction[1];
+  public static IAction toAction(String[] instruction) {
+    validate(instruction);
+    return toAction(new TextCommandLine(instruction));
+  }
+
+  /**
+   * Constructs a new ChangeColor action based on the given command line. Its numbers are read
+   * straight from the line, so a line tokenized in place needs no string for them.
+   *
+   * @param line The words of the command line.
+   * @return A ChangeColor action object representing the transformed textual command.
+   * @throws IllegalArgumentException if the line is invalid or contains invalid parameters.
+   */
+  public static IAction toAction(ICommandLine line) {
+    validate(line.length());
+    ShapeNameTable names = line.names();
 
     try {
-      int R = Integer.parseInt(instruction[2]);
-      int G = Integer.parseInt(instruction[3]);
-      int B = Integer.parseInt(instruction[4]);
+      int R = line.intAt(2);
+      int G = line.intAt(3);
+      int B = line.intAt(4);
 
       // Create and return a new ChangeColor action
-      return new ChangeColor(name, R, G, B);
+      return names == null ? new ChangeColor(line.word(1), R, G, B)
+          : new ChangeColor(names, line.nameId(1), R, G, B);
     }
     catch (IllegalArgumentException e){
       throw new IllegalArgumentException("Invalid value for action Change Color");
     }
   }
+
+  /**
+   * Checks that an instruction has the shape of a Change Color command.
+   * @param instruction The words of the command line.
+   * @throws IllegalArgumentException if the instruction is invalid.
+   */
+  private static void validate(String[] instruction) {
+    if (instruction == null)
+      throw new IllegalArgumentException("Invalid instruction for action Change Color");
+    validate(instruction.length);
+  }
+
+  /**
+   * Checks that a command line has as many words as a Change Color command.
+   * @param length The number of words of the line.
+   * @throws IllegalArgumentException if the line is invalid.
+   */
+  private static void validate(int length) {
+    if (length != PARAMETERS_COUNT)
+      throw new IllegalArgumentException("Invalid instruction for action Change Color");
+  }
 }
@@ -2,6 +2,7 @@ package shapesphotoalbum.controller.reader.transform;
 
 import shapesphotoalbum.model.command.Create;
 import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 import shapesphotoalbum.model.shape.ShapeType;
 
 /**
@@ -9,7 +10,7 @@ import shapesphotoalbum.model.shape.ShapeType;
  * instructions into a Create action object.
  */
 public class CreateTransform implements ITextToAction {
-  private final int parametersCount = 10;
+  private static final int PARAMETERS_COUNT = 10;
   private final String[] instruction;
 
   /**
@@ -19,9 +20,7 @@ public class CreateTransform implements ITextToAction {
    * @throws IllegalArgumentException if the instruction is null or has an invalid length.
    */
   public CreateTransform(String[] instruction) {
-    if (instruction == null || instruction.length != parametersCount)
-      throw new IllegalArgumentException("Invalid instruction for action Create");
-
+    validate(instruction);
     this.instruction = instruction;
   }
 
@@ -33,37 +32,77 @@ public class CreateTransform implements ITextToAction {
    */
   @Override
   public IAction transformToAction() {
-    return getAction();
+    return toAction(instruction);
   }
 
   /**
-   * Constructs a new Create action based on the input instruction.
+   * Constructs a new Create action based on the given instruction, without creating a
+   * transform. This method keeps no state, so it can be reused for any number of lines.
    *
+   * @param instruction The words of the command line.
    * @return A Create action object representing the transformed textual command.
-   * @throws IllegalArgumentException if the instruction contains invalid or missing parameters.
+   * @throws IllegalArgumentException if the instruction is invalid or contains invalid parameters.
    */
-  private IAction getAction() {
-    String name = instruction[1];
-    ShapeType type = switch (instruction[2]) {
-      case "oval" -> ShapeType.OVAL;
-      case "rectangle" -> ShapeType.RECTANGLE;
-      default -> throw new IllegalArgumentException("This shape isn't supported by the application yet");
-    };
+  public static IAction toAction(String[] instruction) {
+    validate(instruction);
+    return toAction(new TextCommandLine(instruction));
+  }
+
+  /**
+   * Constructs a new Create action based on the given command line. Its numbers are read
+   * straight from the line, so a line tokenized in place needs no string for them.
+   *
+   * @param line The words of the command line.
+   * @return A Create action object representing the transformed textual command.
+   * @throws IllegalArgumentException if the line is invalid or contains invalid parameters.
+   */
+  public static IAction toAction(ICommandLine line) {
+    validate(line.length());
+    ShapeNameTable names = line.names();
+    ShapeType type;
+    if (line.wordEquals(2, "oval"))
+      type = ShapeType.OVAL;
+    else if (line.wordEquals(2, "rectangle"))
+      type = ShapeType.RECTANGLE;
+    else
+      throw new IllegalArgumentException("This shape isn't supported by the application yet");
 
     try {
-      int x = Integer.parseInt(instruction[3]);
-      int y = Integer.parseInt(instruction[4]);
-      int h = Integer.parseInt(instruction[5]);
-      int v = Integer.parseInt(instruction[6]);
-      int R = Integer.parseInt(instruction[7]);
-      int G = Integer.parseInt(instruction[8]);
-      int B = Integer.parseInt(instruction[9]);
+      int x = line.intAt(3);
+      int y = line.intAt(4);
+      int h = line.intAt(5);
+      int v = line.intAt(6);
+      int R = line.intAt(7);
+      int G = line.intAt(8);
+      int B = line.intAt(9);
 
       // Create and return a new Create action
-      return new Create(name, type, x, y, h, v, R, G, B);
+      return names == null ? new Create(line.word(1), type, x, y, h, v, R, G, B)
+          : new Create(names, line.nameId(1), type, x, y, h, v, R, G, B);
     }
     catch (IllegalArgumentException e){
       throw new IllegalArgumentException("Invalid value for action Create");
     }
   }
+
+  /**
+   * Checks that an instruction has the shape of a Create command.
+   * @param instruction The words of the command line.
+   * @throws IllegalArgumentException if the instruction is invalid.
+   */
+  private static void validate(String[] instruction) {
+    if (instruction == null)
+      throw new IllegalArgumentException("Invalid instruction for action Create");
+    validate(instruction.length);
+  }
+
+  /**
+   * Checks that a command line has as many words as a Create command.
+   * @param length The number of words of the line.
+   * @throws IllegalArgumentException if the line is invalid.
+   */
+  private static void validate(int length) {
+    if (length != PARAMETERS_COUNT)
+      throw new IllegalArgumentException("Invalid instruction for action Create");
+  }
 }
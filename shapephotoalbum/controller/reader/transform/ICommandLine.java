@@ -0,0 +1,81 @@
+package shapesphotoalbum.controller.reader.transform;
+
+import shapesphotoalbum.model.shape.ShapeNameTable;
+
+/**
+ * The ICommandLine interface represents the words of a command line, as read by a data
+ * processor. Words can be read as numbers or compared without turning them into strings, so
+ * a processor that tokenizes its input in place can hand its lines to the transforms without
+ * creating a string for every word. A line read by a reader that interns shape names carries
+ * the table of the reader, and the transforms then build commands that name their shapes by ID.
+ */
+public interface ICommandLine {
+  /**
+   * Gets the number of words on the line.
+   * @return The number of words, starting with the command keyword.
+   */
+  int length();
+
+  /**
+   * Gets a word of the line.
+   * @param index The position of the word, 0 being the command keyword.
+   * @return The word.
+   */
+  String word(int index);
+
+  /**
+   * Reads a word of the line as a decimal integer, the way {@link Integer#parseInt(String)}
+   * does.
+   * @param index The position of the word.
+   * @return The value of the word.
+   * @throws NumberFormatException if the word is not an integer or does not fit in an int.
+   */
+  int intAt(int index);
+
+  /**
+   * Checks whether a word of the line is exactly the given word.
+   * @param index The position of the word.
+   * @param word The word to compare with.
+   * @return True if the words are the same.
+   */
+  boolean wordEquals(int index, String word);
+
+  /**
+   * Joins the words of the line from a position on, separated by single spaces.
+   * @param from The position of the first word to join.
+   * @return The joined words, empty if there are none.
+   */
+  String join(int from);
+
+  /**
+   * Gets the table the shape names of the line are interned into.
+   * @return The table of the reader of the line, or null if names are not interned.
+   */
+  default ShapeNameTable names() {
+    return null;
+  }
+
+  /**
+   * Gets the ID of a word of the line in the table of {@link #names()}, interning it if needed.
+   * @param index The position of the word.
+   * @return The ID of the word.
+   * @throws IllegalStateException if names are not interned.
+   */
+  default int nameId(int index) {
+    ShapeNameTable names = names();
+    if (names == null)
+      throw new IllegalStateException("Command line doesn't intern names");
+    return names.intern(word(index));
+  }
+
+  /**
+   * Gets all the words of the line as strings.
+   * @return The words, starting with the command keyword.
+   */
+  default String[] words() {
+    String[] words = new String[length()];
+    for (int i = 0; i < words.length; i++)
+      words[i] = word(i);
+    return words;
+  }
+}
@@ -2,13 +2,14 @@ package shapesphotoalbum.controller.reader.transform;
 
 import shapesphotoalbum.model.command.IAction;
 import shapesphotoalbum.model.command.Move;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 
 /**
  * The MoveTransform class implements the ITextToAction interface to transform textual
  * instructions into a Move action object.
  */
 public class MoveTransform implements ITextToAction {
-  private final int parametersCount = 4;
+  private static final int PARAMETERS_COUNT = 4;
   private final String[] instruction;
 
   /**
@@ -18,9 +19,7 @@ public class MoveTransform implements ITextToAction {
    * @throws IllegalArgumentException if the instruction is null or has an invalid length.
    */
   public MoveTransform(String[] instruction) {
-    if (instruction == null || instruction.length != parametersCount)
-      throw new IllegalArgumentException("Invalid instruction for action Move");
-
+    validate(instruction);
     this.instruction = instruction;
   }
 
@@ -32,27 +31,65 @@ public class MoveTransform implements ITextToAction {
    */
   @Override
   public IAction transformToAction() {
-    return getAction();
+    return toAction(instruction);
   }
 
   /**
-   * Constructs a new Move action based on the input instruction.
+   * Constructs a new Move action based on the given instruction, without creating a
+   * transform. This method keeps no state, so it can be reused for any number of lines.
    *
+   * @param instruction The words of the command line.
    * @return A Move action object representing the transformed textual command.
-   * @throws IllegalArgumentException if the instruction contains invalid or missing parameters.
+   * @throws IllegalArgumentException if the instruction is invalid or contains invalid parameters.
    */
-  private IAction getAction() {
-    String name = instruction[1];
+  public static IAction toAction(String[] instruction) {
+    validate(instruction);
+    return toAction(new TextCommandLine(instruction));
+  }
+
+  /**
+   * Constructs a new Move action based on the given command line. Its numbers are read
+   * straight from the line, so a line tokenized in place needs no string for them.
+   *
+   * @param line The words of the command line.
+   * @return A Move action object representing the transformed textual command.
+   * @throws IllegalArgumentException if the line is invalid or contains invalid parameters.
+   */
+  public static IAction toAction(ICommandLine line) {
+    validate(line.length());
+    ShapeNameTable names = line.names();
 
     try {
-      int x = Integer.parseInt(instruction[2]);
-      int y = Integer.parseInt(instruction[3]);
+      int x = line.intAt(2);
+      int y = line.intAt(3);
 
       // Create and return a new Move action
-      return new Move(name, x, y);
+      return names == null ? new Move(line.word(1), x, y)
+          : new Move(names, line.nameId(1), x, y);
     }
     catch (IllegalArgumentException e){
       throw new IllegalArgumentException("Invalid value for action Move");
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Checks that an instruction has the shape of a Move command.
+   * @param instruction The words of the command line.
+   * @throws IllegalArgumentException if the instruction is invalid.
+   */
+  private static void validate(String[] instruction) {
+    if (instruction == null)
+      throw new IllegalArgumentException("Invalid instruction for action Move");
+    validate(instruction.length);
+  }
+
+  /**
+   * Checks that a command line has as many words as a Move command.
+   * @param length The number of words of the line.
+   * @throws IllegalArgumentException if the line is invalid.
+   */
+  private static void validate(int length) {
+    if (length != PARAMETERS_COUNT)
+      throw new IllegalArgumentException("Invalid instruction for action Move");
+  }
+}
@@ -2,13 +2,14 @@ package shapesphotoalbum.controller.reader.transform;
 
 import shapesphotoalbum.model.command.IAction;
 import shapesphotoalbum.model.command.Remove;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 
 /**
  * The RemoveTransform class implements the ITextToAction interface to transform textual
  * instructions into a Remove action object.
  */
 public class RemoveTransform implements ITextToAction {
-  private final int parametersCount = 2;
+  private static final int PARAMETERS_COUNT = 2;
   private final String[] instruction;
 
   /**
@@ -18,9 +19,7 @@ public class RemoveTransform implements ITextToAction {
    * @throws IllegalArgumentException if the instruction is null or has an invalid length.
    */
   public RemoveTransform(String[] instruction) {
-    if (instruction == null || instruction.length != parametersCount)
-      throw new IllegalArgumentException("Invalid instruction for action Remove");
-
+    validate(instruction);
     this.instruction = instruction;
   }
 
@@ -31,16 +30,55 @@ public class RemoveTransform implements ITextToAction {
    */
   @Override
   public IAction transformToAction() {
-    return getAction();
+    return toAction(instruction);
   }
 
   /**
-   * Constructs a new Remove action based on the input instruction.
+   * Constructs a new Remove action based on the given instruction, without creating a
+   * transform. This method keeps no state, so it can be reused for any number of lines.
    *
+   * @param instruction The words of the command line.
    * @return A Remove action object representing the transformed textual command.
+   * @throws IllegalArgumentException if the instruction is invalid.
    */
-  private IAction getAction() {
+  public static IAction toAction(String[] instruction) {
+    validate(instruction);
+    return toAction(new TextCommandLine(instruction));
+  }
+
+  /**
+   * Constructs a new Remove action based on the given command line. Its numbers are read
+   * straight from the line, so a line tokenized in place needs no string for them.
+   *
+   * @param line The words of the command line.
+   * @return A Remove action object representing the transformed textual command.
+   * @throws IllegalArgumentException if the line is invalid.
+   */
+  public static IAction toAction(ICommandLine line) {
+    validate(line.length());
     // Create and return a new Remove action with the specified shape name
-    return new Remove(instruction[1]);
+    ShapeNameTable names = line.names();
+    return names == null ? new Remove(line.word(1)) : new Remove(names, line.nameId(1));
+  }
+
+  /**
+   * Checks that an instruction has the shape of a Remove command.
+   * @param instruction The words of the command line.
+   * @throws IllegalArgumentException if the instruction is invalid.
+   */
+  private static void validate(String[] instruction) {
+    if (instruction == null)
+      throw new IllegalArgumentException("Invalid instruction for action Remove");
+    validate(instruction.length);
+  }
+
+  /**
+   * Checks that a command line has as many words as a Remove command.
+   * @param length The number of words of the line.
+   * @throws IllegalArgumentException if the line is invalid.
+   */
+  private static void validate(int length) {
+    if (length != PARAMETERS_COUNT)
+      throw new IllegalArgumentException("Invalid instruction for action Remove");
   }
 }
@@ -2,13 +2,14 @@ package shapesphotoalbum.controller.reader.transform;
 
 import shapesphotoalbum.model.command.IAction;
 import shapesphotoalbum.model.command.Resize;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 
 /**
  * The ResizeTransform class implements the ITextToAction interface to transform textual
  * instructions into a Resize action object.
  */
 public class ResizeTransform implements ITextToAction {
-  private final int parametersCount = 4;
+  private static final int PARAMETERS_COUNT = 4;
   private final String[] instruction;
 
   /**
@@ -18,9 +19,7 @@ public class ResizeTransform implements ITextToAction {
    * @throws IllegalArgumentException if the instruction is null or has an invalid length.
    */
   public ResizeTransform(String[] instruction) {
-    if (instruction == null || instruction.length != parametersCount)
-      throw new IllegalArgumentException("Invalid instruction for action Resize");
-
+    validate(instruction);
     this.instruction = instruction;
   }
 
@@ -31,27 +30,65 @@ public class ResizeTransform implements ITextToAction {
    */
   @Override
   public IAction transformToAction() {
-    return getAction();
+    return toAction(instruction);
   }
 
   /**
-   * Constructs a new Resize action based on the input instruction.
+   * Constructs a new Resize action based on the given instruction, without creating a
+   * transform. This method keeps no state, so it can be reused for any number of lines.
    *
+   * @param instruction The words of the command line.
    * @return A Resize action object representing the transformed textual command.
    * @throws IllegalArgumentException if the instruction contains invalid numeric values.
    */
-  private IAction getAction() {
-    String name = instruction[1];
+  public static IAction toAction(String[] instruction) {
+    validate(instruction);
+    return toAction(new TextCommandLine(instruction));
+  }
+
+  /**
+   * Constructs a new Resize action based on the given command line. Its numbers are read
+   * straight from the line, so a line tokenized in place needs no string for them.
+   *
+   * @param line The words of the command line.
+   * @return A Resize action object representing the transformed textual command.
+   * @throws IllegalArgumentException if the line is invalid or contains invalid numeric values.
+   */
+  public static IAction toAction(ICommandLine line) {
+    validate(line.length());
+    ShapeNameTable names = line.names();
 
     try {
-      int h = Integer.parseInt(instruction[2]);
-      int v = Integer.parseInt(instruction[3]);
+      int h = line.intAt(2);
+      int v = line.intAt(3);
 
       // Create and return a new Resize action with the specified parameters
-      return new Resize(name, h, v);
+      return names == null ? new Resize(line.word(1), h, v)
+          : new Resize(names, line.nameId(1), h, v);
     }
     catch (IllegalArgumentException e){
       throw new IllegalArgumentException("Invalid value for action Resize");
     }
   }
+
+  /**
+   * Checks that an instruction has the shape of a Resize command.
+   * @param instruction The words of the command line.
+   * @throws IllegalArgumentException if the instruction is invalid.
+   */
+  private static void validate(String[] instruction) {
+    if (instruction == null)
+      throw new IllegalArgumentException("Invalid instruction for action Resize");
+    validate(instruction.length);
+  }
+
+  /**
+   * Checks that a command line has as many words as a Resize command.
+   * @param length The number of words of the line.
+   * @throws IllegalArgumentException if the line is invalid.
+   */
+  private static void validate(int length) {
+    if (length != PARAMETERS_COUNT)
+      throw new IllegalArgumentException("Invalid instruction for action Resize");
+  }
 }
@@ -17,9 +17,7 @@ public class SnapshotTransform implements ITextToAction {
    * @throws IllegalArgumentException if the instruction is null.
    */
   public SnapshotTransform(String[] instruction) {
-    if (instruction == null)
-      throw new IllegalArgumentException("Invalid instruction for action Take Snapshot");
-
+    validate(instruction);
     this.instruction = instruction;
   }
 
@@ -30,21 +28,41 @@ public class SnapshotTransform implements ITextToAction {
    */
   @Override
   public IAction transformToAction() {
-    return getAction();
+    return toAction(instruction);
   }
 
   /**
-   * Constructs a new TakeSnapshot action based on the input instruction.
+   * Constructs a new TakeSnapshot action based on the given instruction, without creating a
+   * transform. This method keeps no state, so it can be reused for any number of lines.
    *
+   * @param instruction The words of the command line.
    * @return A TakeSnapshot action object representing the transformed textual command.
+   * @throws IllegalArgumentException if the instruction is invalid.
    */
-  private IAction getAction() {
-    String[] description = new String[instruction.length - 1];
+  public static IAction toAction(String[] instruction) {
+    validate(instruction);
+    return toAction(new TextCommandLine(instruction));
+  }
 
-    for (int i = 1, j = 0; i < instruction.length; i++, j++) {
-      description[j] = instruction[i];
-    }
+  /**
+   * Constructs a new TakeSnapshot action based on the given command line, whose description
+   * is the rest of the line with its words separated by single spaces.
+   *
+   * @param line The words of the command line.
+   * @return A TakeSnapshot action object representing the transformed textual command.
+   */
+  public static IAction toAction(ICommandLine line) {
     // Create and return a new TakeSnapshot action with the extracted description
-    return new TakeSnapshot(String.join(" ", description));
+    return new TakeSnapshot(line.join(1));
+  }
+
+  /**
+   * Checks that an instruction has the shape of a Take Snapshot command.
+   * @param instruction The words of the command line.
+   * @throws IllegalArgumentException if the instruction is invalid.
+   */
+  private static void validate(String[] instruction) {
+    if (instruction == null)
+      throw new IllegalArgumentException("Invalid instruction for action Take Snapshot");
   }
 }
@@ -0,0 +1,74 @@
+package shapesphotoalbum.controller.reader.transform;
+
+import shapesphotoalbum.model.shape.ShapeNameTable;
+
+import java.util.Arrays;
+
+/**
+ * The TextCommandLine class represents a command line already split into strings, such as
+ * one read by a {@link shapesphotoalbum.controller.reader.FileProcessor}.
+ */
+public class TextCommandLine implements ICommandLine {
+  private final String[] words;
+  private final ShapeNameTable names; // null if names are not interned
+
+  /**
+   * Constructs a command line from its words, whose commands name their shapes by name.
+   * @param words The words of the line, starting with the command keyword. They are not
+   *              copied.
+   * @throws IllegalArgumentException if the words are null.
+   */
+  public TextCommandLine(String[] words) {
+    this(words, null);
+  }
+
+  /**
+   * Constructs a command line from its words, interning shape names into the given table.
+   * @param words The words of the line, starting with the command keyword. They are not
+   *              copied.
+   * @param names The table of the reader of the line, or null not to intern names.
+   * @throws IllegalArgumentException if the words are null.
+   */
+  public TextCommandLine(String[] words, ShapeNameTable names) {
+    if (words == null)
+      throw new IllegalArgumentException("No command line given");
+
+    this.words = words;
+    this.names = names;
+  }
+
+  @Override
+  public int length() {
+    return words.length;
+  }
+
+  @Override
+  public String word(int index) {
+    return words[index];
+  }
+
+  @Override
+  public int intAt(int index) {
+    return Integer.parseInt(words[index]);
+  }
+
+  @Override
+  public boolean wordEquals(int index, String word) {
+    return words[index].equals(word);
+  }
+
+  @Override
+  public String join(int from) {
+    return String.join(" ", Arrays.asList(words).subList(from, words.length));
+  }
+
+  @Override
+  public ShapeNameTable names() {
+    return names;
+  }
+
+  @Override
+  public String[] words() {
+    return words;
+  }
+}
@@ -0,0 +1,116 @@
+package shapesphotoalbum.model;
+
+import shapesphotoalbum.model.shape.IShape;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents the behavior shared by all snapshot implementations, whatever way they store
+ * their shapes: exposing the content, comparing snapshots and printing them.
+ * The content of a snapshot is read-only and never changes, so it is handed out without
+ * copying and its hash is only computed once.
+ */
+public abstract class AbstractSnapshot implements ISnapshot {
+  private int contentHash;
+  private volatile boolean contentHashed; // published after contentHash is written
+
+  /**
+   * Gets the shapes of the snapshot without copying them.
+   * The shapes are read-only.
+   * @return The shapes of the snapshot, in order.
+   */
+  protected abstract Iterable<IShape> shapes();
+
+  /**
+   * Gets the content of the snapshot. The shapes of a list or a {@link PersistentShapeMap}
+   * are handed out through a read-only view, other shapes are copied into a list.
+   * @return A read-only list of the read-only shapes in the snapshot.
+   */
+  @Override
+  public List<IShape> getContent() {
+    Iterable<IShape> shapes = shapes();
+    if (shapes instanceof List<IShape> list)
+      return Collections.unmodifiableList(list);
+    if (shapes instanceof PersistentShapeMap map)
+      return map.asList();
+
+    List<IShape> list = new ArrayList<>();
+    for (IShape s : shapes)
+      list.add(s);
+    return Collections.unmodifiableList(list);
+  }
+
+  /**
+   * Gets the hash of the content of the snapshot, computing it on first use.
+   * It matches the hash code of {@link #getContent()}.
+   * @return The hash of the content.
+   */
+  private int contentHash() {
+    if (!contentHashed) {
+      int hash = 1;
+      for (IShape s : shapes())
+        hash = 31 * hash + s.hashCode();
+      contentHash = hash;
+      contentHashed = true;
+    }
+    return contentHash;
+  }
+
+  /**
+   * Compares the snapshot to another object.
+   * Snapshots are equal when they have the same ID, timestamp and content, no matter how
+   * they store their shapes.
+   * @param o The object to compare with.
+   * @return True if the objects are equal, false otherwise.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof AbstractSnapshot)) return false;
+    AbstractSnapshot snapshot = (AbstractSnapshot) o;
+    if (!Objects.equals(getId(), snapshot.getId())
+        || !Objects.equals(getTimestamp(), snapshot.getTimestamp())
+        || contentHash() != snapshot.contentHash())
+      return false;
+
+    Iterator<IShape> mine = shapes().iterator();
+    Iterator<IShape> theirs = snapshot.shapes().iterator();
+    while (mine.hasNext() && theirs.hasNext())
+      if (!mine.next().equals(theirs.next()))
+        return false;
+    return !mine.hasNext() && !theirs.hasNext();
+  }
+
+  /**
+   * Generates the hash code for the snapshot.
+   * @return The hash code for the snapshot.
+   */
+  @Override
+  public int hashCode() {
+    int hash = 31 + Objects.hashCode(getId());
+    hash = 31 * hash + Objects.hashCode(getTimestamp());
+    return 31 * hash + contentHash();
+  }
+
+  /**
+   * Converts the snapshot to a string representation.
+   * @return The string representation of the snapshot.
+   */
+  @Override
+  public String toString() {
+    StringBuilder string = new StringBuilder(String.format("""
+        Snapshot ID: %s
+        Timestamp: %s
+        Description: %s
+        Shape Information:
+        """, getId(), getTimestamp(), getDescription()));
+    for (IShape s : shapes())
+      string.append(s.toString());
+
+    return string.toString();
+  }
+}
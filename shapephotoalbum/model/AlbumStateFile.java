@@ -0,0 +1,184 @@
+package shapesphotoalbum.model;
+
+import shapesphotoalbum.model.shape.IShape;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Saves the state of a photo album model to a versioned binary file and loads it back, so
+ * that an album can be reopened without running its commands again.
+ * The file holds a header and version, the shapes of the current photo, then every snapshot
+ * as a {@link SnapshotCodec} record with its length in front. Loading maps the file and
+ * decodes the records straight into a {@link Photo} and an {@link InMemorySnapshotStore},
+ * keeping the original snapshot IDs and timestamps. Shapes that did not change from one
+ * snapshot to the next are shared again, like they were in the saved model.
+ */
+public final class AlbumStateFile {
+  private static final byte[] MAGIC = {(byte) 0x89, 'S', 'P', 'M'};
+  private static final int VERSION = 2;
+
+  private AlbumStateFile() {
+  }
+
+  /**
+   * Saves the current photo and the snapshots of a model. The file is replaced only once it
+   * is completely written.
+   * @param model The model to save.
+   * @param file The path of the state file.
+   * @throws IllegalArgumentException If the model or the path is null.
+   * @throws UncheckedIOException If the file can't be written.
+   */
+  public static void save(IModel model, Path file) {
+    if (model == null)
+      throw new IllegalArgumentException("No model to be saved");
+    if (file == null)
+      throw new IllegalArgumentException("No state file given");
+
+    Path absolute = file.toAbsolutePath();
+    try {
+      Path partial = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".part");
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(partial), 1 << 16))) {
+        out.write(MAGIC);
+        out.writeInt(VERSION);
+        writeRecord(out, SnapshotCodec.encodeShapes(currentShapes(model.getCurrentState())));
+
+        int count = model.getSnapshotCount();
+        out.writeInt(count);
+        for (Iterator<ISnapshot> it = model.getSnapshots(0, count); it.hasNext(); )
+          writeRecord(out, SnapshotCodec.encode(it.next()));
+      }
+      catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(partial);
+        throw e;
+      }
+      Files.move(partial, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't save album state to " + file, e);
+    }
+  }
+
+  /**
+   * Loads a model saved by {@link #save(IModel, Path)}.
+   * @param file The path of the state file.
+   * @return A model holding the saved photo and snapshots.
+   * @throws IllegalArgumentException If the path is null.
+   * @throws IllegalStateException If the file is not a complete state file of this version.
+   * @throws UncheckedIOException If the file can't be read.
+   */
+  public static ShapesPhotoAlbumModel load(Path file) {
+    if (file == null)
+      throw new IllegalArgumentException("No state file given");
+
+    ByteBuffer in;
+    try (FileChannel channel = FileChannel.open(file)) {
+      if (channel.size() > Integer.MAX_VALUE)
+        throw new IllegalStateException("Album state file is too large");
+      in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't read album state from " + file, e);
+    }
+
+    try {
+      byte[] magic = new byte[MAGIC.length];
+      in.get(magic);
+      if (!Arrays.equals(magic, MAGIC))
+        throw new IllegalStateException("Not an album state file");
+      if (in.getInt() != VERSION)
+        throw new IllegalStateException("Unsupported album state file version");
+
+      Photo photo = new Photo();
+      for (IShape shape : SnapshotCodec.readShapes(record(in), photo.getNameTable()))
+        photo.addShape(shape);
+
+      int count = in.getInt();
+      if (count < 0)
+        throw new IllegalStateException("Incomplete album state file");
+      ISnapshotStore store = new InMemorySnapshotStore();
+      IShape[] latest = new IShape[64]; // latest decoded shape with each name ID
+      for (int i = 0; i < count; i++) {
+        ByteBuffer record = record(in);
+        String[] metadata = SnapshotCodec.readMetadata(record);
+        List<IShape> shapes = SnapshotCodec.readShapes(record, photo.getNameTable());
+        IShape[] content = shapes.toArray(new IShape[0]);
+        latest = share(content, latest);
+        store.add(Snapshot.restore(metadata[0], metadata[1], metadata[2],
+            Collections.unmodifiableList(Arrays.asList(content))));
+      }
+
+      if (in.hasRemaining())
+        throw new IllegalStateException("Incomplete album state file");
+      return new ShapesPhotoAlbumModel(photo, store);
+    }
+    catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IllegalStateException("Incomplete album state file");
+    }
+  }
+
+  /**
+   * Writes a record with its length in front.
+   */
+  private static void writeRecord(DataOutputStream out, byte[] record) throws IOException {
+    out.writeInt(record.length);
+    out.write(record);
+  }
+
+  /**
+   * Reads the length of a record and moves past the record.
+   * @return A buffer holding exactly the record.
+   */
+  private static ByteBuffer record(ByteBuffer in) {
+    int length = in.getInt();
+    ByteBuffer record = in.slice(in.position(), length);
+    in.position(in.position() + length);
+    return record;
+  }
+
+  /**
+   * Gets the shapes of the current photo.
+   */
+  private static List<IShape> currentShapes(IPhoto photo) {
+    try {
+      return photo.takeSnapshot(null).getContent();
+    }
+    catch (IllegalStateException e) {
+      return List.of(); // an empty photo can't be taken a snapshot of
+    }
+  }
+
+  /**
+   * Replaces each decoded shape that equals the latest shape with the same name by that
+   * shape, and records the others as the latest ones.
+   * @return The table of latest shapes, grown if needed.
+   */
+  private static IShape[] share(IShape[] content, IShape[] latest) {
+    for (int i = 0; i < content.length; i++) {
+      IShape shape = content[i];
+      int id = shape.getNameId();
+      if (id >= latest.length)
+        latest = Arrays.copyOf(latest, Math.max(latest.length * 2, id + 1));
+
+      IShape previous = latest[id];
+      if (previous != null && previous.getType() == shape.getType() && previous.equals(shape))
+        content[i] = previous;
+      else
+        latest[id] = shape;
+    }
+    return latest;
+  }
+}
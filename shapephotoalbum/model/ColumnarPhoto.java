@@ -0,0 +1,370 @@
+package shapesphotoalbum.model;
+
+import shapesphotoalbum.model.shape.Color;
+import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.ShapeNameTable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Represents a photo that stores its shapes column by column in parallel primitive arrays
+ * (position, size, packed color, type and name ID) instead of one object per shape.
+ * Name IDs come from the {@link ShapeNameTable} of the photo and index an array pointing at
+ * the slot holding each shape. This keeps large photos small and cheap to walk through.
+ * Snapshots copy the columns and expose the shapes as read-only views.
+ */
+public class ColumnarPhoto implements IPhoto {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int COMPACT_THRESHOLD = 64; // fewest slots worth compacting
+  private static final byte REMOVED = -1; // type of a slot whose shape was removed
+
+  // shape columns, indexed by slot in insertion order
+  private int[] xs;
+  private int[] ys;
+  private int[] widths;
+  private int[] heights;
+  private int[] colors;
+  private byte[] types;
+  private int[] nameIds;
+  private int slots; // slots used so far, including removed ones
+  private int size; // shapes in the photo
+  private int[] slotOfName; // slot holding the shape with that name ID, -1 if none
+  private final ShapeNameTable names;
+
+  /**
+   * Constructs a new columnar photo with a name table of its own.
+   */
+  public ColumnarPhoto() {
+    names = new ShapeNameTable();
+    xs = new int[INITIAL_CAPACITY];
+    ys = new int[INITIAL_CAPACITY];
+    widths = new int[INITIAL_CAPACITY];
+    heights = new int[INITIAL_CAPACITY];
+    colors = new int[INITIAL_CAPACITY];
+    types = new byte[INITIAL_CAPACITY];
+    nameIds = new int[INITIAL_CAPACITY];
+    slotOfName = new int[0];
+  }
+
+  /**
+   * Constructs a copy of the given photo.
+   * @param original The original photo to copy.
+   * @throws IllegalArgumentException If the original photo is null.
+   */
+  public ColumnarPhoto(ColumnarPhoto original) {
+    if (original == null)
+      throw new IllegalArgumentException("No photo to be copied");
+
+    xs = original.xs.clone();
+    ys = original.ys.clone();
+    widths = original.widths.clone();
+    heights = original.heights.clone();
+    colors = original.colors.clone();
+    types = original.types.clone();
+    nameIds = original.nameIds.clone();
+    slots = original.slots;
+    size = original.size;
+    slotOfName = original.slotOfName.clone();
+    names = original.names;
+  }
+
+  /**
+   * Gets the table the names of the shapes of the photo are interned into.
+   * @return The name table of the photo.
+   */
+  @Override
+  public ShapeNameTable getNameTable() {
+    return names;
+  }
+
+  /**
+   * Adds a shape to the photo.
+   * @param shape The shape to add.
+   * @throws IllegalArgumentException If the shape name is already taken, or its color is out
+   *                                  of the 0-255 range that the color column can hold.
+   */
+  @Override
+  public void addShape(IShape shape) {
+    if (shape == null)
+      throw new IllegalArgumentException("No shape to be added");
+
+    int id = names.intern(shape.getName());
+    if (slotOf(id) >= 0)
+      throw new IllegalArgumentException("Shape name is already taken, please select another name");
+
+    Color color = shape.getColor();
+    checkColor(color.getR(), color.getG(), color.getB());
+
+    if (slots == xs.length)
+      growSlots();
+    if (id >= slotOfName.length) {
+      int length = slotOfName.length;
+      slotOfName = Arrays.copyOf(slotOfName, Math.max(id + 1, length * 2));
+      Arrays.fill(slotOfName, length, slotOfName.length, -1);
+    }
+    xs[slots] = shape.getPosition().getX();
+    ys[slots] = shape.getPosition().getY();
+    widths[slots] = shape.getHorizontalDimension();
+    heights[slots] = shape.getVerticalDimension();
+    colors[slots] = ShapeColumns.pack(color.getR(), color.getG(), color.getB());
+    types[slots] = (byte) shape.getType().ordinal();
+    nameIds[slots] = id;
+    slotOfName[id] = slots;
+    slots++;
+    size++;
+  }
+
+  /**
+   * Moves a shape to the specified position.
+   * @param shapeName The name of the shape to move.
+   * @param x The x-coordinate of the new position.
+   * @param y The y-coordinate of the new position.
+   * @throws IllegalArgumentException If the shape to be moved doesn't exist.
+   */
+  @Override
+  public void moveShape(String shapeName, int x, int y) {
+    moveShape(names.find(shapeName), x, y);
+  }
+
+  /**
+   * Moves a shape to the specified position.
+   * @param shapeId The ID of the name of the shape to move.
+   * @param x The x-coordinate of the new position.
+   * @param y The y-coordinate of the new position.
+   * @throws IllegalArgumentException If the shape to be moved doesn't exist.
+   */
+  @Override
+  public void moveShape(int shapeId, int x, int y) {
+    int slot = slotOf(shapeId);
+    if (slot < 0)
+      throw new IllegalArgumentException("Shape to be moved doesn't exist");
+
+    xs[slot] = x;
+    ys[slot] = y;
+  }
+
+  /**
+   * Changes the color of a shape.
+   * @param shapeName The name of the shape to change color for.
+   * @param R The red component of the new color.
+   * @param G The green component of the new color.
+   * @param B The blue component of the new color.
+   * @throws IllegalArgumentException If the shape to change color for doesn't exist.
+   */
+  @Override
+  public void changeColor(String shapeName, int R, int G, int B) {
+    changeColor(names.find(shapeName), R, G, B);
+  }
+
+  /**
+   * Changes the color of a shape.
+   * @param shapeId The ID of the name of the shape to change color for.
+   * @param R The red component of the new color.
+   * @param G The green component of the new color.
+   * @param B The blue component of the new color.
+   * @throws IllegalArgumentException If the shape to change color for doesn't exist.
+   */
+  @Override
+  public void changeColor(int shapeId, int R, int G, int B) {
+    int slot = slotOf(shapeId);
+    if (slot < 0)
+      throw new IllegalArgumentException("Shape to change color for doesn't exist");
+
+    checkColor(R, G, B);
+    colors[slot] = ShapeColumns.pack(R, G, B);
+  }
+
+  /**
+   * Resizes a shape.
+   * @param shapeName The name of the shape to be resized.
+   * @param h The horizontal dimension of the new size.
+   * @param v The vertical dimension of the new size.
+   * @throws IllegalArgumentException If the shape to be resized doesn't exist.
+   */
+  @Override
+  public void resizeShape(String shapeName, int h, int v) {
+    resizeShape(names.find(shapeName), h, v);
+  }
+
+  /**
+   * Resizes a shape.
+   * @param shapeId The ID of the name of the shape to be resized.
+   * @param h The horizontal dimension of the new size.
+   * @param v The vertical dimension of the new size.
+   * @throws IllegalArgumentException If the shape to be resized doesn't exist.
+   */
+  @Override
+  public void resizeShape(int shapeId, int h, int v) {
+    int slot = slotOf(shapeId);
+    if (slot < 0)
+      throw new IllegalArgumentException("Shape to be resized doesn't exist");
+
+    widths[slot] = h;
+    heights[slot] = v;
+  }
+
+  /**
+   * Removes a shape from the photo.
+   * @param shapeName The name of the shape to be removed.
+   * @throws IllegalArgumentException If the shape to be removed doesn't exist.
+   */
+  @Override
+  public void removeShape(String shapeName) {
+    removeShape(names.find(shapeName));
+  }
+
+  /**
+   * Removes a shape from the photo.
+   * @param shapeId The ID of the name of the shape to be removed.
+   * @throws IllegalArgumentException If the shape to be removed doesn't exist.
+   */
+  @Override
+  public void removeShape(int shapeId) {
+    int slot = slotOf(shapeId);
+    if (slot < 0)
+      throw new IllegalArgumentException("Shape to be removed doesn't exist");
+
+    slotOfName[nameIds[slot]] = -1;
+    types[slot] = REMOVED;
+    size--;
+
+    // pack the columns once most slots are empty so walking them stays proportional to size
+    if (slots > COMPACT_THRESHOLD && slots > 2 * size)
+      compact();
+  }
+
+  /**
+   * Takes a snapshot of the current state of the photo.
+   * The snapshot gets its own copy of the columns.
+   * @return A snapshot of the photo.
+   * @throws IllegalStateException If there is no content to be taken snapshot of.
+   */
+  @Override
+  public ISnapshot takeSnapshot(String description) {
+    if (size == 0)
+      throw new IllegalStateException("No content to be taken snapshot of");
+
+    return Snapshot.now(description, columns());
+  }
+
+  /**
+   * Creates a copy of the photo.
+   * @return A copy of the photo.
+   */
+  @Override
+  public IPhoto copy() {
+    return new ColumnarPhoto(this);
+  }
+
+  /**
+   * Copies the shapes of the photo into densely packed columns.
+   * @return The shapes of the photo, in insertion order.
+   */
+  private ShapeColumns columns() {
+    int[] x = new int[size], y = new int[size], w = new int[size], h = new int[size];
+    int[] c = new int[size], n = new int[size];
+    byte[] t = new byte[size];
+
+    for (int slot = 0, i = 0; slot < slots; slot++) {
+      if (types[slot] == REMOVED)
+        continue;
+      x[i] = xs[slot];
+      y[i] = ys[slot];
+      w[i] = widths[slot];
+      h[i] = heights[slot];
+      c[i] = colors[slot];
+      t[i] = types[slot];
+      n[i] = nameIds[slot];
+      i++;
+    }
+    return new ShapeColumns(x, y, w, h, c, t, n, size, names);
+  }
+
+  /**
+   * Moves the remaining shapes to the front of the columns, keeping their order.
+   */
+  private void compact() {
+    int live = 0;
+    for (int slot = 0; slot < slots; slot++) {
+      if (types[slot] == REMOVED)
+        continue;
+      xs[live] = xs[slot];
+      ys[live] = ys[slot];
+      widths[live] = widths[slot];
+      heights[live] = heights[slot];
+      colors[live] = colors[slot];
+      types[live] = types[slot];
+      nameIds[live] = nameIds[slot];
+      slotOfName[nameIds[live]] = live;
+      live++;
+    }
+    slots = live;
+  }
+
+  /**
+   * Doubles the capacity of the shape columns.
+   */
+  private void growSlots() {
+    int capacity = xs.length * 2;
+    xs = Arrays.copyOf(xs, capacity);
+    ys = Arrays.copyOf(ys, capacity);
+    widths = Arrays.copyOf(widths, capacity);
+    heights = Arrays.copyOf(heights, capacity);
+    colors = Arrays.copyOf(colors, capacity);
+    types = Arrays.copyOf(types, capacity);
+    nameIds = Arrays.copyOf(nameIds, capacity);
+  }
+
+  /**
+   * Checks that color components fit in the packed color column.
+   * @throws IllegalArgumentException If a component is out of the 0-255 range.
+   */
+  private static void checkColor(int R, int G, int B) {
+    if ((R | G | B) < 0 || R > 255 || G > 255 || B > 255)
+      throw new IllegalArgumentException("Color value is out of bound");
+  }
+
+  /**
+   * Gets the slot of the shape with the given name.
+   * @param nameId The ID of the name of the shape.
+   * @return The slot, or -1 if there is no shape with that name.
+   */
+  private int slotOf(int nameId) {
+    return nameId < 0 || nameId >= slotOfName.length ? -1 : slotOfName[nameId];
+  }
+
+  /**
+   * Checks if this photo is equal to another object.
+   * @param o The object to compare.
+   * @return True if the photos are equal, false otherwise.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof ColumnarPhoto)) return false;
+    ColumnarPhoto photo = (ColumnarPhoto) o;
+    return Objects.equals(toString(), photo.toString());
+  }
+
+  /**
+   * Generates a hash code for this photo.
+   * @return The hash code.
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(toString());
+  }
+
+  /**
+   * Returns a string representation of the photo.
+   * @return A string representation of the photo.
+   */
+  @Override
+  public String toString() {
+    StringBuilder string = new StringBuilder();
+    for (IShape s : columns())
+      string.append(s.toString());
+    return string.toString();
+  }
+}
@@ -0,0 +1,156 @@
+package shapesphotoalbum.model;
+
+import shapesphotoalbum.model.shape.IShape;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Represents a snapshot stored by a {@link DeltaSnapshotStore}.
+ * A keyframe holds its full shape map. Any other snapshot only holds the shapes added or
+ * edited and the names removed since the snapshot before it, and rebuilds its content from
+ * the closest keyframe when it is asked for.
+ */
+class DeltaSnapshot extends AbstractSnapshot {
+  private static final IShape[] NO_SHAPES = new IShape[0];
+  private static final int[] NO_NAMES = new int[0];
+
+  private final String id;
+  private final String timestamp;
+  private final String description;
+  private final PersistentShapeMap keyframe; // full content, null for a delta
+  private final DeltaSnapshot base; // snapshot the delta applies to, null for a keyframe
+  private final IShape[] changed;
+  private final int[] removed; // name IDs
+  private SoftReference<PersistentShapeMap> rebuilt; // last rebuilt content of a delta
+
+  private DeltaSnapshot(ISnapshot snapshot, PersistentShapeMap keyframe, DeltaSnapshot base,
+                        IShape[] changed, int[] removed) {
+    this.id = snapshot.getId();
+    this.timestamp = snapshot.getTimestamp();
+    this.description = snapshot.getDescription();
+    this.keyframe = keyframe;
+    this.base = base;
+    this.changed = changed;
+    this.removed = removed;
+  }
+
+  /**
+   * Creates a keyframe holding the full content of a snapshot.
+   * @param snapshot The snapshot to store.
+   * @param content The content of the snapshot.
+   * @return The keyframe.
+   */
+  static DeltaSnapshot keyframe(ISnapshot snapshot, PersistentShapeMap content) {
+    return new DeltaSnapshot(snapshot, content, null, NO_SHAPES, NO_NAMES);
+  }
+
+  /**
+   * Creates a delta holding the differences of a snapshot from the one before it.
+   * @param snapshot The snapshot to store.
+   * @param base The stored snapshot before it.
+   * @param changed The shapes added or edited since the base, in order.
+   * @param removed The name IDs of the shapes removed since the base.
+   * @return The delta.
+   */
+  static DeltaSnapshot delta(ISnapshot snapshot, DeltaSnapshot base, IShape[] changed,
+                             int[] removed) {
+    return new DeltaSnapshot(snapshot, null, base, changed, removed);
+  }
+
+  /**
+   * Checks if this snapshot holds its full content.
+   * @return True for a keyframe, false for a delta.
+   */
+  boolean isKeyframe() {
+    return keyframe != null;
+  }
+
+  /**
+   * Rebuilds the content of the snapshot by applying the deltas since the closest keyframe,
+   * or the closest snapshot whose rebuilt content is still cached.
+   * @return The content of the snapshot.
+   */
+  PersistentShapeMap content() {
+    Deque<DeltaSnapshot> pending = new ArrayDeque<>();
+    PersistentShapeMap content = null;
+    DeltaSnapshot current = this;
+
+    while (content == null) {
+      content = current.cached();
+      if (content == null) {
+        pending.push(current);
+        current = current.base;
+      }
+    }
+
+    while (!pending.isEmpty()) {
+      DeltaSnapshot delta = pending.pop();
+      for (int nameId : delta.removed)
+        content = content.remove(nameId);
+      for (IShape s : delta.changed)
+        content = content.put(s);
+    }
+
+    if (!isKeyframe())
+      rebuilt = new SoftReference<>(content);
+    return content;
+  }
+
+  /**
+   * Gets the content of the snapshot if it is available without rebuilding it.
+   * @return The content, or null if it has to be rebuilt.
+   */
+  private PersistentShapeMap cached() {
+    if (keyframe != null)
+      return keyframe;
+    return rebuilt == null ? null : rebuilt.get();
+  }
+
+  /**
+   * Gets the ID of the snapshot.
+   * @return The ID of the snapshot.
+   */
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Gets the timestamp of the snapshot.
+   * @return The timestamp of the snapshot.
+   */
+  @Override
+  public String getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Gets the description of the snapshot.
+   * @return The description of the snapshot.
+   */
+  @Override
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * Gets the shapes of the snapshot, rebuilding them if needed.
+   * @return The shapes of the snapshot.
+   */
+  @Override
+  protected Iterable<IShape> shapes() {
+    return content();
+  }
+
+  /**
+   * Creates a copy of the snapshot.
+   * The stored data is never modified, so the copy shares it.
+   * @return A copy of the snapshot.
+   */
+  @Override
+  public ISnapshot copy() {
+    return new DeltaSnapshot(this, keyframe, base, changed, removed);
+  }
+}
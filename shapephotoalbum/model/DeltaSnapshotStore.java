@@ -0,0 +1,156 @@
+package shapesphotoalbum.model;
+
+import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.Shape;
+import shapesphotoalbum.model.shape.ShapeNameTable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Represents a snapshot store that keeps a full keyframe every few snapshots and only the
+ * differences from the previous snapshot for the rest.
+ * Consecutive snapshots usually differ by a handful of shapes, so this retains far less
+ * memory than keeping every snapshot, at the cost of rebuilding a snapshot's content from
+ * its keyframe when it is read.
+ * Snapshots taken from a {@link Photo} are diffed through the structure their content shares.
+ * Other content, such as that of a {@link ColumnarPhoto}, is compared with the previous
+ * snapshot shape by shape, and stored as a keyframe when its order doesn't follow from it.
+ */
+public class DeltaSnapshotStore implements ISnapshotStore {
+  private final int keyframeInterval;
+  private final List<DeltaSnapshot> snapshots;
+  private PersistentShapeMap previous; // content of the last added snapshot
+  private boolean previousOwn; // whether the previous content was built by the store
+  private final ShapeNameTable names = new ShapeNameTable(); // for content not from a photo
+
+  /**
+   * Constructs an empty delta snapshot store.
+   * @param keyframeInterval The number of snapshots between two keyframes, 1 stores every
+   *                         snapshot as a keyframe.
+   * @throws IllegalArgumentException If the interval is not positive.
+   */
+  public DeltaSnapshotStore(int keyframeInterval) {
+    if (keyframeInterval < 1)
+      throw new IllegalArgumentException("Keyframe interval must be positive");
+
+    this.keyframeInterval = keyframeInterval;
+    this.snapshots = new ArrayList<>();
+    this.previous = PersistentShapeMap.empty();
+  }
+
+  /**
+   * Adds a snapshot after the ones already stored, as a keyframe or as a delta from the
+   * previous snapshot.
+   * @param snapshot The snapshot to add.
+   * @throws IllegalArgumentException If the snapshot is null.
+   */
+  @Override
+  public void add(ISnapshot snapshot) {
+    if (snapshot == null)
+      throw new IllegalArgumentException("No snapshot to be stored");
+
+    PersistentShapeMap content = contentOf(snapshot);
+    List<IShape> changed = new ArrayList<>();
+    List<Integer> removed = new ArrayList<>();
+
+    if (snapshots.size() % keyframeInterval == 0 || !content.diff(previous, changed, removed))
+      snapshots.add(DeltaSnapshot.keyframe(snapshot, content));
+    else
+      snapshots.add(DeltaSnapshot.delta(snapshot, snapshots.get(snapshots.size() - 1),
+          changed.toArray(new IShape[0]), removed.stream().mapToInt(Integer::intValue).toArray()));
+
+    previous = content;
+  }
+
+  /**
+   * Gets the number of stored snapshots.
+   * @return The number of snapshots.
+   */
+  @Override
+  public int size() {
+    return snapshots.size();
+  }
+
+  /**
+   * Gets the snapshot at the given position.
+   * @param index The position of the snapshot, starting at 0.
+   * @return The snapshot at that position.
+   */
+  @Override
+  public ISnapshot get(int index) {
+    return snapshots.get(index);
+  }
+
+  /**
+   * Returns an iterator over the stored snapshots.
+   * @return An iterator over the snapshots.
+   */
+  @Override
+  public Iterator<ISnapshot> iterator() {
+    return Collections.<ISnapshot>unmodifiableList(snapshots).iterator();
+  }
+
+  /**
+   * Gets the content of a snapshot as a shape map, without copying when the snapshot was
+   * taken from a {@link Photo}. Other shapes are stored under the IDs of their names in the
+   * table of the store, updating the previous content so that unchanged shapes stay shared.
+   * @param snapshot The snapshot.
+   * @return The content of the snapshot.
+   */
+  private PersistentShapeMap contentOf(ISnapshot snapshot) {
+    if (snapshot instanceof AbstractSnapshot s && s.shapes() instanceof PersistentShapeMap map) {
+      previousOwn = false;
+      return map;
+    }
+
+    List<IShape> shapes = snapshot.getContent();
+    PersistentShapeMap content = previousOwn ? update(previous, shapes) : null;
+    if (content == null) {
+      content = PersistentShapeMap.empty();
+      for (IShape s : shapes)
+        content = content.put(stored(s, names.intern(s.getName())));
+    }
+    previousOwn = true;
+    return content;
+  }
+
+  /**
+   * Updates content built by the store to hold the given shapes.
+   * @return The updated content, or null if its order would differ from that of the shapes.
+   */
+  private PersistentShapeMap update(PersistentShapeMap content, List<IShape> shapes) {
+    BitSet present = new BitSet();
+    for (IShape s : shapes) {
+      int id = names.intern(s.getName());
+      present.set(id);
+      IShape old = content.get(id);
+      if (old == null || old.getType() != s.getType() || !old.equals(s))
+        content = content.put(stored(s, id));
+    }
+
+    List<Integer> gone = new ArrayList<>();
+    for (IShape s : content)
+      if (!present.get(s.getNameId()))
+        gone.add(s.getNameId());
+    for (int id : gone)
+      content = content.remove(id);
+
+    // a shape removed and created again between two snapshots moves to the end of the order
+    Iterator<IShape> order = content.iterator();
+    for (IShape s : shapes)
+      if (!order.next().getName().equals(s.getName()))
+        return null;
+    return content;
+  }
+
+  /**
+   * Gets a shape as stored under the given name ID. Views are not kept.
+   */
+  private static IShape stored(IShape shape, int id) {
+    return shape instanceof Shape && shape.getNameId() == id ? shape : shape.copy(id).freeze();
+  }
+}
@@ -0,0 +1,243 @@
+package shapesphotoalbum.model;
+
+import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.command.TakeSnapshot;
+import shapesphotoalbum.model.shape.IShape;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Represents a Shapes Photo Album model that keeps the log of executed commands instead of
+ * the content of its snapshots.
+ * A copy of the photo is kept as a checkpoint every few commands, and each snapshot only
+ * records its metadata and how many commands had run when it was taken. A snapshot is
+ * rebuilt when it is asked for, by replaying the commands since the closest checkpoint.
+ * The checkpoint interval trades the memory held by the checkpoints against the number of
+ * commands replayed to reach a snapshot. Changes to the photo must go through
+ * {@link #executeCommand(IAction)} so that they are logged.
+ */
+public class EventSourcedAlbumModel implements IModel {
+  private final IPhoto currentState; // current state of the photo album
+  private final int checkpointInterval;
+  private final List<IAction> log; // commands that changed the photo, in order
+  private final List<IPhoto> checkpoints; // state after every checkpointInterval commands
+  private final List<SnapshotInfo> snapshotInfo;
+  private int[] positions; // number of logged commands when each snapshot was taken
+  private final Map<String, Integer> indexOfId; // position of the first snapshot with each ID
+
+  // state reached by the last replay, so that reading snapshots in order replays little
+  private IPhoto replayed;
+  private int replayedPosition = -1;
+
+  /**
+   * Constructs a new event-sourced model starting from an empty photo.
+   * @param checkpointInterval The number of commands between two checkpoints.
+   * @throws IllegalArgumentException if the interval is not positive.
+   */
+  public EventSourcedAlbumModel(int checkpointInterval) {
+    this(new Photo(), checkpointInterval);
+  }
+
+  /**
+   * Constructs a new event-sourced model starting from the given photo.
+   * @param initialState The photo holding the current state, such as a {@link ColumnarPhoto}.
+   * @param checkpointInterval The number of commands between two checkpoints.
+   * @throws IllegalArgumentException if the photo is null or the interval is not positive.
+   */
+  public EventSourcedAlbumModel(IPhoto initialState, int checkpointInterval) {
+    if (initialState == null)
+      throw new IllegalArgumentException("No photo given");
+    if (checkpointInterval < 1)
+      throw new IllegalArgumentException("Checkpoint interval must be positive");
+
+    this.currentState = initialState;
+    this.checkpointInterval = checkpointInterval;
+    this.log = new ArrayList<>();
+    this.checkpoints = new ArrayList<>();
+    this.checkpoints.add(initialState.copy());
+    this.snapshotInfo = new ArrayList<>();
+    this.positions = new int[16];
+    this.indexOfId = new HashMap<>();
+  }
+
+  /**
+   * Executes a given action on the current state of the photo album and logs it.
+   * Snapshot actions are not logged, the snapshot records its position in the log instead.
+   * @param action The action to execute.
+   * @throws IllegalArgumentException if the action is null or fails.
+   */
+  @Override
+  public void executeCommand(IAction action) {
+    if (action == null)
+      throw new IllegalArgumentException("Not a valid action");
+
+    action.execute(this);
+    if (action instanceof TakeSnapshot)
+      return;
+
+    log.add(action);
+    if (log.size() % checkpointInterval == 0)
+      checkpoints.add(currentState.copy());
+  }
+
+  /**
+   * Retrieves the current state of the photo album.
+   * @return The current state.
+   */
+  @Override
+  public IPhoto getCurrentState() {
+    return currentState;
+  }
+
+  /**
+   * Retrieves a list of all snapshots taken in the photo album, rebuilding each of them.
+   * Prefer {@link #getSnapshot(int)} or {@link #getSnapshots(int, int)} for large albums.
+   * @return A read-only list of snapshots.
+   */
+  @Override
+  public List<ISnapshot> getSnapshots() {
+    List<ISnapshot> list = new ArrayList<>(snapshotInfo.size());
+    getSnapshots(0, snapshotInfo.size()).forEachRemaining(list::add);
+    return Collections.unmodifiableList(list);
+  }
+
+  /**
+   * Retrieves the number of snapshots taken in the photo album.
+   * @return The number of snapshots.
+   */
+  @Override
+  public int getSnapshotCount() {
+    return snapshotInfo.size();
+  }
+
+  /**
+   * Retrieves the metadata of the snapshots taken in the photo album, without replaying.
+   * @return A read-only list of snapshot metadata.
+   */
+  @Override
+  public List<SnapshotInfo> getSnapshotInfo() {
+    return Collections.unmodifiableList(snapshotInfo);
+  }
+
+  /**
+   * Retrieves the snapshot at the given position, replaying the commands since the closest
+   * checkpoint before it.
+   * @param index The position of the snapshot, starting at 0.
+   * @return The snapshot at that position.
+   * @throws IndexOutOfBoundsException If there is no snapshot at that position.
+   */
+  @Override
+  public ISnapshot getSnapshot(int index) {
+    Objects.checkIndex(index, snapshotInfo.size());
+    SnapshotInfo info = snapshotInfo.get(index);
+
+    ISnapshot taken = replayTo(positions[index]).takeSnapshot(info.getDescription());
+    Iterable<IShape> content =
+        taken instanceof AbstractSnapshot s ? s.shapes() : taken.getContent();
+    return Snapshot.restore(info.getId(), info.getTimestamp(), info.getDescription(), content);
+  }
+
+  /**
+   * Retrieves the snapshot with the given ID.
+   * @param id The ID of the snapshot.
+   * @return The first snapshot with that ID.
+   * @throws IllegalArgumentException If there is no snapshot with that ID.
+   */
+  @Override
+  public ISnapshot getSnapshot(String id) {
+    Integer index = indexOfId.get(id);
+    if (index == null)
+      throw new IllegalArgumentException("Snapshot doesn't exist");
+
+    return getSnapshot(index);
+  }
+
+  /**
+   * Retrieves the snapshots in the given range of positions, rebuilding each one as it is
+   * reached. Going through snapshots in order only replays the commands between them.
+   * @param from The position of the first snapshot, inclusive.
+   * @param to The position after the last snapshot, exclusive.
+   * @return An iterator over the snapshots in the range.
+   * @throws IndexOutOfBoundsException If the range is out of bounds.
+   */
+  @Override
+  public Iterator<ISnapshot> getSnapshots(int from, int to) {
+    Objects.checkFromToIndex(from, to, snapshotInfo.size());
+    return new Iterator<>() {
+      private int next = from;
+
+      @Override
+      public boolean hasNext() {
+        return next < to;
+      }
+
+      @Override
+      public ISnapshot next() {
+        if (next >= to)
+          throw new NoSuchElementException();
+        return getSnapshot(next++);
+      }
+    };
+  }
+
+  /**
+   * Records a snapshot of the current state of the photo album.
+   * Only the metadata and the position in the command log are kept.
+   * @param description The text description of the snapshot.
+   * @throws IllegalStateException If there is no content to be taken snapshot of.
+   */
+  @Override
+  public void takeSnapshot(String description) {
+    ISnapshot snapshot = currentState.takeSnapshot(description);
+    int index = snapshotInfo.size();
+
+    if (index == positions.length)
+      positions = Arrays.copyOf(positions, index * 2);
+    positions[index] = log.size();
+    snapshotInfo.add(new SnapshotInfo(index, snapshot));
+    indexOfId.putIfAbsent(snapshot.getId(), index);
+  }
+
+  /**
+   * Gets the state of the photo after the given number of logged commands.
+   * Starts from the closest checkpoint, or from the last replayed state when it is closer.
+   * @param position The number of commands to apply.
+   * @return The state after those commands, which is only valid until the next replay.
+   */
+  private IPhoto replayTo(int position) {
+    int checkpoint = position / checkpointInterval;
+    int start = checkpoint * checkpointInterval;
+
+    if (replayed == null || replayedPosition > position || replayedPosition < start) {
+      replayed = checkpoints.get(checkpoint).copy();
+      replayedPosition = start;
+    }
+
+    // replay on a scratch model so that commands find the state they expect
+    IModel scratch = new ShapesPhotoAlbumModel(replayed, new InMemorySnapshotStore());
+    for (; replayedPosition < position; replayedPosition++)
+      log.get(replayedPosition).execute(scratch);
+    return replayed;
+  }
+
+  /**
+   * Returns a string representation of the photo album's snapshots.
+   * @return A string representation of the snapshots.
+   */
+  @Override
+  public String toString() {
+    StringBuilder string = new StringBuilder();
+    for (Iterator<ISnapshot> it = getSnapshots(0, snapshotInfo.size()); it.hasNext(); )
+      string.append(it.next().toString()).append("\n");
+
+    return string.toString();
+  }
+}
@@ -2,12 +2,15 @@ package shapesphotoalbum.model;
 
 import shapesphotoalbum.model.command.IAction;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * Represents the interface for a Shapes Photo Album.
  * Defines methods to execute commands, retrieve the current state,
- * get snapshots, and take snapshots.
+ * get snapshots, and take snapshots. Snapshots can also be read one at a time or through
+ * their metadata alone, so that large albums never have to be listed in full.
  */
 public interface IModel {
   /**
@@ -16,6 +19,35 @@ public interface IModel {
    */
   void executeCommand(IAction action);
 
+  /**
+   * Executes a block of actions on the photo album, such as the commands between two
+   * snapshots. An action that fails is skipped and the rest of the block is still executed;
+   * all the failures are then reported together.
+   * @param actions The actions to execute, in order.
+   * @throws IllegalArgumentException if the list is null or any action fails, with the
+   *                                  failure of each action suppressed by it.
+   */
+  default void executeBatch(List<IAction> actions) {
+    if (actions == null)
+      throw new IllegalArgumentException("No actions given");
+
+    List<RuntimeException> errors = new ArrayList<>();
+    for (int i = 0; i < actions.size(); i++) {
+      try {
+        executeCommand(actions.get(i));
+      }
+      catch (RuntimeException e) {
+        errors.add(new IllegalArgumentException("Command " + (i + 1) + ": " + e.getMessage(), e));
+      }
+    }
+    if (!errors.isEmpty()) {
+      IllegalArgumentException failure = new IllegalArgumentException(errors.size() + " of "
+          + actions.size() + " commands failed, first " + errors.get(0).getMessage());
+      errors.forEach(failure::addSuppressed);
+      throw failure;
+    }
+  }
+
   /**
    * Retrieves the current state of the photo album.
    * @return The current state.
@@ -28,6 +60,44 @@ public interface IModel {
    */
   List<ISnapshot> getSnapshots();
 
+  /**
+   * Retrieves the number of snapshots taken in the photo album.
+   * @return The number of snapshots.
+   */
+  int getSnapshotCount();
+
+  /**
+   * Retrieves the metadata of the snapshots taken in the photo album, in order, without
+   * their content.
+   * @return A list of snapshot metadata.
+   */
+  List<SnapshotInfo> getSnapshotInfo();
+
+  /**
+   * Retrieves the snapshot at the given position.
+   * @param index The position of the snapshot, starting at 0.
+   * @return The snapshot at that position.
+   * @throws IndexOutOfBoundsException If there is no snapshot at that position.
+   */
+  ISnapshot getSnapshot(int index);
+
+  /**
+   * Retrieves the snapshot with the given ID.
+   * @param id The ID of the snapshot.
+   * @return The first snapshot with that ID.
+   * @throws IllegalArgumentException If there is no snapshot with that ID.
+   */
+  ISnapshot getSnapshot(String id);
+
+  /**
+   * Retrieves the snapshots in the given range of positions, one at a time.
+   * @param from The position of the first snapshot, inclusive.
+   * @param to The position after the last snapshot, exclusive.
+   * @return An iterator over the snapshots in the range.
+   * @throws IndexOutOfBoundsException If the range is out of bounds.
+   */
+  Iterator<ISnapshot> getSnapshots(int from, int to);
+
   /**
    * Takes a snapshot of the current state of the photo album.
    */
@@ -1,11 +1,21 @@
 package shapesphotoalbum.model;
 
 import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 
 /**
  * Represents a photo in the photo album.
+ * Shapes can be referred to by name, or by the ID of their name in the {@link ShapeNameTable}
+ * of the photo, which avoids looking the name up.
  */
 public interface IPhoto {
+  /**
+   * Gets the table the names of the shapes of the photo are interned into. Copies of the
+   * photo share it.
+   * @return The name table of the photo.
+   */
+  ShapeNameTable getNameTable();
+
   /**
    * Adds a shape to the photo.
    * @param shape The shape to add.
@@ -43,6 +53,37 @@ public interface IPhoto {
    */
   void removeShape(String shapeName);
 
+  /**
+   * Moves a shape to the specified position.
+   * @param shapeId The ID of the name of the shape to move.
+   * @param x The x-coordinate of the new position.
+   * @param y The y-coordinate of the new position.
+   */
+  void moveShape(int shapeId, int x, int y);
+
+  /**
+   * Changes the color of a shape.
+   * @param shapeId The ID of the name of the shape to change color for.
+   * @param R The red component of the new color.
+   * @param G The green component of the new color.
+   * @param B The blue component of the new color.
+   */
+  void changeColor(int shapeId, int R, int G, int B);
+
+  /**
+   * Resizes a shape.
+   * @param shapeId The ID of the name of the shape to be resized.
+   * @param h The horizontal dimension of the new size.
+   * @param v The vertical dimension of the new size.
+   */
+  void resizeShape(int shapeId, int h, int v);
+
+  /**
+   * Removes a shape from the photo.
+   * @param shapeId The ID of the name of the shape to be removed.
+   */
+  void removeShape(int shapeId);
+
   /**
    * Takes a snapshot of the current state of the photo.
    * @return A snapshot of the photo.
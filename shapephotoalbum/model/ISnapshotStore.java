@@ -0,0 +1,28 @@
+package shapesphotoalbum.model;
+
+/**
+ * Represents the storage of the snapshots taken in a photo album.
+ * Implementations decide how snapshot content is kept, snapshots are returned in the
+ * order they were added.
+ */
+public interface ISnapshotStore extends Iterable<ISnapshot> {
+  /**
+   * Adds a snapshot after the ones already stored.
+   * @param snapshot The snapshot to add.
+   */
+  void add(ISnapshot snapshot);
+
+  /**
+   * Gets the number of stored snapshots.
+   * @return The number of snapshots.
+   */
+  int size();
+
+  /**
+   * Gets the snapshot at the given position.
+   * @param index The position of the snapshot, starting at 0.
+   * @return The snapshot at that position.
+   * @throws IndexOutOfBoundsException If there is no snapshot at that position.
+   */
+  ISnapshot get(int index);
+}
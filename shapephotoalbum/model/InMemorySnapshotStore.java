@@ -0,0 +1,61 @@
+package shapesphotoalbum.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Represents a snapshot store that keeps every snapshot as it was taken.
+ */
+public class InMemorySnapshotStore implements ISnapshotStore {
+  private final List<ISnapshot> snapshots;
+
+  /**
+   * Constructs an empty in-memory snapshot store.
+   */
+  public InMemorySnapshotStore() {
+    snapshots = new ArrayList<>();
+  }
+
+  /**
+   * Adds a snapshot after the ones already stored.
+   * @param snapshot The snapshot to add.
+   * @throws IllegalArgumentException If the snapshot is null.
+   */
+  @Override
+  public void add(ISnapshot snapshot) {
+    if (snapshot == null)
+      throw new IllegalArgumentException("No snapshot to be stored");
+
+    snapshots.add(snapshot);
+  }
+
+  /**
+   * Gets the number of stored snapshots.
+   * @return The number of snapshots.
+   */
+  @Override
+  public int size() {
+    return snapshots.size();
+  }
+
+  /**
+   * Gets the snapshot at the given position.
+   * @param index The position of the snapshot, starting at 0.
+   * @return The snapshot at that position.
+   */
+  @Override
+  public ISnapshot get(int index) {
+    return snapshots.get(index);
+  }
+
+  /**
+   * Returns an iterator over the stored snapshots.
+   * @return An iterator over the snapshots.
+   */
+  @Override
+  public Iterator<ISnapshot> iterator() {
+    return Collections.unmodifiableList(snapshots).iterator();
+  }
+}
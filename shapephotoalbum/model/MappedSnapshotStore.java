@@ -0,0 +1,284 @@
+package shapesphotoalbum.model;
+
+import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.ShapeNameTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Represents a snapshot store that keeps its snapshots in an append-only file instead of
+ * the heap.
+ * Each snapshot is encoded and appended to the file as soon as it is added, as its length
+ * followed by a {@link SnapshotCodec} record, and only its offset is kept in memory. Reads
+ * go through memory-mapped windows of the file, and the snapshots handed out decode their
+ * shapes from the mapped bytes each time they are asked for, so the heap used does not grow
+ * with the number or size of the snapshots.
+ */
+public class MappedSnapshotStore implements ISnapshotStore, Closeable {
+  private static final long WINDOW_SIZE = 1L << 30; // most bytes mapped at once
+
+  private final FileChannel channel;
+  private long end; // length of the file
+  private long[] offsets; // offset of each record, after its length
+  private int[] lengths; // length of each record
+  private int[] windowOf; // window holding each record
+  private int size;
+
+  // a record always lies within one window, a window starts at a record
+  private final List<Long> windowStarts;
+  private final List<MappedByteBuffer> windows; // null until first read, remapped as it grows
+  private final ShapeNameTable names = new ShapeNameTable(); // names of the decoded shapes
+
+  /**
+   * Constructs a store writing to a new archive file, replacing the file if it exists.
+   * @param file The path of the archive file.
+   * @throws UncheckedIOException If the file can't be created.
+   */
+  public MappedSnapshotStore(Path file) {
+    this(file, true);
+  }
+
+  private MappedSnapshotStore(Path file, boolean replace) {
+    if (file == null)
+      throw new IllegalArgumentException("No archive file given");
+
+    try {
+      this.channel = replace
+          ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+              StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+          : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't open snapshot archive " + file, e);
+    }
+    this.offsets = new long[16];
+    this.lengths = new int[16];
+    this.windowOf = new int[16];
+    this.windowStarts = new ArrayList<>();
+    this.windows = new ArrayList<>();
+  }
+
+  /**
+   * Opens an existing archive file, rebuilding the offset index from the record lengths.
+   * Snapshots added afterwards are appended to the file.
+   * @param file The path of the archive file.
+   * @return The store holding the snapshots of the archive.
+   * @throws UncheckedIOException If the file can't be read.
+   * @throws IllegalStateException If the file is not a complete archive.
+   */
+  public static MappedSnapshotStore open(Path file) {
+    MappedSnapshotStore store = new MappedSnapshotStore(file, false);
+    try {
+      long length = store.channel.size();
+      ByteBuffer prefix = ByteBuffer.allocate(Integer.BYTES);
+      while (store.end < length) {
+        prefix.clear();
+        while (prefix.hasRemaining())
+          if (store.channel.read(prefix, store.end + prefix.position()) < 0)
+            throw new IllegalStateException("Incomplete snapshot archive");
+
+        int recordLength = prefix.getInt(0);
+        if (recordLength < 0 || store.end + Integer.BYTES + recordLength > length)
+          throw new IllegalStateException("Incomplete snapshot archive");
+        store.index(recordLength);
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't read snapshot archive " + file, e);
+    }
+    return store;
+  }
+
+  /**
+   * Encodes a snapshot and appends it to the archive file.
+   * @param snapshot The snapshot to add.
+   * @throws IllegalArgumentException If the snapshot is null.
+   * @throws UncheckedIOException If the snapshot can't be written.
+   */
+  @Override
+  public void add(ISnapshot snapshot) {
+    if (snapshot == null)
+      throw new IllegalArgumentException("No snapshot to be stored");
+
+    byte[] record = SnapshotCodec.encode(snapshot);
+    ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + record.length);
+    buffer.putInt(record.length).put(record).flip();
+    try {
+      for (long position = end; buffer.hasRemaining(); )
+        position += channel.write(buffer, position);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't write to snapshot archive", e);
+    }
+    index(record.length);
+  }
+
+  /**
+   * Records the offset and window of the record that starts at the end of the file.
+   * @param recordLength The length of the record, without its length prefix.
+   */
+  private void index(int recordLength) {
+    if (size == offsets.length) {
+      offsets = Arrays.copyOf(offsets, size * 2);
+      lengths = Arrays.copyOf(lengths, size * 2);
+      windowOf = Arrays.copyOf(windowOf, size * 2);
+    }
+
+    long recordEnd = end + Integer.BYTES + recordLength;
+    if (windowStarts.isEmpty() || recordEnd - windowStarts.get(windowStarts.size() - 1) > WINDOW_SIZE) {
+      windowStarts.add(end);
+      windows.add(null);
+    }
+    offsets[size] = end + Integer.BYTES;
+    lengths[size] = recordLength;
+    windowOf[size] = windowStarts.size() - 1;
+    size++;
+    end = recordEnd;
+  }
+
+  /**
+   * Gets the number of stored snapshots.
+   * @return The number of snapshots.
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the snapshot at the given position, decoding only its metadata.
+   * @param index The position of the snapshot, starting at 0.
+   * @return The snapshot at that position, which decodes its shapes when they are read.
+   * @throws IndexOutOfBoundsException If there is no snapshot at that position.
+   */
+  @Override
+  public ISnapshot get(int index) {
+    Objects.checkIndex(index, size);
+    return new MappedSnapshot(record(index), names);
+  }
+
+  /**
+   * Gets the mapped bytes of a record, mapping its window again if the window has grown.
+   * @param index The position of the record.
+   * @return A read-only buffer holding exactly the record.
+   */
+  private ByteBuffer record(int index) {
+    int window = windowOf[index];
+    long start = windowStarts.get(window);
+    int from = (int) (offsets[index] - start);
+    MappedByteBuffer mapped = windows.get(window);
+
+    if (mapped == null || mapped.capacity() < from + lengths[index]) {
+      long mapEnd = Math.min(end, start + WINDOW_SIZE);
+      try {
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, mapEnd - start);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException("Can't map snapshot archive", e);
+      }
+      windows.set(window, mapped);
+    }
+    return mapped.slice(from, lengths[index]);
+  }
+
+  /**
+   * Returns an iterator over the stored snapshots.
+   * @return An iterator over the snapshots.
+   */
+  @Override
+  public Iterator<ISnapshot> iterator() {
+    return new Iterator<>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public ISnapshot next() {
+        if (next >= size)
+          throw new NoSuchElementException();
+        return get(next++);
+      }
+    };
+  }
+
+  /**
+   * Closes the archive file. Snapshots already handed out can still be read.
+   * @throws IOException If the file can't be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Represents a snapshot whose shapes stay in the mapped archive until they are read.
+   */
+  private static final class MappedSnapshot extends AbstractSnapshot {
+    private final ByteBuffer record;
+    private final String id;
+    private final String timestamp;
+    private final String description;
+    private final int shapesAt; // position of the shapes in the record
+    private final ShapeNameTable names;
+
+    private MappedSnapshot(ByteBuffer record, ShapeNameTable names) {
+      this.record = record;
+      this.names = names;
+      ByteBuffer in = record.duplicate();
+      String[] metadata = SnapshotCodec.readMetadata(in);
+      this.id = metadata[0];
+      this.timestamp = metadata[1];
+      this.description = metadata[2];
+      this.shapesAt = in.position();
+    }
+
+    @Override
+    public String getId() {
+      return id;
+    }
+
+    @Override
+    public String getTimestamp() {
+      return timestamp;
+    }
+
+    @Override
+    public String getDescription() {
+      return description;
+    }
+
+    /**
+     * Decodes the shapes of the snapshot from the mapped record.
+     * @return New read-only shapes, which are not kept by the snapshot.
+     */
+    @Override
+    protected Iterable<IShape> shapes() {
+      return SnapshotCodec.readShapes(record.duplicate().position(shapesAt), names);
+    }
+
+    /**
+     * Creates a copy of the snapshot, sharing the mapped record.
+     * @return A copy of the snapshot.
+     */
+    @Override
+    public ISnapshot copy() {
+      return new MappedSnapshot(record, names);
+    }
+  }
+}
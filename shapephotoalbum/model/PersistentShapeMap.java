@@ -0,0 +1,486 @@
+package shapesphotoalbum.model;
+
+import shapesphotoalbum.model.shape.IShape;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents a persistent map from shape name IDs to shapes that keeps insertion order.
+ * A map is never modified once built: every update returns a new map that shares all
+ * untouched structure with the old one, so keeping an older version alive only costs
+ * the nodes that changed since.
+ * Name IDs are indexed by a hash array mapped trie (HAMT) that points at insertion slots,
+ * and the shapes are stored by slot in a 32-way persistent vector.
+ * Maps updated one after the other form a lineage, numbered in order. Updating a map that is
+ * not the latest of its lineage, such as the map of a photo after one of its copies changed,
+ * starts a new lineage, so two maps of the same lineage are always one an ancestor of the other.
+ */
+public final class PersistentShapeMap implements Iterable<IShape> {
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+  private static final int COMPACT_THRESHOLD = 64; // fewest slots worth compacting
+  private static final Object[] EMPTY_NODE = new Object[0];
+  private static final PersistentShapeMap EMPTY =
+      new PersistentShapeMap(null, 0, null, EMPTY_NODE, 0, 0, 0);
+
+  private final AtomicLong lineage; // latest version of the lineage, null for the empty map
+  private final long version; // position of the map in its lineage
+  private final Object index; // HAMT from name ID to slot: a Branch, Leaf or null
+  private final Object[] root; // root of the slot vector, removed slots hold null
+  private final int shift; // level of the root node in the slot vector
+  private final int slots; // number of slots handed out so far
+  private final int size; // number of shapes in the map
+  private volatile int[] denseSlots; // slot of each shape by position, built when first needed
+
+  private PersistentShapeMap(AtomicLong lineage, long version, Object index, Object[] root,
+                             int shift, int slots, int size) {
+    this.lineage = lineage;
+    this.version = version;
+    this.index = index;
+    this.root = root;
+    this.shift = shift;
+    this.slots = slots;
+    this.size = size;
+  }
+
+  /**
+   * Returns the empty map.
+   * @return The empty map.
+   */
+  public static PersistentShapeMap empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Builds a map holding the given shapes in order.
+   * A later shape replaces an earlier one with the same name.
+   * @param shapes The shapes to store.
+   * @return The map of the shapes.
+   */
+  public static PersistentShapeMap of(Iterable<IShape> shapes) {
+    PersistentShapeMap map = EMPTY;
+    for (IShape s : shapes)
+      map = map.put(s);
+    return map;
+  }
+
+  /**
+   * Gets the number of shapes in the map.
+   * @return The number of shapes.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks if the map contains no shapes.
+   * @return True if the map is empty, false otherwise.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Checks if a shape with the given name is in the map.
+   * @param nameId The ID of the name of the shape.
+   * @return True if the shape is in the map, false otherwise.
+   */
+  public boolean containsKey(int nameId) {
+    return find(index, hash(nameId), nameId, 0) >= 0;
+  }
+
+  /**
+   * Gets the shape with the given name.
+   * @param nameId The ID of the name of the shape.
+   * @return The shape, or null if there is no shape with that name.
+   */
+  public IShape get(int nameId) {
+    int slot = find(index, hash(nameId), nameId, 0);
+    return slot < 0 ? null : slotAt(slot);
+  }
+
+  /**
+   * Returns a map with the given shape stored under its name.
+   * A shape replacing one with the same name keeps the old shape's position in the order,
+   * a new name is added at the end.
+   * @param shape The shape to store.
+   * @return The updated map.
+   * @throws IllegalArgumentException If the shape is null.
+   */
+  public PersistentShapeMap put(IShape shape) {
+    if (shape == null)
+      throw new IllegalArgumentException("No shape to be stored");
+
+    int nameId = shape.getNameId();
+    int hash = hash(nameId);
+    int slot = find(index, hash, nameId, 0);
+    if (slot >= 0)
+      return update(index, assoc(root, shift, slot, shape), shift, slots, size);
+
+    Object[] newRoot = root;
+    int newShift = shift;
+    if (slots == 1 << (shift + BITS)) { // vector is full, grow by one level
+      newRoot = new Object[] {root};
+      newShift += BITS;
+    }
+    newRoot = assoc(newRoot, newShift, slots, shape);
+    Object newIndex = insert(index, 0, new Leaf(hash, nameId, slots));
+    return update(newIndex, newRoot, newShift, slots + 1, size + 1);
+  }
+
+  /**
+   * Returns a map without the shape with the given name.
+   * @param nameId The ID of the name of the shape to remove.
+   * @return The updated map, or this map if there is no shape with that name.
+   */
+  public PersistentShapeMap remove(int nameId) {
+    int hash = hash(nameId);
+    int slot = find(index, hash, nameId, 0);
+    if (slot < 0)
+      return this;
+
+    PersistentShapeMap removed =
+        update(delete(index, 0, hash), assoc(root, shift, slot, null), shift, slots, size - 1);
+
+    // rebuild once most of the slots are empty so iteration stays proportional to size
+    if (removed.slots > COMPACT_THRESHOLD && removed.slots > 2 * removed.size)
+      return removed.compact();
+    return removed;
+  }
+
+  /**
+   * Builds the map following this one. It continues the lineage of this map if this map is
+   * the latest of it, and starts a new lineage otherwise.
+   * @return The new map.
+   */
+  private PersistentShapeMap update(Object index, Object[] root, int shift, int slots, int size) {
+    if (lineage != null && lineage.compareAndSet(version, version + 1))
+      return new PersistentShapeMap(lineage, version + 1, index, root, shift, slots, size);
+    return new PersistentShapeMap(new AtomicLong(), 0, index, root, shift, slots, size);
+  }
+
+  /**
+   * Collects the differences between an earlier version of this map and this map.
+   * Applying the removals and then the changes, in order, to the earlier version gives a map
+   * with the same shapes in the same order as this one. Only the parts of the maps that are
+   * not shared are visited, so the cost follows the number of edits in between.
+   * @param previous The earlier version of this map.
+   * @param changed Receives the added and edited shapes, in order.
+   * @param removed Receives the name IDs of the removed shapes.
+   * @return False if the earlier map can't be shown to be an ancestor of this one (for example
+   *         it is a sibling branched from a copy, or the slots were compacted in between) and
+   *         nothing was collected, true otherwise.
+   */
+  boolean diff(PersistentShapeMap previous, List<IShape> changed, List<Integer> removed) {
+    if (previous.isEmpty()) {
+      for (IShape s : this)
+        changed.add(s);
+      return true;
+    }
+    if (lineage == null || previous.lineage != lineage || previous.version > version)
+      return false;
+
+    Object[] old = previous.root;
+    for (int level = previous.shift; level < shift; level += BITS)
+      old = new Object[] {old};
+    diff(old, root, shift, changed, removed);
+    return true;
+  }
+
+  /**
+   * Collects the differences between two versions of a vector node.
+   */
+  private static void diff(Object[] oldNode, Object[] newNode, int level, List<IShape> changed,
+                           List<Integer> removed) {
+    if (oldNode == newNode)
+      return;
+
+    for (int i = 0; i < newNode.length; i++) {
+      Object oldChild = i < oldNode.length ? oldNode[i] : null;
+      Object newChild = newNode[i];
+      if (oldChild == newChild)
+        continue;
+
+      if (level > 0)
+        diff(oldChild == null ? EMPTY_NODE : (Object[]) oldChild, (Object[]) newChild,
+            level - BITS, changed, removed);
+      else if (newChild != null)
+        changed.add((IShape) newChild);
+      else
+        removed.add(((IShape) oldChild).getNameId());
+    }
+  }
+
+  /**
+   * Copies the shapes of the map into a new list in insertion order.
+   * The shapes themselves are not copied.
+   * @return A list of the shapes in the map.
+   */
+  public List<IShape> toList() {
+    List<IShape> list = new ArrayList<>(size);
+    for (IShape s : this)
+      list.add(s);
+    return list;
+  }
+
+  /**
+   * Gets a read-only list view of the shapes in insertion order, without copying them.
+   * A shape is read by position with a walk down the slot vector. Once shapes were removed,
+   * the slots still in use are listed the first time a shape is read by position.
+   * @return A list view of the shapes.
+   */
+  public List<IShape> asList() {
+    return new ListView();
+  }
+
+  /**
+   * Returns an iterator over the shapes of the map in insertion order.
+   * @return An iterator over the shapes.
+   */
+  @Override
+  public Iterator<IShape> iterator() {
+    return new Iterator<>() {
+      private int next = advance(0);
+
+      private int advance(int from) {
+        while (from < slots && slotAt(from) == null)
+          from++;
+        return from;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next < slots;
+      }
+
+      @Override
+      public IShape next() {
+        if (next >= slots)
+          throw new NoSuchElementException();
+        IShape shape = slotAt(next);
+        next = advance(next + 1);
+        return shape;
+      }
+    };
+  }
+
+  /**
+   * Lists the slots holding a shape, in order. The map never changes, so a race only builds
+   * the same array twice.
+   * @return The slot of each shape by position.
+   */
+  private int[] denseSlots() {
+    int[] dense = denseSlots;
+    if (dense == null) {
+      dense = new int[size];
+      for (int slot = 0, i = 0; slot < slots; slot++)
+        if (slotAt(slot) != null)
+          dense[i++] = slot;
+      denseSlots = dense;
+    }
+    return dense;
+  }
+
+  /**
+   * Represents a read-only list view of the shapes of the map.
+   */
+  private final class ListView extends AbstractList<IShape> implements RandomAccess {
+    @Override
+    public IShape get(int index) {
+      Objects.checkIndex(index, size);
+      return slotAt(slots == size ? index : denseSlots()[index]);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Iterator<IShape> iterator() {
+      return PersistentShapeMap.this.iterator();
+    }
+  }
+
+  /**
+   * Rebuilds the map without the slots of removed shapes.
+   * @return An equivalent map with densely packed slots.
+   */
+  private PersistentShapeMap compact() {
+    return of(this);
+  }
+
+  /**
+   * Gets the shape stored in the given slot of the vector.
+   * @param slot The slot to read.
+   * @return The shape, or null if the slot was removed.
+   */
+  private IShape slotAt(int slot) {
+    Object[] node = root;
+    for (int level = shift; level > 0; level -= BITS)
+      node = (Object[]) node[(slot >>> level) & MASK];
+    return (IShape) node[slot & MASK];
+  }
+
+  /**
+   * Copies the path to a slot of the vector and stores a value in it.
+   * @param node The node at the given level.
+   * @param level The level of the node.
+   * @param slot The slot to write.
+   * @param value The value to store.
+   * @return The copied node.
+   */
+  private static Object[] assoc(Object[] node, int level, int slot, Object value) {
+    int i = (slot >>> level) & MASK;
+    Object[] copy = Arrays.copyOf(node, Math.max(node.length, i + 1));
+
+    if (level == 0)
+      copy[i] = value;
+    else
+      copy[i] = assoc(copy[i] == null ? EMPTY_NODE : (Object[]) copy[i], level - BITS, slot, value);
+    return copy;
+  }
+
+  /**
+   * Spreads a name ID over the bits used by the trie.
+   * Multiplying by an odd constant is one-to-one, so different IDs never share a hash.
+   * @param nameId The name ID to hash.
+   * @return The spread hash.
+   */
+  private static int hash(int nameId) {
+    int h = nameId * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Gets the position of a hash at the given trie level.
+   */
+  private static int fragment(int hash, int shift) {
+    return (hash >>> shift) & MASK;
+  }
+
+  /**
+   * Looks up the slot of a name in the trie.
+   * @return The slot, or -1 if the name is not in the trie.
+   */
+  private static int find(Object node, int hash, int nameId, int shift) {
+    while (node instanceof Branch branch) {
+      int bit = 1 << fragment(hash, shift);
+      if ((branch.bitmap & bit) == 0)
+        return -1;
+      node = branch.children[Integer.bitCount(branch.bitmap & (bit - 1))];
+      shift += BITS;
+    }
+
+    if (node instanceof Leaf leaf && leaf.nameId == nameId)
+      return leaf.slot;
+    return -1;
+  }
+
+  /**
+   * Inserts a leaf for a name that is not in the trie yet.
+   * @return The new trie node.
+   */
+  private static Object insert(Object node, int shift, Leaf leaf) {
+    if (node == null)
+      return leaf;
+    if (node instanceof Leaf existing)
+      return merge(existing, leaf, shift);
+
+    Branch branch = (Branch) node;
+    int bit = 1 << fragment(leaf.hash, shift);
+    int i = Integer.bitCount(branch.bitmap & (bit - 1));
+    if ((branch.bitmap & bit) != 0) {
+      Object[] children = branch.children.clone();
+      children[i] = insert(children[i], shift + BITS, leaf);
+      return new Branch(branch.bitmap, children);
+    }
+
+    Object[] children = new Object[branch.children.length + 1];
+    System.arraycopy(branch.children, 0, children, 0, i);
+    children[i] = leaf;
+    System.arraycopy(branch.children, i, children, i + 1, branch.children.length - i);
+    return new Branch(branch.bitmap | bit, children);
+  }
+
+  /**
+   * Builds the branches needed to hold two leaves, whose hashes always differ.
+   * @return The new trie node.
+   */
+  private static Object merge(Leaf existing, Leaf leaf, int shift) {
+    int a = fragment(existing.hash, shift);
+    int b = fragment(leaf.hash, shift);
+    if (a == b)
+      return new Branch(1 << a, new Object[] {merge(existing, leaf, shift + BITS)});
+    return new Branch((1 << a) | (1 << b),
+        a < b ? new Object[] {existing, leaf} : new Object[] {leaf, existing});
+  }
+
+  /**
+   * Deletes a name that is known to be in the trie.
+   * @return The new trie node, or null if nothing is left.
+   */
+  private static Object delete(Object node, int shift, int hash) {
+    if (node instanceof Leaf)
+      return null;
+
+    Branch branch = (Branch) node;
+    int bit = 1 << fragment(hash, shift);
+    int i = Integer.bitCount(branch.bitmap & (bit - 1));
+    Object child = delete(branch.children[i], shift + BITS, hash);
+
+    if (child != null) {
+      if (branch.children.length == 1 && child instanceof Leaf)
+        return child; // a lone leaf can sit higher up, lookups compare the full ID
+      Object[] children = branch.children.clone();
+      children[i] = child;
+      return new Branch(branch.bitmap, children);
+    }
+
+    if (branch.children.length == 1)
+      return null;
+    if (branch.children.length == 2 && branch.children[1 - i] instanceof Leaf)
+      return branch.children[1 - i];
+
+    Object[] children = new Object[branch.children.length - 1];
+    System.arraycopy(branch.children, 0, children, 0, i);
+    System.arraycopy(branch.children, i + 1, children, i, children.length - i);
+    return new Branch(branch.bitmap & ~bit, children);
+  }
+
+  /**
+   * Trie node holding one name ID and its slot.
+   */
+  private static final class Leaf {
+    final int hash;
+    final int nameId;
+    final int slot;
+
+    Leaf(int hash, int nameId, int slot) {
+      this.hash = hash;
+      this.nameId = nameId;
+      this.slot = slot;
+    }
+  }
+
+  /**
+   * Trie node with up to 32 children, present positions are marked in the bitmap.
+   */
+  private static final class Branch {
+    final int bitmap;
+    final Object[] children;
+
+    Branch(int bitmap, Object[] children) {
+      this.bitmap = bitmap;
+      this.children = children;
+    }
+  }
+}
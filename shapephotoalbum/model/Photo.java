@@ -1,26 +1,27 @@
 package shapesphotoalbum.model;
 
 import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
 /**
  * Represents a photo in the photo album containing shapes.
+ * Shapes are kept in a persistent map and are frozen once stored: an edit stores an edited
+ * copy of the shape instead. Copies of the photo and snapshots taken from it
+ * can therefore share the map instead of copying every shape.
+ * Shapes are stored under the ID of their name in the name table of the photo.
  */
 public class Photo implements IPhoto {
-  Map<String, IShape> content;
+  PersistentShapeMap content;
+  private final ShapeNameTable names;
 
   /**
-   * Constructs a new photo.
+   * Constructs a new photo with a name table of its own.
    */
   public Photo() {
-    content= new LinkedHashMap<>();
+    content = PersistentShapeMap.empty();
+    names = new ShapeNameTable();
   }
 
   /**
@@ -28,10 +29,23 @@ public class Photo implements IPhoto {
    * @param original The original photo to copy.
    */
   public Photo(Photo original) {
-    if (original == null)
-      this.content = new LinkedHashMap<>();
-    else
-      this.content = new LinkedHashMap<>(original.content);
+    if (original == null) {
+      this.content = PersistentShapeMap.empty();
+      this.names = new ShapeNameTable();
+    }
+    else {
+      this.content = original.content;
+      this.names = original.names;
+    }
+  }
+
+  /**
+   * Gets the table the names of the shapes of the photo are interned into.
+   * @return The name table of the photo.
+   */
+  @Override
+  public ShapeNameTable getNameTable() {
+    return names;
   }
 
   /**
@@ -43,10 +57,11 @@ public class Photo implements IPhoto {
   public void addShape(IShape shape) {
     if (shape == null)
       throw new IllegalArgumentException("No shape to be added");
-    if (content.containsKey(shape.getName()))
+    int id = names.intern(shape.getName());
+    if (content.containsKey(id))
       throw new IllegalArgumentException("Shape name is already taken, please select another name");
 
-    content.put(shape.getName(), shape);
+    content = content.put(shape.copy(id).freeze());
   }
 
   /**
@@ -58,10 +73,25 @@ public class Photo implements IPhoto {
    */
   @Override
   public void moveShape(String shapeName, int x, int y) {
-    if (shapeName == null || !content.containsKey(shapeName))
+    moveShape(names.find(shapeName), x, y);
+  }
+
+  /**
+   * Moves a shape to the specified position.
+   * @param shapeId The ID of the name of the shape to move.
+   * @param x The x-coordinate of the new position.
+   * @param y The y-coordinate of the new position.
+   * @throws IllegalArgumentException If the shape to be moved doesn't exist.
+   */
+  @Override
+  public void moveShape(int shapeId, int x, int y) {
+    IShape shape = content.get(shapeId);
+    if (shape == null)
       throw new IllegalArgumentException("Shape to be moved doesn't exist");
 
-    content.get(shapeName).getPosition().setPosition(x, y);
+    IShape moved = shape.copy();
+    moved.getPosition().setPosition(x, y);
+    content = content.put(moved.freeze());
   }
 
   /**
@@ -74,17 +104,33 @@ public class Photo implements IPhoto {
    */
   @Override
   public void changeColor(String shapeName, int R, int G, int B) {
+    changeColor(names.find(shapeName), R, G, B);
+  }
+
+  /**
+   * Changes the color of a shape.
+   * @param shapeId The ID of the name of the shape to change color for.
+   * @param R The red component of the new color.
+   * @param G The green component of the new color.
+   * @param B The blue component of the new color.
+   * @throws IllegalArgumentException If the shape to change color for doesn't exist.
+   */
+  @Override
+  public void changeColor(int shapeId, int R, int G, int B) {
     int colorMinValue = 0;
     int colorMaxValue = 255;
 
-    if (shapeName == null || !content.containsKey(shapeName))
+    IShape shape = content.get(shapeId);
+    if (shape == null)
       throw new IllegalArgumentException("Shape to change color for doesn't exist");
 
     if (R < colorMinValue || R > colorMaxValue || G < colorMinValue || G > colorMaxValue
         || B < colorMinValue || B > colorMaxValue)
       throw new IllegalArgumentException("Color value is out of bound");
 
-    content.get(shapeName).getColor().setColor(R, G, B);
+    IShape recolored = shape.copy();
+    recolored.getColor().setColor(R, G, B);
+    content = content.put(recolored.freeze());
   }
 
   /**
@@ -96,10 +142,26 @@ public class Photo implements IPhoto {
    */
   @Override
   public void resizeShape(String shapeName, int h, int v) {
-    if (shapeName == null || !content.containsKey(shapeName))
+    resizeShape(names.find(shapeName), h, v);
+  }
+
+  /**
+   * Resizes a shape.
+   * @param shapeId The ID of the name of the shape to be resized.
+   * @param h The horizontal dimension of the new size.
+   * @param v The vertical dimension of the new size.
+   * @throws IllegalArgumentException If the shape to be resized doesn't exist.
+   */
+  @Override
+  public void resizeShape(int shapeId, int h, int v) {
+    IShape shape = content.get(shapeId);
+    if (shape == null)
       throw new IllegalArgumentException("Shape to be resized doesn't exist");
-    content.get(shapeName).setHorizontalDimension(h);
-    content.get(shapeName).setVerticalDimension(v);
+
+    IShape resized = shape.copy();
+    resized.setHorizontalDimension(h);
+    resized.setVerticalDimension(v);
+    content = content.put(resized.freeze());
   }
 
   /**
@@ -109,13 +171,24 @@ public class Photo implements IPhoto {
    */
   @Override
   public void removeShape(String shapeName) {
-    if (shapeName == null || !content.containsKey(shapeName))
+    removeShape(names.find(shapeName));
+  }
+
+  /**
+   * Removes a shape from the photo.
+   * @param shapeId The ID of the name of the shape to be removed.
+   * @throws IllegalArgumentException If the shape to be removed doesn't exist.
+   */
+  @Override
+  public void removeShape(int shapeId) {
+    if (!content.containsKey(shapeId))
       throw new IllegalArgumentException("Shape to be removed doesn't exist");
-    content.remove(shapeName);
+    content = content.remove(shapeId);
   }
 
   /**
    * Takes a snapshot of the current state of the photo.
+   * The snapshot shares the current shape map, so this does not copy any shape.
    * @return A snapshot of the photo.
    * @throws IllegalStateException If there is no content to be taken snapshot of.
    */
@@ -124,18 +197,7 @@ public class Photo implements IPhoto {
     if (content.isEmpty())
       throw new IllegalStateException("No content to be taken snapshot of");
 
-    Date currentDate = new Date();
-    SimpleDateFormat idFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
-    String id = idFormat.format(currentDate);
-
-    SimpleDateFormat timestampFormat = new SimpleDateFormat("dd-MM-yyyy HH:mm:ss");
-    String timestamp = timestampFormat.format(currentDate);
-
-    List<IShape> record = new ArrayList<>();
-    for (IShape s : content.values())
-      record.add(s.copy());
-
-    return new Snapshot(id, timestamp, description, record);
+    return Snapshot.now(description, content);
   }
 
   /**
@@ -157,7 +219,7 @@ public class Photo implements IPhoto {
     if (this == o) return true;
     if (!(o instanceof Photo)) return false;
     Photo  photo = (Photo) o;
-    return Objects.equals(content.values().toString(), photo.content.values().toString());
+    return Objects.equals(toString(), photo.toString());
   }
 
   /**
@@ -166,7 +228,7 @@ public class Photo implements IPhoto {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(content.values().toString());
+    return Objects.hash(toString());
   }
 
   /**
@@ -176,7 +238,7 @@ public class Photo implements IPhoto {
   @Override
   public String toString() {
     StringBuilder string = new StringBuilder();
-    for (IShape s : content.values())
+    for (IShape s : content)
       string.append(s.toString());
     return string.toString();
   }
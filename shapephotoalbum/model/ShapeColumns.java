@@ -0,0 +1,181 @@
+package shapesphotoalbum.model;
+
+import shapesphotoalbum.model.shape.Color;
+import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.Oval;
+import shapesphotoalbum.model.shape.Point2D;
+import shapesphotoalbum.model.shape.Rectangle;
+import shapesphotoalbum.model.shape.ShapeNameTable;
+import shapesphotoalbum.model.shape.ShapeType;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Represents an immutable list of shapes stored column by column in primitive arrays.
+ * Shapes are handed out as read-only views over the columns, created on demand.
+ */
+final class ShapeColumns extends AbstractList<IShape> implements RandomAccess {
+  private static final ShapeType[] TYPES = ShapeType.values();
+
+  private final int[] xs;
+  private final int[] ys;
+  private final int[] widths;
+  private final int[] heights;
+  private final int[] colors; // packed as 0xRRGGBB
+  private final byte[] types; // ordinal of the shape type
+  private final int[] nameIds; // IDs in the name table
+  private final int size;
+  private final ShapeNameTable names;
+
+  /**
+   * Constructs a list over the given columns, which must not be modified afterwards.
+   */
+  ShapeColumns(int[] xs, int[] ys, int[] widths, int[] heights, int[] colors, byte[] types,
+               int[] nameIds, int size, ShapeNameTable names) {
+    this.xs = xs;
+    this.ys = ys;
+    this.widths = widths;
+    this.heights = heights;
+    this.colors = colors;
+    this.types = types;
+    this.nameIds = nameIds;
+    this.size = size;
+    this.names = names;
+  }
+
+  /**
+   * Packs color components into one int.
+   * @return The packed color.
+   */
+  static int pack(int R, int G, int B) {
+    return (R << 16) | (G << 8) | B;
+  }
+
+  /**
+   * Gets a read-only view of the shape at the given position.
+   * @param index The position of the shape.
+   * @return A view of the shape.
+   */
+  @Override
+  public IShape get(int index) {
+    Objects.checkIndex(index, size);
+    return new View(index);
+  }
+
+  /**
+   * Gets the number of shapes in the list.
+   * @return The number of shapes.
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Represents a read-only view of one shape in the columns.
+   */
+  private final class View implements IShape {
+    private final int index;
+
+    private View(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getName() {
+      return names.nameOf(nameIds[index]);
+    }
+
+    @Override
+    public int getNameId() {
+      return nameIds[index];
+    }
+
+    @Override
+    public ShapeType getType() {
+      return TYPES[types[index]];
+    }
+
+    /**
+     * Retrieves the position of the shape.
+     * @return A new point holding the position, changing it does not change the shape.
+     */
+    @Override
+    public Point2D getPosition() {
+      return new Point2D(xs[index], ys[index]);
+    }
+
+    @Override
+    public int getHorizontalDimension() {
+      return widths[index];
+    }
+
+    @Override
+    public int getVerticalDimension() {
+      return heights[index];
+    }
+
+    /**
+     * Retrieves the color of the shape.
+     * @return A new color holding the components, changing it does not change the shape.
+     */
+    @Override
+    public Color getColor() {
+      int color = colors[index];
+      return new Color((color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF);
+    }
+
+    @Override
+    public void setHorizontalDimension(int h) {
+      throw new UnsupportedOperationException("Shape view is read-only");
+    }
+
+    @Override
+    public void setVerticalDimension(int v) {
+      throw new UnsupportedOperationException("Shape view is read-only");
+    }
+
+    @Override
+    public IShape freeze() {
+      return this;
+    }
+
+    /**
+     * Creates a standalone copy of the shape.
+     * @return A rectangle or oval with the same properties.
+     */
+    @Override
+    public IShape copy() {
+      return copy(nameIds[index]);
+    }
+
+    /**
+     * Creates a standalone copy of the shape under another name ID.
+     * @param nameId The ID of the name of the copy.
+     * @return A rectangle or oval with the same properties.
+     */
+    @Override
+    public IShape copy(int nameId) {
+      if (getType() == ShapeType.RECTANGLE)
+        return new Rectangle(getName(), nameId, getPosition(), widths[index], heights[index], getColor());
+      return new Oval(getName(), nameId, getPosition(), widths[index], heights[index], getColor());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return copy().equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+      return copy().hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return copy().toString();
+    }
+  }
+}
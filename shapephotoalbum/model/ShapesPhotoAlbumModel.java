@@ -1,11 +1,23 @@
 package shapesphotoalbum.model;
 
+import shapesphotoalbum.model.command.ChangeColor;
+import shapesphotoalbum.model.command.Create;
 import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.command.Move;
+import shapesphotoalbum.model.command.Remove;
+import shapesphotoalbum.model.command.Resize;
+import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 
 /**
  * Represents the model for a Shapes Photo Album.
@@ -13,15 +25,44 @@ import java.util.List;
  */
 public class ShapesPhotoAlbumModel implements IModel {
   private final IPhoto currentState; // current state of the photo album
-  private final Map<String, ISnapshot> snapshots; // snapshots taken for the photo album
+  private final ISnapshotStore snapshots; // snapshots taken for the photo album
+  private final Map<String, Integer> indexOfId; // position of the first snapshot with each ID
 
   /**
    * Constructs a new ShapesPhotoAlbumModel object.
-   * Initializes the current state and the snapshots map.
+   * Initializes the current state and keeps snapshots in memory as they are taken.
    */
   public ShapesPhotoAlbumModel() {
-    currentState = new Photo();
-    snapshots = new LinkedHashMap<>();
+    this(new InMemorySnapshotStore());
+  }
+
+  /**
+   * Constructs a new ShapesPhotoAlbumModel object that keeps its snapshots in the given store.
+   * @param snapshots The store for the snapshots taken in the photo album.
+   * @throws IllegalArgumentException if the store is null.
+   */
+  public ShapesPhotoAlbumModel(ISnapshotStore snapshots) {
+    this(new Photo(), snapshots);
+  }
+
+  /**
+   * Constructs a new ShapesPhotoAlbumModel object that starts from the given photo and keeps
+   * its snapshots in the given store.
+   * @param initialState The photo holding the current state, such as a {@link ColumnarPhoto}.
+   * @param snapshots The store for the snapshots taken in the photo album.
+   * @throws IllegalArgumentException if the photo or the store is null.
+   */
+  public ShapesPhotoAlbumModel(IPhoto initialState, ISnapshotStore snapshots) {
+    if (initialState == null)
+      throw new IllegalArgumentException("No photo given");
+    if (snapshots == null)
+      throw new IllegalArgumentException("No snapshot store given");
+
+    currentState = initialState;
+    this.snapshots = snapshots;
+    this.indexOfId = new HashMap<>();
+    for (int i = 0; i < snapshots.size(); i++)
+      indexOfId.putIfAbsent(snapshots.get(i).getId(), i);
   }
 
   /**
@@ -37,6 +78,101 @@ public class ShapesPhotoAlbumModel implements IModel {
     action.execute(this);
   }
 
+  /**
+   * Executes a block of actions on the current state of the photo album in one pass.
+   * On a {@link Photo}, each shape moved, resized or recolored in the block is looked up once,
+   * edited in place as often as the block edits it, and stored back once, before the next
+   * snapshot or at the end of the block. An action that fails is skipped without any effect
+   * and the rest of the block is still executed; all the failures are then reported together.
+   * @param actions The actions to execute, in order.
+   * @throws IllegalArgumentException if the list is null or any action fails, with the
+   *                                  failure of each action suppressed by it.
+   */
+  @Override
+  public void executeBatch(List<IAction> actions) {
+    if (!(currentState instanceof Photo photo) || actions == null) {
+      IModel.super.executeBatch(actions);
+      return;
+    }
+
+    ShapeNameTable names = photo.getNameTable();
+    Map<Integer, IShape> edited = new HashMap<>(); // editable copies of the shapes edited so far
+    List<RuntimeException> errors = new ArrayList<>();
+    for (int i = 0; i < actions.size(); i++) {
+      IAction action = actions.get(i);
+      try {
+        if (action instanceof Move move)
+          edit(photo, edited, move.getShapeId(names), "Shape to be moved doesn't exist")
+              .getPosition().setPosition(move.getX(), move.getY());
+        else if (action instanceof Resize resize) {
+          IShape shape = edit(photo, edited, resize.getShapeId(names), "Shape to be resized doesn't exist");
+          shape.setHorizontalDimension(resize.getHorizontalDimension());
+          shape.setVerticalDimension(resize.getVerticalDimension());
+        }
+        else if (action instanceof ChangeColor color) {
+          int id = color.getShapeId(names);
+          if (!edited.containsKey(id) && !photo.content.containsKey(id))
+            throw new IllegalArgumentException("Shape to change color for doesn't exist");
+          if (!isColor(color.getR()) || !isColor(color.getG()) || !isColor(color.getB()))
+            throw new IllegalArgumentException("Color value is out of bound");
+          edit(photo, edited, id, null).getColor()
+              .setColor(color.getR(), color.getG(), color.getB());
+        }
+        else if (action instanceof Remove remove) {
+          edited.remove(remove.getShapeId(names));
+          executeCommand(remove);
+        }
+        else if (action instanceof Create create)
+          executeCommand(create);
+        else {
+          // snapshots and other actions see every edit made before them
+          store(photo, edited);
+          executeCommand(action);
+        }
+      }
+      catch (RuntimeException e) {
+        errors.add(new IllegalArgumentException("Command " + (i + 1) + ": " + e.getMessage(), e));
+      }
+    }
+    store(photo, edited);
+
+    if (!errors.isEmpty()) {
+      IllegalArgumentException failure = new IllegalArgumentException(errors.size() + " of "
+          + actions.size() + " commands failed, first " + errors.get(0).getMessage());
+      errors.forEach(failure::addSuppressed);
+      throw failure;
+    }
+  }
+
+  /**
+   * Gets the editable copy of a shape of the photo, copying the shape the first time it is
+   * edited in the block.
+   */
+  private static IShape edit(Photo photo, Map<Integer, IShape> edited, int shapeId, String missing) {
+    IShape shape = edited.get(shapeId);
+    if (shape == null) {
+      IShape stored = photo.content.get(shapeId);
+      if (stored == null)
+        throw new IllegalArgumentException(missing);
+      shape = stored.copy();
+      edited.put(shapeId, shape);
+    }
+    return shape;
+  }
+
+  /**
+   * Stores the edited shapes back into the photo, each in its original place.
+   */
+  private static void store(Photo photo, Map<Integer, IShape> edited) {
+    for (IShape shape : edited.values())
+      photo.content = photo.content.put(shape.freeze());
+    edited.clear();
+  }
+
+  private static boolean isColor(int value) {
+    return value >= 0 && value <= 255;
+  }
+
   /**
    * Retrieves a copy of the current state of the photo album.
    * @return A copy of the current state.
@@ -48,15 +184,101 @@ public class ShapesPhotoAlbumModel implements IModel {
 
   /**
    * Retrieves a list of snapshots taken in the photo album.
-   * @return A list of snapshots.
+   * Snapshots are read-only, so they are shared instead of copied, and the list reads them
+   * from the store as they are reached instead of loading them all up front.
+   * @return A read-only list of the snapshots taken so far.
    */
   @Override
   public List<ISnapshot> getSnapshots() {
-    List<ISnapshot> copy = new ArrayList<>();
-    for (ISnapshot s : snapshots.values())
-      copy.add(s.copy());
+    int count = snapshots.size();
+    return new AbstractList<>() {
+      @Override
+      public ISnapshot get(int index) {
+        Objects.checkIndex(index, count);
+        return snapshots.get(index);
+      }
+
+      @Override
+      public int size() {
+        return count;
+      }
+    };
+  }
+
+  /**
+   * Retrieves the number of snapshots taken in the photo album.
+   * @return The number of snapshots.
+   */
+  @Override
+  public int getSnapshotCount() {
+    return snapshots.size();
+  }
+
+  /**
+   * Retrieves the metadata of the snapshots taken in the photo album, in order.
+   * @return A read-only list of snapshot metadata.
+   */
+  @Override
+  public List<SnapshotInfo> getSnapshotInfo() {
+    List<SnapshotInfo> info = new ArrayList<>(snapshots.size());
+    for (int i = 0; i < snapshots.size(); i++)
+      info.add(new SnapshotInfo(i, snapshots.get(i)));
+
+    return Collections.unmodifiableList(info);
+  }
+
+  /**
+   * Retrieves the snapshot at the given position.
+   * @param index The position of the snapshot, starting at 0.
+   * @return The snapshot at that position.
+   * @throws IndexOutOfBoundsException If there is no snapshot at that position.
+   */
+  @Override
+  public ISnapshot getSnapshot(int index) {
+    Objects.checkIndex(index, snapshots.size());
+    return snapshots.get(index);
+  }
+
+  /**
+   * Retrieves the snapshot with the given ID.
+   * @param id The ID of the snapshot.
+   * @return The first snapshot with that ID.
+   * @throws IllegalArgumentException If there is no snapshot with that ID.
+   */
+  @Override
+  public ISnapshot getSnapshot(String id) {
+    Integer index = indexOfId.get(id);
+    if (index == null)
+      throw new IllegalArgumentException("Snapshot doesn't exist");
+
+    return snapshots.get(index);
+  }
+
+  /**
+   * Retrieves the snapshots in the given range of positions, one at a time.
+   * @param from The position of the first snapshot, inclusive.
+   * @param to The position after the last snapshot, exclusive.
+   * @return An iterator over the snapshots in the range.
+   * @throws IndexOutOfBoundsException If the range is out of bounds.
+   */
+  @Override
+  public Iterator<ISnapshot> getSnapshots(int from, int to) {
+    Objects.checkFromToIndex(from, to, snapshots.size());
+    return new Iterator<>() {
+      private int next = from;
+
+      @Override
+      public boolean hasNext() {
+        return next < to;
+      }
 
-    return copy;
+      @Override
+      public ISnapshot next() {
+        if (next >= to)
+          throw new NoSuchElementException();
+        return snapshots.get(next++);
+      }
+    };
   }
 
   /**
@@ -65,7 +287,8 @@ public class ShapesPhotoAlbumModel implements IModel {
   @Override
   public void takeSnapshot(String description) {
     ISnapshot snapshot = currentState.takeSnapshot(description);
-    snapshots.put(snapshot.getId(), snapshot);
+    indexOfId.putIfAbsent(snapshot.getId(), snapshots.size());
+    snapshots.add(snapshot);
   }
 
   /**
@@ -75,7 +298,7 @@ public class ShapesPhotoAlbumModel implements IModel {
   @Override
   public String toString() {
     StringBuilder string = new StringBuilder();
-    for (ISnapshot s : snapshots.values())
+    for (ISnapshot s : snapshots)
       string.append(s.toString()).append("\n");
 
     return string.toString();
@@ -2,43 +2,63 @@ package shapesphotoalbum.model;
 
 import shapesphotoalbum.model.shape.IShape;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
-import java.util.Objects;
 import java.util.Random;
 
 /**
  * Represents a snapshot of the photo album at a specific moment in time.
  */
-public class Snapshot implements ISnapshot {
+public class Snapshot extends AbstractSnapshot {
   private final String id;
   private final String timestamp;
-  private List<IShape> content = new ArrayList<>();
+  private final Iterable<IShape> content;
   private final String description;
 
   /**
    * Constructs a snapshot with the specified ID, timestamp, content, and a description.
+   * Content handed over by a {@link Photo} or a {@link ColumnarPhoto} is already read-only
+   * and is shared, any other content is copied once into read-only shapes.
    * @param id The ID of the snapshot.
    * @param timestamp The timestamp of the snapshot.
    * @param content The content of the snapshot.
    * @param description The text description of the snapshot.
    * @throws IllegalArgumentException If one or more inputs are invalid.
    */
-  public Snapshot(String id, String timestamp, String description, List<IShape> content) {
+  public Snapshot(String id, String timestamp, String description, Iterable<IShape> content) {
+    this(id, timestamp, description, content, false);
+  }
+
+  /**
+   * Constructs a new snapshot or restores one that was taken before.
+   * @param id The ID of the snapshot.
+   * @param timestamp The timestamp of the snapshot.
+   * @param description The text description of the snapshot.
+   * @param content The content of the snapshot.
+   * @param restored True to keep the ID as it is and trust the content to be read-only,
+   *                 for a snapshot that is being restored.
+   * @throws IllegalArgumentException If one or more inputs are invalid.
+   */
+  private Snapshot(String id, String timestamp, String description, Iterable<IShape> content,
+                   boolean restored) {
     if (id == null || id.isEmpty() || timestamp == null
         || timestamp.isEmpty() || content == null)
       throw new IllegalArgumentException("Invalid input for constructing a snapshot");
 
     // make sure snapshot is distinct in case two snapshots are created at same timestamp
     Random rand = new Random();
-    this.id = id + rand.nextInt(100);
+    this.id = restored ? id : id + rand.nextInt(100);
     this.timestamp = timestamp;
     this.description = description;
-    this.content = content;
+    this.content = restored ? content : readOnly(content);
   }
 
   /**
    * Constructs a copy of the given snapshot.
+   * The content is read-only, so the copy shares it.
    * @param original The snapshot to be copied.
    * @throws IllegalArgumentException If the original snapshot is null.
    */
@@ -47,14 +67,59 @@ public class Snapshot implements ISnapshot {
       this.id = original.id;
       this.timestamp = original.timestamp;
       this.description = original.description;
-      for(IShape s : original.content) {
-        this.content.add(s.copy());
-      }
+      this.content = original.content;
     }
     else
       throw new IllegalArgumentException("No snapshot to be copied");
   }
 
+  /**
+   * Gets a read-only version of the given content.
+   * @param content The content of a snapshot.
+   * @return The content itself if it is read-only, or else a list of frozen copies of its
+   *         shapes.
+   */
+  private static Iterable<IShape> readOnly(Iterable<IShape> content) {
+    if (content instanceof PersistentShapeMap || content instanceof ShapeColumns)
+      return content;
+
+    List<IShape> copy = new ArrayList<>();
+    for (IShape s : content)
+      copy.add(s.copy().freeze());
+    return Collections.unmodifiableList(copy);
+  }
+
+  /**
+   * Recreates a snapshot that was taken before, with its original ID and timestamp.
+   * @param id The ID of the snapshot.
+   * @param timestamp The timestamp of the snapshot.
+   * @param description The text description of the snapshot.
+   * @param content The content of the snapshot, made of read-only shapes that never change.
+   * @return The snapshot.
+   * @throws IllegalArgumentException If one or more inputs are invalid.
+   */
+  static Snapshot restore(String id, String timestamp, String description,
+                          Iterable<IShape> content) {
+    return new Snapshot(id, timestamp, description, content, true);
+  }
+
+  /**
+   * Creates a snapshot of the given content, stamped with the current time.
+   * @param description The text description of the snapshot.
+   * @param content The content of the snapshot, which must be read-only.
+   * @return The snapshot.
+   */
+  static Snapshot now(String description, Iterable<IShape> content) {
+    Date currentDate = new Date();
+    SimpleDateFormat idFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
+    String id = idFormat.format(currentDate);
+
+    SimpleDateFormat timestampFormat = new SimpleDateFormat("dd-MM-yyyy HH:mm:ss");
+    String timestamp = timestampFormat.format(currentDate);
+
+    return new Snapshot(id, timestamp, description, content);
+  }
+
   /**
    * Gets the ID of the snapshot.
    * @return The ID of the snapshot.
@@ -80,16 +145,12 @@ public class Snapshot implements ISnapshot {
   }
 
   /**
-   * Gets the content of the snapshot.
-   * @return The content of the snapshot.
+   * Gets the shapes of the snapshot without copying them.
+   * @return The shapes of the snapshot.
    */
   @Override
-  public List<IShape> getContent() {
-    List<IShape> copy = new ArrayList<>();
-
-    for (IShape s : content)
-      copy.add(s.copy());
-    return copy;
+  protected Iterable<IShape> shapes() {
+    return content;
   }
 
   /**
@@ -100,46 +161,4 @@ public class Snapshot implements ISnapshot {
   public ISnapshot copy() {
     return new Snapshot(this);
   }
-
-  /**
-   * Compares the snapshot to another object.
-   * @param o The object to compare with.
-   * @return True if the objects are equal, false otherwise.
-   */
-  @Override
-  public boolean equals(Object o) {
-    if (this == o) return true;
-    if (!(o instanceof Snapshot)) return false;
-    Snapshot snapshot = (Snapshot) o;
-    return Objects.equals(getId(), snapshot.getId())
-        && Objects.equals(timestamp, snapshot.timestamp)
-        && Objects.equals(getContent(), snapshot.getContent());
-  }
-
-  /**
-   * Generates the hash code for the snapshot.
-   * @return The hash code for the snapshot.
-   */
-  @Override
-  public int hashCode() {
-    return Objects.hash(getId(), timestamp, getContent());
-  }
-
-  /**
-   * Converts the snapshot to a string representation.
-   * @return The string representation of the snapshot.
-   */
-  @Override
-  public String toString() {
-    StringBuilder string = new StringBuilder(String.format("""
-        Snapshot ID: %s
-        Timestamp: %s
-        Description: %s
-        Shape Information:
-        """, id, timestamp, description));
-    for (IShape s : content)
-      string.append(s.toString());
-
-    return string.toString();
-  }
 }
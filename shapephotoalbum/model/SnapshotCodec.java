@@ -0,0 +1,178 @@
+package shapesphotoalbum.model;
+
+import shapesphotoalbum.model.shape.Color;
+import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.Oval;
+import shapesphotoalbum.model.shape.Point2D;
+import shapesphotoalbum.model.shape.Rectangle;
+import shapesphotoalbum.model.shape.ShapeNameTable;
+import shapesphotoalbum.model.shape.ShapeType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Encodes snapshots into a compact binary record and decodes them back.
+ * A record holds the ID, timestamp and description of the snapshot, then the number of
+ * shapes and, for each shape, its type, name, position, size and color components. Components
+ * are stored as they are, even outside 0 to 255, so that a decoded shape equals the one that
+ * was encoded. Strings are
+ * stored as their length followed by their UTF-8 bytes, and numbers are big-endian.
+ * The metadata can be decoded without touching the shapes.
+ */
+final class SnapshotCodec {
+  private static final ShapeType[] TYPES = ShapeType.values();
+  private static final int NAME_SIZE_ESTIMATE = 8; // bytes of a typical shape name
+  private static final int SHAPE_SIZE = 1 + 4 + 7 * 4; // type, name length, position, size, color
+
+  private SnapshotCodec() {
+  }
+
+  /**
+   * Encodes a snapshot into a record.
+   * @param snapshot The snapshot to encode.
+   * @return The record.
+   */
+  static byte[] encode(ISnapshot snapshot) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      writeString(out, snapshot.getId());
+      writeString(out, snapshot.getTimestamp());
+      writeString(out, snapshot.getDescription());
+      writeShapes(out, snapshot.getContent());
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e); // writing to memory doesn't fail
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Estimates the length of the record of a snapshot from its metadata and its number of
+   * shapes, without encoding or even reading the shapes. Each shape name is taken to be
+   * {@value #NAME_SIZE_ESTIMATE} bytes long and each character of the metadata one byte.
+   * @param snapshot The snapshot.
+   * @return The estimated length of the record.
+   */
+  static int estimateSize(ISnapshot snapshot) {
+    long size = 3 * 4 + length(snapshot.getId()) + length(snapshot.getTimestamp())
+        + length(snapshot.getDescription()) + 4
+        + (long) snapshot.getContent().size() * (SHAPE_SIZE + NAME_SIZE_ESTIMATE);
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  private static int length(String s) {
+    return s == null ? 0 : s.length();
+  }
+
+  /**
+   * Encodes shapes the way they are stored in a record, without any metadata.
+   * @param content The shapes to encode.
+   * @return The encoded shapes, which {@link #readShapes(ByteBuffer, ShapeNameTable)} decodes.
+   */
+  static byte[] encodeShapes(List<IShape> content) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      writeShapes(out, content);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e); // writing to memory doesn't fail
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Writes the number of shapes, then the type, name, position, size and color components of
+   * each shape.
+   */
+  private static void writeShapes(DataOutputStream out, List<IShape> content) throws IOException {
+    out.writeInt(content.size());
+    for (IShape s : content) {
+      Color color = s.getColor();
+      out.writeByte(s.getType().ordinal());
+      writeString(out, s.getName());
+      out.writeInt(s.getPosition().getX());
+      out.writeInt(s.getPosition().getY());
+      out.writeInt(s.getHorizontalDimension());
+      out.writeInt(s.getVerticalDimension());
+      out.writeInt(color.getR());
+      out.writeInt(color.getG());
+      out.writeInt(color.getB());
+    }
+  }
+
+  /**
+   * Decodes the metadata at the start of a record and moves past it.
+   * @param record The record, positioned at its start.
+   * @return The ID, timestamp and description of the snapshot.
+   */
+  static String[] readMetadata(ByteBuffer record) {
+    return new String[] {readString(record), readString(record), readString(record)};
+  }
+
+  /**
+   * Decodes the shapes of a record into new read-only shapes.
+   * @param record The record, positioned right after its metadata.
+   * @param names The table the names of the shapes are interned into.
+   * @return A read-only list of the shapes, in order.
+   * @throws IllegalStateException If the record is corrupt.
+   */
+  static List<IShape> readShapes(ByteBuffer record, ShapeNameTable names) {
+    int count = record.getInt();
+    if (count < 0)
+      throw new IllegalStateException("Corrupt snapshot record");
+
+    IShape[] shapes = new IShape[count];
+    for (int i = 0; i < count; i++) {
+      int type = record.get();
+      if (type < 0 || type >= TYPES.length)
+        throw new IllegalStateException("Corrupt snapshot record");
+
+      String name = readString(record);
+      int nameId = names.intern(name);
+      Point2D position = new Point2D(record.getInt(), record.getInt());
+      int h = record.getInt();
+      int v = record.getInt();
+      Color color = new Color(record.getInt(), record.getInt(), record.getInt());
+
+      IShape shape = TYPES[type] == ShapeType.RECTANGLE
+          ? new Rectangle(name, nameId, position, h, v, color)
+          : new Oval(name, nameId, position, h, v, color);
+      shapes[i] = shape.freeze();
+    }
+    return Collections.unmodifiableList(Arrays.asList(shapes));
+  }
+
+  /**
+   * Writes a string as its length followed by its UTF-8 bytes, -1 standing for null.
+   */
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a string written by {@link #writeString}.
+   */
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0)
+      return null;
+
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,110 @@
+package shapesphotoalbum.model;
+
+import java.util.Objects;
+
+/**
+ * Represents the metadata of a snapshot: its ID, timestamp and description, without its
+ * shapes. Listing snapshots through their metadata never has to load or copy any content.
+ */
+public final class SnapshotInfo {
+  private final int index;
+  private final String id;
+  private final String timestamp;
+  private final String description;
+
+  /**
+   * Constructs the metadata of a snapshot.
+   * @param index The position of the snapshot in the album, starting at 0.
+   * @param id The ID of the snapshot.
+   * @param timestamp The timestamp of the snapshot.
+   * @param description The text description of the snapshot.
+   * @throws IllegalArgumentException If the index is negative or the ID is null.
+   */
+  public SnapshotInfo(int index, String id, String timestamp, String description) {
+    if (index < 0 || id == null)
+      throw new IllegalArgumentException("Invalid input for snapshot metadata");
+
+    this.index = index;
+    this.id = id;
+    this.timestamp = timestamp;
+    this.description = description;
+  }
+
+  /**
+   * Constructs the metadata of a snapshot from the snapshot itself.
+   * @param index The position of the snapshot in the album, starting at 0.
+   * @param snapshot The snapshot.
+   * @throws IllegalArgumentException If the index is negative or the snapshot is null.
+   */
+  public SnapshotInfo(int index, ISnapshot snapshot) {
+    this(index, snapshot == null ? null : snapshot.getId(),
+        snapshot == null ? null : snapshot.getTimestamp(),
+        snapshot == null ? null : snapshot.getDescription());
+  }
+
+  /**
+   * Gets the position of the snapshot in the album.
+   * @return The position of the snapshot, starting at 0.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * Gets the ID of the snapshot.
+   * @return The ID of the snapshot.
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Gets the timestamp of the snapshot.
+   * @return The timestamp of the snapshot.
+   */
+  public String getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Gets the description of the snapshot.
+   * @return The description of the snapshot.
+   */
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * Checks if this metadata is equal to another object.
+   * @param o The object to compare.
+   * @return True if the metadata are equal, false otherwise.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof SnapshotInfo)) return false;
+    SnapshotInfo info = (SnapshotInfo) o;
+    return index == info.index && id.equals(info.id)
+        && Objects.equals(timestamp, info.timestamp)
+        && Objects.equals(description, info.description);
+  }
+
+  /**
+   * Generates the hash code for the metadata.
+   * @return The hash code for the metadata.
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(index, id, timestamp, description);
+  }
+
+  /**
+   * Converts the metadata to a string representation.
+   * @return The string representation of the metadata.
+   */
+  @Override
+  public String toString() {
+    return String.format("Snapshot %d ID: %s, Timestamp: %s, Description: %s",
+        index, id, timestamp, description);
+  }
+}
@@ -0,0 +1,218 @@
+package shapesphotoalbum.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Represents a snapshot store that keeps at most a given number of snapshots, or of encoded
+ * bytes of snapshots, in memory. The bytes of a snapshot are estimated from its number of
+ * shapes, so adding a snapshot does not encode it.
+ * When a limit is exceeded, the least recently used snapshots are spilled to a temporary
+ * archive file and dropped from memory. Reading a spilled snapshot faults it back in from
+ * the file, so the store behaves like one holding every snapshot, with a bounded heap.
+ * Counters report how many reads found their snapshot in memory, how many had to fault it
+ * in, and how many snapshots were spilled.
+ */
+public class SpillingSnapshotStore implements ISnapshotStore, Closeable {
+  private final int maxSnapshots;
+  private final long maxBytes;
+  private final Path spillFile;
+  private MappedSnapshotStore spilled; // created on the first spill
+
+  // snapshots in memory by position, least recently used first
+  private final LinkedHashMap<Integer, ISnapshot> resident;
+  private long residentBytes;
+  private int[] weights; // estimated encoded size of each snapshot
+  private int[] spilledAt; // position of each snapshot in the spill file, -1 if not spilled
+  private int size;
+
+  private long hits;
+  private long misses;
+  private long spills;
+
+  /**
+   * Constructs an empty spilling snapshot store.
+   * @param maxSnapshots The most snapshots kept in memory, or {@link Integer#MAX_VALUE}.
+   * @param maxBytes The most encoded bytes of snapshots kept in memory, or
+   *                 {@link Long#MAX_VALUE}. The latest snapshot is kept even if it is larger.
+   * @throws IllegalArgumentException If a limit is not positive.
+   * @throws UncheckedIOException If the temporary spill file can't be created.
+   */
+  public SpillingSnapshotStore(int maxSnapshots, long maxBytes) {
+    if (maxSnapshots < 1 || maxBytes < 1)
+      throw new IllegalArgumentException("Snapshot limits must be positive");
+
+    this.maxSnapshots = maxSnapshots;
+    this.maxBytes = maxBytes;
+    try {
+      this.spillFile = Files.createTempFile("snapshots", ".spill");
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't create snapshot spill file", e);
+    }
+    spillFile.toFile().deleteOnExit();
+    this.resident = new LinkedHashMap<>(16, 0.75f, true);
+    this.weights = new int[16];
+    this.spilledAt = new int[16];
+  }
+
+  /**
+   * Adds a snapshot after the ones already stored, spilling older snapshots if the store
+   * goes over its limits.
+   * @param snapshot The snapshot to add.
+   * @throws IllegalArgumentException If the snapshot is null.
+   */
+  @Override
+  public void add(ISnapshot snapshot) {
+    if (snapshot == null)
+      throw new IllegalArgumentException("No snapshot to be stored");
+
+    if (size == weights.length) {
+      weights = Arrays.copyOf(weights, size * 2);
+      spilledAt = Arrays.copyOf(spilledAt, size * 2);
+    }
+    weights[size] = SnapshotCodec.estimateSize(snapshot);
+    spilledAt[size] = -1;
+    makeResident(size, snapshot);
+    size++;
+  }
+
+  /**
+   * Gets the number of stored snapshots.
+   * @return The number of snapshots.
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the snapshot at the given position, faulting it back in if it was spilled.
+   * @param index The position of the snapshot, starting at 0.
+   * @return The snapshot at that position.
+   * @throws IndexOutOfBoundsException If there is no snapshot at that position.
+   */
+  @Override
+  public ISnapshot get(int index) {
+    Objects.checkIndex(index, size);
+    ISnapshot snapshot = resident.get(index);
+    if (snapshot != null) {
+      hits++;
+      return snapshot;
+    }
+
+    misses++;
+    ISnapshot mapped = spilled.get(spilledAt[index]);
+    snapshot = Snapshot.restore(mapped.getId(), mapped.getTimestamp(),
+        mapped.getDescription(), mapped.getContent());
+    makeResident(index, snapshot);
+    return snapshot;
+  }
+
+  /**
+   * Puts a snapshot in memory, then spills the least recently used snapshots until the
+   * store is within its limits again.
+   */
+  private void makeResident(int index, ISnapshot snapshot) {
+    resident.put(index, snapshot);
+    residentBytes += weights[index];
+
+    Iterator<Map.Entry<Integer, ISnapshot>> eldest = resident.entrySet().iterator();
+    while (resident.size() > 1 && (resident.size() > maxSnapshots || residentBytes > maxBytes)) {
+      Map.Entry<Integer, ISnapshot> entry = eldest.next();
+      spill(entry.getKey(), entry.getValue());
+      residentBytes -= weights[entry.getKey()];
+      eldest.remove();
+    }
+  }
+
+  /**
+   * Writes a snapshot to the spill file, unless it was written there before.
+   */
+  private void spill(int index, ISnapshot snapshot) {
+    spills++;
+    if (spilledAt[index] >= 0)
+      return;
+
+    if (spilled == null)
+      spilled = new MappedSnapshotStore(spillFile);
+    spilled.add(snapshot);
+    spilledAt[index] = spilled.size() - 1;
+  }
+
+  /**
+   * Gets the number of reads that found their snapshot in memory.
+   * @return The number of hits.
+   */
+  public long getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Gets the number of reads that had to fault their snapshot in from the spill file.
+   * @return The number of misses.
+   */
+  public long getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Gets the number of times a snapshot was dropped from memory to stay within the limits.
+   * @return The number of spills.
+   */
+  public long getSpillCount() {
+    return spills;
+  }
+
+  /**
+   * Gets the number of snapshots currently in memory.
+   * @return The number of resident snapshots.
+   */
+  public int getResidentCount() {
+    return resident.size();
+  }
+
+  /**
+   * Returns an iterator over the stored snapshots, faulting in the spilled ones as they are
+   * reached.
+   * @return An iterator over the snapshots.
+   */
+  @Override
+  public Iterator<ISnapshot> iterator() {
+    return new Iterator<>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public ISnapshot next() {
+        if (next >= size)
+          throw new NoSuchElementException();
+        return get(next++);
+      }
+    };
+  }
+
+  /**
+   * Closes and deletes the spill file. Spilled snapshots can't be read afterwards.
+   * @throws IOException If the file can't be closed or deleted.
+   */
+  @Override
+  public void close() throws IOException {
+    if (spilled != null)
+      spilled.close();
+    Files.deleteIfExists(spillFile);
+  }
+}
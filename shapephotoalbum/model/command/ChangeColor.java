@@ -1,12 +1,16 @@
 package shapesphotoalbum.model.command;
 
 import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.IPhoto;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 
 /**
  * Represents an action to change the color of a shape in the photo album.
  */
 public class ChangeColor implements IAction {
   private final String shapeName;
+  private final ShapeNameTable names; // table the shape ID comes from, null if there is none
+  private final int shapeId;
   private final int R;
   private final int G;
   private final int B;
@@ -19,12 +23,72 @@ public class ChangeColor implements IAction {
    * @param B The new blue component of the color.
    */
   public ChangeColor(String shapeName, int R, int G, int B) {
+    this(shapeName, null, ShapeNameTable.NO_NAME, R, G, B);
+  }
+
+  /**
+   * Constructs a new ChangeColor action for a shape whose name is already interned.
+   * @param names The name table the ID of the shape name comes from.
+   * @param shapeId The ID of the name of the shape whose color is to be changed.
+   * @param R The new red component of the color.
+   * @param G The new green component of the color.
+   * @param B The new blue component of the color.
+   */
+  public ChangeColor(ShapeNameTable names, int shapeId, int R, int G, int B) {
+    this(names.nameOf(shapeId), names, shapeId, R, G, B);
+  }
+
+  private ChangeColor(String shapeName, ShapeNameTable names, int shapeId, int R, int G, int B) {
     this.shapeName = shapeName;
+    this.names = names;
+    this.shapeId = shapeId;
     this.R = R;
     this.G = G;
     this.B = B;
   }
 
+  /**
+   * Gets the name of the shape to be recolored.
+   * @return The shape name.
+   */
+  public String getShapeName() {
+    return shapeName;
+  }
+
+  /**
+   * Gets the ID of the name of the shape to be recolored in a name table.
+   * @param table The name table, such as the one of the photo the action runs on.
+   * @return The ID of the shape name, or {@link ShapeNameTable#NO_NAME} if it is not in the
+   *         table.
+   */
+  public int getShapeId(ShapeNameTable table) {
+    return table.find(names, shapeId, shapeName);
+  }
+
+  /**
+   * Gets the new red component of the color.
+   * @return The red component.
+   */
+  public int getR() {
+    return R;
+  }
+
+  /**
+   * Gets the new green component of the color.
+   * @return The green component.
+   */
+  public int getG() {
+    return G;
+  }
+
+  /**
+   * Gets the new blue component of the color.
+   * @return The blue component.
+   */
+  public int getB() {
+    return B;
+  }
+
   /**
    * Executes the change color action by changing the color of
    * the specified shape in the photo.
@@ -35,6 +99,7 @@ public class ChangeColor implements IAction {
     if (model == null || model.getCurrentState() == null)
       throw new IllegalArgumentException("Photo doesn't exist");
 
-    model.getCurrentState().changeColor(shapeName, R, G, B);
+    IPhoto photo = model.getCurrentState();
+    photo.changeColor(getShapeId(photo.getNameTable()), R, G, B);
   }
 }
@@ -33,6 +33,35 @@ public class Create implements IAction {
 
     else
       this.shape = null;
+
+    if (this.shape != null)
+      this.shape.freeze(); // added as a copy, so it is never changed
+  }
+
+  /**
+   * Constructs a new Create action for a shape whose name is already interned.
+   * @param names The name table the ID of the shape name comes from.
+   * @param nameId The ID of the name of the shape.
+   * @param type The type of the shape.
+   * @param x The amount to move the shape along the x-axis.
+   * @param y The amount to move the shape along the y-axis.
+   * @param h The horizontal dimension of the shape.
+   * @param v The vertical dimension of the shape.
+   * @param R The new red component of the color.
+   * @param G The new green component of the color.
+   * @param B The new blue component of the color.
+   */
+  public Create(ShapeNameTable names, int nameId, ShapeType type, int x, int y, int h, int v, int R,
+                int G, int B) {
+    this(names.nameOf(nameId), type, x, y, h, v, R, G, B);
+  }
+
+  /**
+   * Gets the shape to be added, which is read-only.
+   * @return The shape, or null if its type is not supported.
+   */
+  public IShape getShape() {
+    return shape;
   }
 
   /**
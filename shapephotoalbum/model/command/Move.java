@@ -1,12 +1,16 @@
 package shapesphotoalbum.model.command;
 
 import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.IPhoto;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 
 /**
  * Represents an action to move a shape in the photo album.
  */
 public class Move implements IAction {
   private final String shapeName;
+  private final ShapeNameTable names; // table the shape ID comes from, null if there is none
+  private final int shapeId;
   private final int x;
   private final int y;
 
@@ -17,11 +21,62 @@ public class Move implements IAction {
    * @param y The amount to move the shape along the y-axis.
    */
   public Move(String shapeName, int x, int y) {
+    this(shapeName, null, ShapeNameTable.NO_NAME, x, y);
+  }
+
+  /**
+   * Constructs a new Move action for a shape whose name is already interned.
+   * @param names The name table the ID of the shape name comes from.
+   * @param shapeId The ID of the name of the shape to be moved.
+   * @param x The amount to move the shape along the x-axis.
+   * @param y The amount to move the shape along the y-axis.
+   */
+  public Move(ShapeNameTable names, int shapeId, int x, int y) {
+    this(names.nameOf(shapeId), names, shapeId, x, y);
+  }
+
+  private Move(String shapeName, ShapeNameTable names, int shapeId, int x, int y) {
     this.shapeName = shapeName;
+    this.names = names;
+    this.shapeId = shapeId;
     this.x = x;
     this.y = y;
   }
 
+  /**
+   * Gets the name of the shape to be moved.
+   * @return The shape name.
+   */
+  public String getShapeName() {
+    return shapeName;
+  }
+
+  /**
+   * Gets the ID of the name of the shape to be moved in a name table.
+   * @param table The name table, such as the one of the photo the action runs on.
+   * @return The ID of the shape name, or {@link ShapeNameTable#NO_NAME} if it is not in the
+   *         table.
+   */
+  public int getShapeId(ShapeNameTable table) {
+    return table.find(names, shapeId, shapeName);
+  }
+
+  /**
+   * Gets the x-coordinate the shape is moved to.
+   * @return The x-coordinate.
+   */
+  public int getX() {
+    return x;
+  }
+
+  /**
+   * Gets the y-coordinate the shape is moved to.
+   * @return The y-coordinate.
+   */
+  public int getY() {
+    return y;
+  }
+
   /**
    * Executes the move action by moving the specified shape in the photo.
    * @param model The photo album in which the shape is to be moved.
@@ -31,6 +86,7 @@ public class Move implements IAction {
     if (model == null || model.getCurrentState() == null)
       throw new IllegalArgumentException("Photo doesn't exist");
 
-    model.getCurrentState().moveShape(shapeName, x, y);
+    IPhoto photo = model.getCurrentState();
+    photo.moveShape(getShapeId(photo.getNameTable()), x, y);
   }
 }
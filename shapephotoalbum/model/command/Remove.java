@@ -1,19 +1,56 @@
 package shapesphotoalbum.model.command;
 
 import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.IPhoto;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 
 /**
  * Represents an action to remove a shape from the photo album.
  */
 public class Remove implements IAction {
   private final String shapeName;
+  private final ShapeNameTable names; // table the shape ID comes from, null if there is none
+  private final int shapeId;
 
   /**
    * Constructs a new Remove action with the specified parameters.
    * @param shapeName The name of the shape to be removed.
    */
   public Remove(String shapeName) {
+    this(shapeName, null, ShapeNameTable.NO_NAME);
+  }
+
+  /**
+   * Constructs a new Remove action for a shape whose name is already interned.
+   * @param names The name table the ID of the shape name comes from.
+   * @param shapeId The ID of the name of the shape to be removed.
+   */
+  public Remove(ShapeNameTable names, int shapeId) {
+    this(names.nameOf(shapeId), names, shapeId);
+  }
+
+  private Remove(String shapeName, ShapeNameTable names, int shapeId) {
     this.shapeName = shapeName;
+    this.names = names;
+    this.shapeId = shapeId;
+  }
+
+  /**
+   * Gets the name of the shape to be removed.
+   * @return The shape name.
+   */
+  public String getShapeName() {
+    return shapeName;
+  }
+
+  /**
+   * Gets the ID of the name of the shape to be removed in a name table.
+   * @param table The name table, such as the one of the photo the action runs on.
+   * @return The ID of the shape name, or {@link ShapeNameTable#NO_NAME} if it is not in the
+   *         table.
+   */
+  public int getShapeId(ShapeNameTable table) {
+    return table.find(names, shapeId, shapeName);
   }
 
   /**
@@ -25,6 +62,7 @@ public class Remove implements IAction {
     if (model == null || model.getCurrentState() == null)
       throw new IllegalArgumentException("Photo doesn't exist");
 
-    model.getCurrentState().removeShape(shapeName);
+    IPhoto photo = model.getCurrentState();
+    photo.removeShape(getShapeId(photo.getNameTable()));
   }
 }
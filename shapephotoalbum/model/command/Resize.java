@@ -1,12 +1,16 @@
 package shapesphotoalbum.model.command;
 
 import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.IPhoto;
+import shapesphotoalbum.model.shape.ShapeNameTable;
 
 /**
  * Represents an action to resize a shape in the photo album.
  */
 public class Resize implements IAction {
   private final String shapeName;
+  private final ShapeNameTable names; // table the shape ID comes from, null if there is none
+  private final int shapeId;
   private final int horizontalDimension;
   private final int verticalDimension;
 
@@ -17,11 +21,62 @@ public class Resize implements IAction {
    * @param v The new vertical dimension of the shape.
    */
   public Resize(String shapeName, int h, int v) {
+    this(shapeName, null, ShapeNameTable.NO_NAME, h, v);
+  }
+
+  /**
+   * Constructs a new Resize action for a shape whose name is already interned.
+   * @param names The name table the ID of the shape name comes from.
+   * @param shapeId The ID of the name of the shape to be resized.
+   * @param h The new horizontal dimension of the shape.
+   * @param v The new vertical dimension of the shape.
+   */
+  public Resize(ShapeNameTable names, int shapeId, int h, int v) {
+    this(names.nameOf(shapeId), names, shapeId, h, v);
+  }
+
+  private Resize(String shapeName, ShapeNameTable names, int shapeId, int h, int v) {
     this.shapeName = shapeName;
+    this.names = names;
+    this.shapeId = shapeId;
     this.horizontalDimension = h;
     this.verticalDimension = v;
   }
 
+  /**
+   * Gets the name of the shape to be resized.
+   * @return The shape name.
+   */
+  public String getShapeName() {
+    return shapeName;
+  }
+
+  /**
+   * Gets the ID of the name of the shape to be resized in a name table.
+   * @param table The name table, such as the one of the photo the action runs on.
+   * @return The ID of the shape name, or {@link ShapeNameTable#NO_NAME} if it is not in the
+   *         table.
+   */
+  public int getShapeId(ShapeNameTable table) {
+    return table.find(names, shapeId, shapeName);
+  }
+
+  /**
+   * Gets the new horizontal dimension of the shape.
+   * @return The horizontal dimension.
+   */
+  public int getHorizontalDimension() {
+    return horizontalDimension;
+  }
+
+  /**
+   * Gets the new vertical dimension of the shape.
+   * @return The vertical dimension.
+   */
+  public int getVerticalDimension() {
+    return verticalDimension;
+  }
+
   /**
    * Executes the resize action by resizing the specified shape in the photo.
    * @param model The photo album in which the shape is to be resized.
@@ -31,6 +86,7 @@ public class Resize implements IAction {
     if (model == null || model.getCurrentState() == null)
       throw new IllegalArgumentException("Photo doesn't exist");
 
-    model.getCurrentState().resizeShape(shapeName, horizontalDimension, verticalDimension);
+    IPhoto photo = model.getCurrentState();
+    photo.resizeShape(getShapeId(photo.getNameTable()), horizontalDimension, verticalDimension);
   }
 }
@@ -9,6 +9,10 @@ public class TakeSnapshot implements IAction {
     this.description = description;
   }
 
+  public String getDescription() {
+    return description;
+  }
+
   @Override
   public void execute(IModel model) {
     if (model == null || model.getCurrentState() == null)
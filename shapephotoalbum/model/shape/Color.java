@@ -9,6 +9,7 @@ public class Color {
   int R;
   int G;
   int B;
+  private boolean readOnly;
 
   /**
    * Constructs a new Color object with the specified RGB components.
@@ -60,13 +61,26 @@ public class Color {
     return B;
   }
 
+  /**
+   * Makes the color read-only. Copies of the color can still be changed.
+   * @return This color.
+   */
+  public Color freeze() {
+    this.readOnly = true;
+    return this;
+  }
+
   /**
    * Sets the color to the specified RGB components.
    * @param R The red component to set.
    * @param G The green component to set.
    * @param B The blue component to set.
+   * @throws UnsupportedOperationException if the color is read-only.
    */
   public void setColor(int R, int G, int B) {
+    if (readOnly)
+      throw new UnsupportedOperationException("Color is read-only");
+
     this.R = R;
     this.G = G;
     this.B = B;
@@ -11,6 +11,13 @@ public interface IShape {
    */
   String getName();
 
+  /**
+   * Retrieves the ID of the shape's name in the {@link ShapeNameTable} of the album holding it.
+   * @return The ID of the name of the shape, or {@link ShapeNameTable#NO_NAME} if it belongs to
+   *         no album.
+   */
+  int getNameId();
+
   /**
    * Retrieves the type of the shape.
    * @return The type of the shape.
@@ -53,9 +60,25 @@ public interface IShape {
    */
   void setVerticalDimension(int v);
 
+  /**
+   * Makes the shape read-only, together with its position and color, so that it can be shared
+   * instead of copied. Setters then throw an {@link UnsupportedOperationException}, while
+   * copies of the shape can still be changed.
+   * @return This shape.
+   */
+  IShape freeze();
+
   /**
    * Creates a copy of the shape.
    * @return A copy of the shape.
    */
   IShape copy();
+
+  /**
+   * Creates a copy of the shape under another name ID, such as the ID its name has in the
+   * table of the album it is added to.
+   * @param nameId The ID of the name of the copy.
+   * @return A copy of the shape.
+   */
+  IShape copy(int nameId);
 }
@@ -7,10 +7,18 @@ public class Oval extends Shape {
     super(name, position, h, v, color);
   }
 
+  public Oval(String name, int nameId, Point2D position, int h, int v, Color color) {
+    super(name, nameId, position, h, v, color);
+  }
+
   public Oval(Oval original) {
     super(original);
   }
 
+  public Oval(Oval original, int nameId) {
+    super(original, nameId);
+  }
+
   /**
    * Retrieves the type of the oval.
    * @return The type of the oval.
@@ -28,8 +36,8 @@ public class Oval extends Shape {
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
-    if (!(o instanceof Shape)) return false;
-    Shape shape = (Shape) o;
+    if (!(o instanceof IShape)) return false;
+    IShape shape = (IShape) o;
     return getHorizontalDimension() == shape.getHorizontalDimension()
         && getVerticalDimension() == shape.getVerticalDimension()
         && Objects.equals(getName(), shape.getName())&& Objects.equals(getPosition(),
@@ -55,6 +63,16 @@ public class Oval extends Shape {
     return new Oval(this);
   }
 
+  /**
+   * Creates a copy of the oval under another name ID.
+   * @param nameId The ID of the name of the copy.
+   * @return A copy of the oval.
+   */
+  @Override
+  public IShape copy(int nameId) {
+    return new Oval(this, nameId);
+  }
+
   /**
    * Generates a string representation of the rectangle.
    * @return A string representation of the rectangle.
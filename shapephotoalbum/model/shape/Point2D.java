@@ -7,6 +7,7 @@ import java.util.Objects;
  */
 public class Point2D {
   private int x, y;
+  private boolean readOnly;
 
   /**
    * Constructs a new Point2D object with the specified coordinates.
@@ -48,12 +49,25 @@ public class Point2D {
     return y;
   }
 
+  /**
+   * Makes the point read-only. Copies of the point can still be changed.
+   * @return This point.
+   */
+  public Point2D freeze() {
+    this.readOnly = true;
+    return this;
+  }
+
   /**
    * Sets the position of the point to the specified coordinates.
    * @param x The x-coordinate to set.
    * @param y The y-coordinate to set.
+   * @throws UnsupportedOperationException if the point is read-only.
    */
   public void setPosition(int x, int y) {
+    if (readOnly)
+      throw new UnsupportedOperationException("Point is read-only");
+
     this.x = x;
     this.y = y;
   }
@@ -5,11 +5,13 @@ package shapesphotoalbum.model.shape;
  * Implements the IShape interface.
  */
 public abstract class Shape implements IShape {
-  private String name;
+  private final String name;
+  private final int nameId; // ID of the name in the table of the album holding the shape
   private Point2D position;
   private int horizontalDimension;
   private int verticalDimension;
   private Color color;
+  private boolean readOnly;
 
   /**
    * Constructs a new Shape object with the specified parameters.
@@ -21,10 +23,26 @@ public abstract class Shape implements IShape {
    * @throws IllegalArgumentException if any of the parameters are null or invalid.
    */
   public Shape(String name, Point2D position, int h, int v, Color color) {
+    this(name, ShapeNameTable.NO_NAME, position, h, v, color);
+  }
+
+  /**
+   * Constructs a new Shape object whose name is already interned.
+   * @param name The name of the shape (must not be null or empty).
+   * @param nameId The ID of the name of the shape in the {@link ShapeNameTable} of its album,
+   *               or {@link ShapeNameTable#NO_NAME} if it belongs to no album.
+   * @param position The position of the shape (must not be null).
+   * @param h The horizontal dimension of the shape.
+   * @param v The vertical dimension of the shape.
+   * @param color The color of the shape (must not be null).
+   * @throws IllegalArgumentException if any of the parameters are null or invalid.
+   */
+  public Shape(String name, int nameId, Point2D position, int h, int v, Color color) {
     if (name == null || name.isEmpty() || position == null || color == null)
       throw new IllegalArgumentException("One or more invalid inputs");
 
     this.name = name;
+    this.nameId = nameId;
     this.position = position;
     this.horizontalDimension = h;
     this.verticalDimension = v;
@@ -37,10 +55,21 @@ public abstract class Shape implements IShape {
    * @throws IllegalArgumentException if the original Shape object is null.
    */
   public Shape(Shape original) {
+    this(original, original == null ? ShapeNameTable.NO_NAME : original.nameId);
+  }
+
+  /**
+   * Constructs a new Shape object by copying another Shape object under another name ID.
+   * @param original The original Shape object to copy.
+   * @param nameId The ID of the name of the copy.
+   * @throws IllegalArgumentException if the original Shape object is null.
+   */
+  public Shape(Shape original, int nameId) {
     if (original == null)
       throw new IllegalArgumentException("No shape to be copied");
 
     this.name = original.name;
+    this.nameId = nameId;
     this.position = new Point2D(original.position);
     this.horizontalDimension = original.horizontalDimension;
     this.verticalDimension = original.verticalDimension;
@@ -56,6 +85,16 @@ public abstract class Shape implements IShape {
     return this.name;
   }
 
+  /**
+   * Retrieves the ID of the shape's name in the table of its album.
+   * @return The ID of the name of the shape, or {@link ShapeNameTable#NO_NAME} if it belongs to
+   *         no album.
+   */
+  @Override
+  public int getNameId() {
+    return this.nameId;
+  }
+
   /**
    * Retrieves the position of the shape.
    * @return The position of the shape.
@@ -92,21 +131,41 @@ public abstract class Shape implements IShape {
     return this.color;
   }
 
+  /**
+   * Makes the shape read-only, together with its position and color.
+   * @return This shape.
+   */
+  @Override
+  public IShape freeze() {
+    this.readOnly = true;
+    this.position.freeze();
+    this.color.freeze();
+    return this;
+  }
+
   /**
    * Sets the horizontal dimension of the shape.
    * @param h The horizontal dimension to set.
+   * @throws UnsupportedOperationException if the shape is read-only.
    */
   @Override
   public void setHorizontalDimension(int h) {
+    if (readOnly)
+      throw new UnsupportedOperationException("Shape is read-only");
+
     this.horizontalDimension = h;
   }
 
   /**
    * Sets the vertical dimension of the shape.
    * @param v The vertical dimension to set.
+   * @throws UnsupportedOperationException if the shape is read-only.
    */
   @Override
   public void setVerticalDimension(int v) {
+    if (readOnly)
+      throw new UnsupportedOperationException("Shape is read-only");
+
     this.verticalDimension = v;
   }
 
@@ -117,6 +176,14 @@ public abstract class Shape implements IShape {
   @Override
   public abstract IShape copy();
 
+  /**
+   * Creates a copy of the shape under another name ID.
+   * @param nameId The ID of the name of the copy.
+   * @return A copy of the shape.
+   */
+  @Override
+  public abstract IShape copy(int nameId);
+
   /**
    * Generates a string representation of the shape.
    * @return A string representation of the shape.
@@ -0,0 +1,149 @@
+package shapesphotoalbum.model.shape;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents a table of shape names.
+ * Each distinct name is interned once into a dense integer ID, so shapes, commands and
+ * photos can work with IDs and only turn them back into names when printing.
+ * Each album has a table of its own, held by its photo and shared by the copies of the photo,
+ * and a reader interns the names it parses into the table it is given. An ID only means
+ * something in the table that handed it out, so the tables of albums no longer in use are
+ * dropped with them. A table is safe to use from several threads.
+ */
+public final class ShapeNameTable {
+  /**
+   * The ID standing for a missing or invalid name, no shape ever has it.
+   */
+  public static final int NO_NAME = -1;
+
+  private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+  private volatile String[] names = new String[64];
+  private int count; // guarded by the table lock
+  private volatile Translation translation; // IDs here of the names of the last other table seen
+
+  /**
+   * Gets the ID of a name, interning the name if it is new.
+   * @param name The name to intern.
+   * @return The ID of the name, or {@link #NO_NAME} if the name is null or empty.
+   */
+  public int intern(String name) {
+    if (name == null || name.isEmpty())
+      return NO_NAME;
+
+    Integer id = ids.get(name);
+    if (id != null)
+      return id;
+
+    synchronized (this) {
+      id = ids.get(name);
+      if (id != null)
+        return id;
+
+      String[] table = names;
+      if (count == table.length)
+        table = Arrays.copyOf(table, count * 2);
+      table[count] = name;
+      names = table; // publish the name before its ID can be seen
+      ids.put(name, count);
+      return count++;
+    }
+  }
+
+  /**
+   * Gets the ID of a name without interning it.
+   * @param name The name to look up.
+   * @return The ID of the name, or {@link #NO_NAME} if the name was never interned.
+   */
+  public int find(String name) {
+    if (name == null)
+      return NO_NAME;
+
+    Integer id = ids.get(name);
+    return id == null ? NO_NAME : id;
+  }
+
+  /**
+   * Gets the ID of a name that has an ID in some table. The name is only looked up the first
+   * time an ID of the last other table is seen, so commands parsed by a reader with a table of
+   * its own still run on IDs.
+   * @param table The table the ID was handed out by, or null if there is none.
+   * @param id The ID of the name in that table.
+   * @param name The name.
+   * @return The ID of the name in this table, or {@link #NO_NAME} if it was never interned.
+   */
+  public int find(ShapeNameTable table, int id, String name) {
+    if (table == this)
+      return id;
+    if (table == null || id < 0)
+      return find(name);
+
+    Translation last = translation;
+    if (last == null || last.from != table) {
+      last = new Translation(table);
+      translation = last;
+    }
+    return last.find(this, id, name);
+  }
+
+  /**
+   * Checks if an ID belongs to an interned name.
+   * @param id The ID to check.
+   * @return True if the ID was handed out by this table, false otherwise.
+   */
+  public boolean contains(int id) {
+    String[] table = names;
+    return id >= 0 && id < table.length && table[id] != null;
+  }
+
+  /**
+   * Gets the name of an ID.
+   * @param id The ID of the name.
+   * @return The name.
+   * @throws IllegalArgumentException If the ID was not handed out by this table.
+   */
+  public String nameOf(int id) {
+    if (!contains(id))
+      throw new IllegalArgumentException("Unknown shape name ID: " + id);
+    return names[id];
+  }
+
+  /**
+   * Gets the number of names interned so far.
+   * @return The number of names.
+   */
+  public int size() {
+    return ids.size();
+  }
+
+  /**
+   * Represents the IDs in a table of the names of another table, filled in as they are looked
+   * up. Both tables only ever add names, so an ID once found stays right. Entries lost to a
+   * race are looked up again.
+   */
+  private static final class Translation {
+    private final ShapeNameTable from;
+    private volatile int[] ids = new int[64]; // ID here plus one, by ID there, 0 if not found yet
+
+    private Translation(ShapeNameTable from) {
+      this.from = from;
+    }
+
+    private int find(ShapeNameTable to, int id, String name) {
+      int[] known = ids;
+      if (id < known.length && known[id] != 0)
+        return known[id] - 1;
+
+      int found = to.find(name);
+      if (found == NO_NAME)
+        return NO_NAME; // the name may still be interned later
+      if (id >= known.length) {
+        known = Arrays.copyOf(known, Math.max(id + 1, known.length * 2));
+        ids = known;
+      }
+      known[id] = found + 1;
+      return found;
+    }
+  }
+}
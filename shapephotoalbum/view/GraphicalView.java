@@ -21,6 +21,7 @@ public class GraphicalView extends JFrame implements IGraphicalView {
   private JPanel snapshotContainer;
   private JPanel infoPanel;
   private JPanel buttonPanel;
+  private transient ICommandDelegate delegate; // handles the buttons once they are set up
 
   /**
    * Constructs a new GraphicalView with the specified caption, width, and height.
@@ -88,12 +89,17 @@ public class GraphicalView extends JFrame implements IGraphicalView {
 
   /**
    * Adds a snapshot ID to the menu in the graphical view.
+   * An item added after the buttons are set up selects its snapshot as well.
    *
    * @param snapshotId the ID of the snapshot to add to the menu.
    */
   public void addSnapshotToMenu(String snapshotId) {
     JMenuItem menuItem = new JMenuItem(snapshotId);
     btnJump.add(menuItem);
+    if (delegate != null) {
+      int index = btnJump.getItemCount() - 1;
+      menuItem.addActionListener(event -> delegate.selectMenu(index));
+    }
   }
 
   /**
@@ -146,6 +152,7 @@ public class GraphicalView extends JFrame implements IGraphicalView {
    */
   @Override
   public void addButtonReactors(ICommandDelegate delegate) {
+    this.delegate = delegate;
     btnInfo.addActionListener(event -> {
       delegate.showInfo();
       infoPanel.setVisible(!infoPanel.isVisible()); // Show or hide info
@@ -0,0 +1,266 @@
+package shapesphotoalbum.view;
+
+import shapesphotoalbum.controller.adaptor.SvgEmitter;
+import shapesphotoalbum.model.ISnapshot;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The PagedWebView class splits the album into HTML pages of a fixed number of snapshots, so
+ * that each page opens quickly however large the album is. The output file becomes an index
+ * listing the ID, timestamp and description of every snapshot, each linking to the snapshot on
+ * its page. A page named after the output file, such as {@code album-3.html} for
+ * {@code album.html}, links to the index and to the pages before and after it.
+ * The index is written as the snapshots are added. The pages are written by the workers of an
+ * executor as soon as they are full, several at a time, and at most a fixed number of them are
+ * pending at once, so memory stays capped. The view must be closed, which
+ * {@link #displayWindow()} does, to finish the files.
+ */
+public class PagedWebView implements IWebView, Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int MAX_PENDING_PAGES = 2 * Runtime.getRuntime().availableProcessors();
+
+  private final Path outputFile;
+  private final int pageSize;
+  private final ExecutorService writers;
+  private final Deque<Future<?>> pending = new ArrayDeque<>(); // pages being written, in order
+  private List<ISnapshot> page = new ArrayList<>(); // snapshots of the page being filled
+  private List<ISnapshot> full; // last full page, held until it is known whether it is the last
+  private int pages; // pages handed to the writers
+  private int added; // snapshots added
+  private Writer index; // null until the index is opened
+  private boolean closed;
+
+  /**
+   * Constructs a PagedWebView writing its index to the specified output file path and its pages
+   * next to it.
+   *
+   * @param outputFile the path to the output HTML index.
+   * @param pageSize the number of snapshots on each page.
+   * @param writers the executor writing the pages. It is not shut down by the view.
+   * @throws IllegalArgumentException if the page size is not positive or the executor is null.
+   */
+  public PagedWebView(String outputFile, int pageSize, ExecutorService writers) {
+    if (pageSize < 1)
+      throw new IllegalArgumentException("Page size must be positive");
+    if (writers == null)
+      throw new IllegalArgumentException("No executor given");
+
+    this.outputFile = Path.of(outputFile);
+    this.pageSize = pageSize;
+    this.writers = writers;
+  }
+
+  /**
+   * Adds a snapshot to the index and to the page being filled, opening the index first if
+   * needed. A page is handed to the writers once the snapshot after it is added.
+   *
+   * @param snapshot the snapshot to add to the HTML.
+   * @throws IllegalStateException if the view was already closed, or waiting for a page was
+   *                               interrupted.
+   * @throws UncheckedIOException if a file can't be written.
+   */
+  @Override
+  public void addSnapshot(ISnapshot snapshot) {
+    if (closed)
+      throw new IllegalStateException("Web view is already closed");
+
+    try {
+      openIndex();
+      if (full != null) {
+        submit(full, false);
+        full = null;
+      }
+
+      int number = added++;
+      page.add(snapshot);
+      index.write("<tr><td><a href='");
+      index.write(pageName(number / pageSize + 1));
+      index.write("#snapshot-" + (number + 1) + "'>");
+      index.write(escape(snapshot.getId()));
+      index.write("</a></td><td>");
+      index.write(escape(snapshot.getTimestamp()));
+      index.write("</td><td>");
+      index.write(escape(snapshot.getDescription()));
+      index.write("</td></tr>\n");
+
+      if (page.size() == pageSize) {
+        full = page;
+        page = new ArrayList<>();
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't write output file " + outputFile, e);
+    }
+  }
+
+  /**
+   * Finishes the output files.
+   */
+  @Override
+  public void displayWindow() {
+    close();
+  }
+
+  /**
+   * Hands the last page to the writers, finishes the index and waits for every page to be
+   * written. The index is opened first if no snapshot was added. Does nothing once closed.
+   *
+   * @throws UncheckedIOException if a file can't be written.
+   */
+  @Override
+  public void close() {
+    if (closed)
+      return;
+
+    closed = true;
+    try {
+      openIndex();
+      try (Writer writer = index) {
+        if (full != null)
+          submit(full, true);
+        else if (!page.isEmpty())
+          submit(page, true);
+        full = null;
+        page = null;
+
+        writer.write("</table>\n");
+        writer.write(WebView.FOOTER);
+        while (!pending.isEmpty())
+          awaitPage();
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't write output file " + outputFile, e);
+    }
+  }
+
+  /**
+   * Hands a page to the writers, first waiting for the oldest one if too many are pending.
+   */
+  private void submit(List<ISnapshot> snapshots, boolean last) {
+    while (pending.size() >= MAX_PENDING_PAGES)
+      awaitPage();
+
+    int number = ++pages;
+    pending.add(writers.submit(() -> writePage(number, snapshots, last)));
+  }
+
+  /**
+   * Waits for the oldest page being written. Should it fail, the pages after it are cancelled.
+   */
+  private void awaitPage() {
+    try {
+      pending.remove().get();
+    }
+    catch (ExecutionException | CancellationException e) {
+      cancelPending();
+      Throwable cause = e.getCause() == null ? e : e.getCause();
+      if (cause instanceof RuntimeException runtime)
+        throw runtime;
+      if (cause instanceof IOException io)
+        throw new UncheckedIOException("Can't write page of " + outputFile, io);
+      throw new IllegalStateException("Can't write page", cause);
+    }
+    catch (InterruptedException e) {
+      cancelPending();
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing pages", e);
+    }
+  }
+
+  /**
+   * Cancels the pages not written yet.
+   */
+  private void cancelPending() {
+    for (Future<?> future : pending)
+      future.cancel(true);
+    pending.clear();
+  }
+
+  /**
+   * Writes a page with its links and snapshots. Runs on a worker.
+   */
+  private Void writePage(int number, List<ISnapshot> snapshots, boolean last) throws IOException {
+    SvgEmitter emitter = new SvgEmitter(); // one per page, as they are not thread-safe
+    int first = (number - 1) * pageSize + 1;
+    try (Writer writer = create(outputFile.resolveSibling(pageName(number)))) {
+      writer.write(WebView.HEADER);
+      writer.write("<p><a href='" + outputFile.getFileName() + "'>Index</a>");
+      if (number > 1)
+        writer.write(" <a href='" + pageName(number - 1) + "'>Previous page</a>");
+      if (!last)
+        writer.write(" <a href='" + pageName(number + 1) + "'>Next page</a>");
+      writer.write(" Snapshots " + first + " to " + (first + snapshots.size() - 1) + "</p>\n");
+
+      for (int i = 0; i < snapshots.size(); i++) {
+        writer.write("<div class='snapshot' id='snapshot-" + (first + i) + "'>\n");
+        emitter.emitSnapshot(snapshots.get(i), writer);
+        writer.write("</div>\n");
+      }
+      writer.write(WebView.FOOTER);
+    }
+    return null;
+  }
+
+  /**
+   * Gets the file name of a page, made of the name of the output file and the page number.
+   */
+  private String pageName(int number) {
+    String name = outputFile.getFileName().toString();
+    int dot = name.lastIndexOf('.');
+    return dot > 0 ? name.substring(0, dot) + "-" + number + name.substring(dot)
+        : name + "-" + number;
+  }
+
+  /**
+   * Creates the index and writes its header, unless it is already open. Like {@link WebView},
+   * an existing file is never overwritten.
+   */
+  private void openIndex() throws IOException {
+    if (index != null)
+      return;
+
+    if (Files.exists(outputFile)) {
+      System.out.println("File already exists");
+      System.exit(0);
+    }
+
+    index = create(outputFile);
+    index.write(WebView.HEADER);
+    index.write("<table>\n");
+    index.write("<tr><th>Snapshot ID</th><th>Timestamp</th><th>Description</th></tr>\n");
+  }
+
+  /**
+   * Creates a new file to write text to, failing if it already exists.
+   */
+  private static Writer create(Path file) throws IOException {
+    return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file,
+        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), StandardCharsets.UTF_8), BUFFER_SIZE);
+  }
+
+  /**
+   * Escapes the characters of a text that HTML would read as markup.
+   */
+  private static String escape(String text) {
+    return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+}
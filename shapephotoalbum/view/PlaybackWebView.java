@@ -0,0 +1,309 @@
+package shapesphotoalbum.view;
+
+import shapesphotoalbum.model.ISnapshot;
+import shapesphotoalbum.model.shape.Color;
+import shapesphotoalbum.model.shape.IShape;
+import shapesphotoalbum.model.shape.Point2D;
+import shapesphotoalbum.model.shape.ShapeNameTable;
+import shapesphotoalbum.model.shape.ShapeType;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The PlaybackWebView class generates an HTML file that plays the album back in a single SVG
+ * element instead of drawing one per snapshot. Each shape is written once, and each snapshot
+ * only carries what changed since the previous one: the shapes that appeared, moved, were
+ * resized or recolored, and the shapes that disappeared. A small script steps through the
+ * snapshots, so the size of the file and the work of the browser grow with the number of
+ * changes rather than with the number of snapshots times the number of shapes.
+ * Like {@link StreamingWebView}, the snapshots are written as soon as they are added, and the
+ * view must be closed, which {@link #displayWindow()} does, to finish the file.
+ * A shape is drawn in the order it first appeared in the album.
+ */
+public class PlaybackWebView implements IWebView, Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int STATE_SIZE = 7; // x, y, width, height, red, green, blue
+  private static final String PLAYER = """
+      <div class='snapshot'>
+      <p>Snapshot ID: <span id='snapshot-id'></span></p>
+      <p>Snapshot Timestamp: <span id='snapshot-timestamp'></span></p>
+      <p>Snapshot Description: <span id='snapshot-description'></span></p>
+      <p><button id='previous'>Previous</button> <button id='play'>Play</button> \
+      <button id='next'>Next</button> <span id='position'></span></p>
+      """;
+  private static final String SCRIPT = """
+      <script>
+      (function () {
+        const shapes = document.querySelectorAll('#playback [data-shape]');
+        let shown = -1;
+        let timer = null;
+        function apply(frame) {
+          const changes = frame[3];
+          for (let i = 0; i < changes.length; i += 8) {
+            const shape = shapes[changes[i]];
+            const names = shape.tagName === 'rect' ? ['x', 'y', 'width', 'height'] : ['cx', 'cy', 'rx', 'ry'];
+            for (let j = 0; j < 4; j++)
+              shape.setAttribute(names[j], changes[i + 1 + j]);
+            shape.setAttribute('fill', 'rgb(' + changes[i + 5] + ',' + changes[i + 6] + ',' + changes[i + 7] + ')');
+            shape.setAttribute('visibility', 'visible');
+          }
+          for (const index of frame[4])
+            shapes[index].setAttribute('visibility', 'hidden');
+        }
+        function show(index) {
+          if (frames.length === 0)
+            return;
+          index = Math.max(0, Math.min(frames.length - 1, index));
+          if (index < shown) {
+            shapes.forEach(shape => shape.setAttribute('visibility', 'hidden'));
+            shown = -1;
+          }
+          while (shown < index)
+            apply(frames[++shown]);
+          document.getElementById('snapshot-id').textContent = frames[shown][0];
+          document.getElementById('snapshot-timestamp').textContent = frames[shown][1];
+          document.getElementById('snapshot-description').textContent = frames[shown][2];
+          document.getElementById('position').textContent = (shown + 1) + ' / ' + frames.length;
+        }
+        function stop() {
+          clearInterval(timer);
+          timer = null;
+          document.getElementById('play').textContent = 'Play';
+        }
+        document.getElementById('previous').onclick = () => { stop(); show(shown - 1); };
+        document.getElementById('next').onclick = () => { stop(); show(shown + 1); };
+        document.getElementById('play').onclick = () => {
+          if (timer !== null)
+            return stop();
+          if (shown === frames.length - 1)
+            show(0);
+          document.getElementById('play').textContent = 'Pause';
+          timer = setInterval(() => shown < frames.length - 1 ? show(shown + 1) : stop(), 1000);
+        };
+        show(0);
+      })();
+      </script>
+      """;
+
+  private final Path outputFile;
+  private final ShapeNameTable names = new ShapeNameTable(); // names of the shapes seen
+  private final Map<Long, Integer> indices = new HashMap<>(); // by name ID and type
+  private final List<ShapeType> types = new ArrayList<>(); // type of each shape, by index
+  private int[] states = new int[STATE_SIZE * 64]; // last state written of each shape, by index
+  private BitSet visible = new BitSet(); // shapes in the previous snapshot
+  private final StringBuilder frame = new StringBuilder();
+  private Writer output; // null until the file is opened
+  private boolean closed;
+
+  /**
+   * Constructs a PlaybackWebView writing to the specified output file path.
+   *
+   * @param outputFile the path to the output HTML file.
+   */
+  public PlaybackWebView(String outputFile) {
+    this.outputFile = Path.of(outputFile);
+  }
+
+  /**
+   * Writes the changes a snapshot makes to the previous one, opening the file first if needed.
+   *
+   * @param snapshot the snapshot to add to the HTML.
+   * @throws IllegalStateException if the view was already closed.
+   * @throws UncheckedIOException if the file can't be written.
+   */
+  @Override
+  public void addSnapshot(ISnapshot snapshot) {
+    if (closed)
+      throw new IllegalStateException("Web view is already closed");
+
+    frame.setLength(0);
+    frame.append("frames.push([");
+    appendString(snapshot.getId());
+    frame.append(',');
+    appendString(snapshot.getTimestamp());
+    frame.append(',');
+    appendString(snapshot.getDescription());
+    frame.append(",[");
+
+    BitSet present = new BitSet();
+    boolean first = true;
+    for (IShape shape : snapshot.getContent()) {
+      if (shape.getType() != ShapeType.RECTANGLE && shape.getType() != ShapeType.OVAL)
+        continue;
+
+      int index = indexOf(shape);
+      present.set(index);
+      boolean changed = update(index, shape);
+      if (visible.get(index) && !changed)
+        continue; // unchanged since the previous snapshot
+
+      if (!first)
+        frame.append(',');
+      first = false;
+      frame.append(index);
+      for (int i = 0; i < STATE_SIZE; i++)
+        frame.append(',').append(states[STATE_SIZE * index + i]);
+    }
+
+    frame.append("],[");
+    visible.andNot(present);
+    first = true;
+    for (int index = visible.nextSetBit(0); index >= 0; index = visible.nextSetBit(index + 1)) {
+      if (!first)
+        frame.append(',');
+      first = false;
+      frame.append(index);
+    }
+    frame.append("]]);\n");
+    visible = present;
+
+    try {
+      open();
+      output.append(frame);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't write output file " + outputFile, e);
+    }
+  }
+
+  /**
+   * Finishes the output HTML file.
+   */
+  @Override
+  public void displayWindow() {
+    close();
+  }
+
+  /**
+   * Writes the shapes, the player and the footer, then closes the output file. The header is
+   * written first if no snapshot was added. Does nothing once closed.
+   *
+   * @throws UncheckedIOException if the file can't be written.
+   */
+  @Override
+  public void close() {
+    if (closed)
+      return;
+
+    closed = true;
+    try {
+      open();
+      try (Writer writer = output) {
+        writer.write("</script>\n");
+        writer.write(PLAYER);
+        writer.write("<svg id='playback' width='1000' height='1000'>\n");
+        writer.write("<g transform=\"translate(0, 0)\">\n");
+        for (int index = 0; index < types.size(); index++) {
+          writer.write(types.get(index) == ShapeType.RECTANGLE ? "<rect" : "<ellipse");
+          writer.write(" data-shape='' visibility='hidden' />\n");
+        }
+        writer.write("</g>\n");
+        writer.write("</svg>\n");
+        writer.write("</div>\n");
+        writer.write(SCRIPT);
+        writer.write(WebView.FOOTER);
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't write output file " + outputFile, e);
+    }
+  }
+
+  /**
+   * Gets the index of a shape, giving it the next one if its name was not seen yet with its
+   * type. A shape removed then created again with the same type keeps its index.
+   */
+  private int indexOf(IShape shape) {
+    long key = (long) names.intern(shape.getName()) << 8 | shape.getType().ordinal();
+    Integer index = indices.get(key);
+    if (index != null)
+      return index;
+
+    index = types.size();
+    indices.put(key, index);
+    types.add(shape.getType());
+    if (states.length < STATE_SIZE * types.size())
+      states = Arrays.copyOf(states, states.length * 2);
+    return index;
+  }
+
+  /**
+   * Records the state of a shape.
+   *
+   * @return true if it differs from the state recorded before.
+   */
+  private boolean update(int index, IShape shape) {
+    Point2D position = shape.getPosition();
+    Color color = shape.getColor();
+    int offset = STATE_SIZE * index;
+    boolean changed = false;
+    changed |= set(offset, position.getX());
+    changed |= set(offset + 1, position.getY());
+    changed |= set(offset + 2, shape.getHorizontalDimension());
+    changed |= set(offset + 3, shape.getVerticalDimension());
+    changed |= set(offset + 4, color.getR());
+    changed |= set(offset + 5, color.getG());
+    changed |= set(offset + 6, color.getB());
+    return changed;
+  }
+
+  private boolean set(int offset, int value) {
+    if (states[offset] == value)
+      return false;
+    states[offset] = value;
+    return true;
+  }
+
+  /**
+   * Appends a string as a JavaScript string literal that can't end the script element.
+   */
+  private void appendString(String text) {
+    frame.append('"');
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '"' || c == '\\')
+        frame.append('\\').append(c);
+      else if (c < ' ' || c == '<' || c == '>' || c == '&')
+        frame.append(String.format("\\u%04x", (int) c));
+      else
+        frame.append(c);
+    }
+    frame.append('"');
+  }
+
+  /**
+   * Creates the output file and writes its header and the start of the script holding the
+   * snapshots, unless it is already open. Like {@link WebView}, an existing file is never
+   * overwritten.
+   */
+  private void open() throws IOException {
+    if (output != null)
+      return;
+
+    if (Files.exists(outputFile)) {
+      System.out.println("File already exists");
+      System.exit(0);
+    }
+
+    output = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(outputFile,
+        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), StandardCharsets.UTF_8), BUFFER_SIZE);
+    output.write(WebView.HEADER);
+    output.write("<script>\n");
+    output.write("const frames = [];\n");
+  }
+}
@@ -0,0 +1,216 @@
+package shapesphotoalbum.view;
+
+import shapesphotoalbum.controller.adaptor.SvgEmitter;
+import shapesphotoalbum.controller.adaptor.SvgSymbols;
+import shapesphotoalbum.model.ISnapshot;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The StreamingWebView class generates the same HTML file as {@link WebView}, but writes it
+ * while the snapshots are added instead of collecting them first.
+ * The header is written when the file is opened with the first snapshot, each snapshot is
+ * written through a buffer by an {@link SvgEmitter} as soon as it is added, and the footer is
+ * written when the view is closed, which {@link #displayWindow()} does. Memory use does not grow with the number of
+ * snapshots, so albums far larger than the heap can be exported.
+ * Given an executor, the markup of the snapshots is rendered by its workers instead, and each
+ * fragment is written as soon as it and all those before it are done, so the file keeps the
+ * album order. At most a fixed number of fragments are pending at once: adding a snapshot
+ * beyond that waits for the oldest one, which keeps memory capped however slow the disk is.
+ * Given a symbol table instead, each distinct shape state is written in full only where it first
+ * appears, and the snapshots after it refer to that element with {@code <use>}.
+ */
+public class StreamingWebView implements IWebView, Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final Path outputFile;
+  private final SvgEmitter emitter;
+  private final ExecutorService renderers; // null to render on the calling thread
+  private final int window; // most fragments rendered but not written yet
+  private final Deque<Future<String>> pending = new ArrayDeque<>(); // in album order
+  private Writer output; // null until the file is opened
+  private boolean closed;
+
+  /**
+   * Constructs a StreamingWebView writing to the specified output file path.
+   *
+   * @param outputFile the path to the output HTML file.
+   */
+  public StreamingWebView(String outputFile) {
+    this.outputFile = Path.of(outputFile);
+    this.emitter = new SvgEmitter();
+    this.renderers = null;
+    this.window = 0;
+  }
+
+  /**
+   * Constructs a StreamingWebView writing the shape states shared by the snapshots only once.
+   *
+   * @param outputFile the path to the output HTML file.
+   * @param symbols the table collecting the shape states written so far.
+   * @throws IllegalArgumentException if the table is null.
+   */
+  public StreamingWebView(String outputFile, SvgSymbols symbols) {
+    this.outputFile = Path.of(outputFile);
+    this.emitter = new SvgEmitter(symbols);
+    this.renderers = null;
+    this.window = 0;
+  }
+
+  /**
+   * Constructs a StreamingWebView rendering the snapshots on the workers of an executor. The
+   * executor is not shut down by the view.
+   *
+   * @param outputFile the path to the output HTML file.
+   * @param renderers the executor rendering the markup of each snapshot.
+   * @param window the most snapshots being rendered or waiting to be written at once.
+   * @throws IllegalArgumentException if the executor is null or the window is not positive.
+   */
+  public StreamingWebView(String outputFile, ExecutorService renderers, int window) {
+    if (renderers == null)
+      throw new IllegalArgumentException("No executor given");
+    if (window < 1)
+      throw new IllegalArgumentException("Window must be positive");
+
+    this.outputFile = Path.of(outputFile);
+    this.emitter = new SvgEmitter();
+    this.renderers = renderers;
+    this.window = window;
+  }
+
+  /**
+   * Writes a snapshot to the HTML file, opening it first if needed. With an executor, the
+   * snapshot is only handed to a worker, and the fragments finished by then are written.
+   *
+   * @param snapshot the snapshot to add to the HTML.
+   * @throws IllegalStateException if the view was already closed, or waiting for a fragment was
+   *                               interrupted.
+   * @throws UncheckedIOException if the file can't be written.
+   */
+  @Override
+  public void addSnapshot(ISnapshot snapshot) {
+    if (closed)
+      throw new IllegalStateException("Web view is already closed");
+
+    try {
+      open();
+      if (renderers == null) {
+        output.write("<div class='snapshot'>\n");
+        emitter.emitSnapshot(snapshot, output);
+        output.write("</div>\n");
+        return;
+      }
+
+      // An emitter per fragment, as they are not thread-safe and cost next to nothing
+      pending.add(renderers.submit(() -> {
+        StringBuilder html = new StringBuilder("<div class='snapshot'>\n");
+        new SvgEmitter().emitSnapshot(snapshot, html);
+        return html.append("</div>\n").toString();
+      }));
+      while (pending.size() >= window || !pending.isEmpty() && pending.peek().isDone())
+        writePending();
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't write output file " + outputFile, e);
+    }
+  }
+
+  /**
+   * Finishes the output HTML file.
+   */
+  @Override
+  public void displayWindow() {
+    close();
+  }
+
+  /**
+   * Writes the footer and closes the output file. The header is written first if no snapshot
+   * was added. Does nothing once closed.
+   *
+   * @throws UncheckedIOException if the file can't be written.
+   */
+  @Override
+  public void close() {
+    if (closed)
+      return;
+
+    closed = true;
+    try {
+      open();
+      try (Writer writer = output) {
+        while (!pending.isEmpty())
+          writePending();
+        writer.write(WebView.FOOTER);
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Can't write output file " + outputFile, e);
+    }
+  }
+
+  /**
+   * Waits for the oldest fragment being rendered and writes it. Should it fail, the fragments
+   * after it are cancelled.
+   */
+  private void writePending() throws IOException {
+    String html;
+    try {
+      html = pending.remove().get();
+    }
+    catch (ExecutionException | CancellationException e) {
+      cancelPending();
+      Throwable cause = e.getCause() == null ? e : e.getCause();
+      if (cause instanceof RuntimeException runtime)
+        throw runtime;
+      throw new IllegalStateException("Can't render snapshot", cause);
+    }
+    catch (InterruptedException e) {
+      cancelPending();
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while rendering snapshots", e);
+    }
+    output.write(html);
+  }
+
+  /**
+   * Cancels the fragments not written yet.
+   */
+  private void cancelPending() {
+    for (Future<String> fragment : pending)
+      fragment.cancel(true);
+    pending.clear();
+  }
+
+  /**
+   * Creates the output file and writes its header, unless it is already open. Like
+   * {@link WebView}, an existing file is never overwritten.
+   */
+  private void open() throws IOException {
+    if (output != null)
+      return;
+
+    if (Files.exists(outputFile)) {
+      System.out.println("File already exists");
+      System.exit(0);
+    }
+
+    output = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(outputFile,
+        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), StandardCharsets.UTF_8), BUFFER_SIZE);
+    output.write(WebView.HEADER);
+  }
+}
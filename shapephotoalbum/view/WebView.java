@@ -11,6 +11,32 @@ import java.io.FileNotFoundException;
  * It generates an HTML file containing snapshots in XML format.
  */
 public class WebView implements IWebView {
+  static final String HEADER = """
+      <!DOCTYPE html>
+      <html>
+      <head>
+      <title>CS5004 Shapes Photo Album</title>
+      <style>
+      .snapshot {
+          border: 2px solid black;
+          padding: 10px;
+          margin-bottom: 20px;
+          background-color: rgb(255, 255, 153);
+      }
+      h1 {
+        font-family: 'Comic Sans MS', cursive;
+        color: orange;
+      }
+      </style>
+      </head>
+      <body>
+      <h1>Welcome To The Album!</h1>
+      """;
+  static final String FOOTER = """
+      </body>
+      </html>
+      """;
+
   private final String outputFile;
   private final StringBuilder snapshotsXML;
 
@@ -55,37 +81,7 @@ public class WebView implements IWebView {
    * @return the content of the HTML file as a string.
    */
   private String builtFile() {
-    StringBuilder html = new StringBuilder();
-
-    html.append("<!DOCTYPE html>\n");
-    html.append("<html>\n");
-    html.append("<head>\n");
-    html.append("<title>CS5004 Shapes Photo Album</title>\n");
-
-    html.append("<style>\n");
-    html.append(".snapshot {\n");
-    html.append("    border: 2px solid black;\n");
-    html.append("    padding: 10px;\n");
-    html.append("    margin-bottom: 20px;\n");
-    html.append("    background-color: rgb(255, 255, 153);\n");
-    html.append("}\n");
-
-    html.append("h1 {\n");
-    html.append("  font-family: 'Comic Sans MS', cursive;\n");
-    html.append("  color: orange;\n");
-        html.append("}\n");
-    html.append("</style>\n");
-
-    html.append("</head>\n");
-    html.append("<body>\n");
-
-    html.append("<h1>Welcome To The Album!</h1>\n");
-    html.append(snapshotsXML);
-
-    html.append("</body>\n");
-    html.append("</html>\n");
-
-    return html.toString();
+    return HEADER + snapshotsXML + FOOTER;
   }
 
   /**
@@ -95,8 +91,16 @@ public class WebView implements IWebView {
    */
   @Override
   public void addSnapshot(ISnapshot snapshot) {
-    snapshotsXML.append("<div class='snapshot'>\n");
-    snapshotsXML.append(new SnapshotXML(snapshot).getSnapshotXML());
-    snapshotsXML.append("</div>\n");
+    snapshotsXML.append(snapshotHtml(snapshot));
+  }
+
+  /**
+   * Builds the HTML of one snapshot.
+   *
+   * @param snapshot the snapshot to convert.
+   * @return the snapshot in its own block.
+   */
+  static String snapshotHtml(ISnapshot snapshot) {
+    return "<div class='snapshot'>\n" + new SnapshotXML(snapshot).getSnapshotXML() + "</div>\n";
   }
 }
@@ -1,19 +1,33 @@
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import shapesphotoalbum.controller.reader.ActionReader;
+import shapesphotoalbum.controller.reader.BinaryAlbumWriter;
+import shapesphotoalbum.controller.reader.CommandRegistry;
 import shapesphotoalbum.model.IModel;
 import shapesphotoalbum.model.ISnapshot;
 import shapesphotoalbum.model.ShapesPhotoAlbumModel;
 import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.command.Move;
 import shapesphotoalbum.model.shape.Color;
 import shapesphotoalbum.model.shape.IShape;
 import shapesphotoalbum.model.shape.Point2D;
 import shapesphotoalbum.model.shape.ShapeType;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test class for ActionReader.
@@ -65,4 +79,268 @@ public class ActionReaderTest {
     assertEquals(25, content.get(0).getHorizontalDimension());
     assertEquals(new Color(255, 0, 0), content.get(0).getColor());
   }
+
+  /**
+   * Test that the streaming readInput() runs each action before the next line is read.
+   */
+  @Test
+  void testReadInputStreaming() {
+    String inputData = """
+                shape myrect rectangle 200 200 50 100 255 0 0
+                snapshot After first selfie
+                move myrect 300 200
+                not a command
+                snapshot Moved
+                """;
+
+    // Count the lines read so far, handing out one byte at a time
+    int[] lines = {0};
+    InputStream inputStream = new ByteArrayInputStream(inputData.getBytes()) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        int read = super.read(b, off, Math.min(len, 1));
+        if (read > 0 && b[off] == '\n')
+          lines[0]++;
+        return read;
+      }
+
+      @Override
+      public synchronized int available() {
+        return 0;
+      }
+    };
+
+    List<Integer> snapshotsSeen = new ArrayList<>();
+    List<Integer> linesSeen = new ArrayList<>();
+    ActionReader.readInput(inputStream, action -> {
+      snapshotsSeen.add(model.getSnapshotCount());
+      linesSeen.add(lines[0]);
+      model.executeCommand(action);
+    });
+
+    // The first snapshot existed while the rest of the file was still unread
+    assertEquals(List.of(0, 0, 1, 1), snapshotsSeen);
+    assertEquals(List.of(1, 2, 3, 5), linesSeen);
+    assertEquals(2, model.getSnapshotCount());
+    assertEquals("Moved", model.getSnapshot(1).getDescription());
+  }
+
+  /**
+   * Test that reading a file through its mapped bytes gives the same actions as reading it
+   * as a stream, and rejects invalid commands the same way.
+   */
+  @Test
+  void testReadInputFromFile(@TempDir Path dir) throws IOException {
+    String inputData = """
+                SHAPE myrect rectangle 200 -200 50 100 255 0 0
+                \tshape   myoval oval 500 100 60 30 0 255 0\r
+                Move myrect +300 200
+                # move myoval 0 0
+                resize myoval 25 100
+                snapshot   After   first selfie
+                color myrect 0 0 255
+                remove myoval
+                snapshot
+                """;
+    Path file = dir.resolve("input.txt");
+    Files.writeString(file, inputData);
+
+    IModel streamed = new ShapesPhotoAlbumModel();
+    ActionReader.readInput(new ByteArrayInputStream(inputData.getBytes()), streamed::executeCommand);
+    try (InputStream in = new FileInputStream(file.toFile())) {
+      ActionReader.readInput(in, model::executeCommand);
+    }
+
+    assertEquals(2, model.getSnapshotCount());
+    for (int i = 0; i < 2; i++) {
+      assertEquals(streamed.getSnapshot(i).getDescription(), model.getSnapshot(i).getDescription());
+      assertEquals(streamed.getSnapshot(i).getContent(), model.getSnapshot(i).getContent());
+    }
+    assertEquals("After first selfie", model.getSnapshot(0).getDescription());
+    assertEquals(new Point2D(300, 200), model.getSnapshot(0).getContent().get(0).getPosition());
+
+    // Invalid commands fail with the messages of the transforms
+    for (String invalid : List.of("move myrect 3x 4", "resize myrect 1", "shape s star 0 0 1 1 0 0 0",
+        "color myrect 0 0 99999999999")) {
+      Files.writeString(file, invalid);
+      IllegalArgumentException expected = assertThrows(IllegalArgumentException.class,
+          () -> ActionReader.readInput(new ByteArrayInputStream(invalid.getBytes())));
+      try (InputStream in = new FileInputStream(file.toFile())) {
+        IllegalArgumentException actual =
+            assertThrows(IllegalArgumentException.class, () -> ActionReader.readInput(in));
+        assertEquals(expected.getMessage(), actual.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Test that parsing a file in parallel executes the actions in their original order, and
+   * stops at the first invalid command after running the ones before it.
+   */
+  @Test
+  void testReadInputParallel(@TempDir Path dir) throws IOException {
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      input.append("shape s").append(i).append(" oval ").append(i).append(" 0 10 10 0 0 0\n");
+      input.append("move s").append(i).append(' ').append(i + 1).append(" 5\n");
+      if (i % 1000 == 999)
+        input.append("snapshot After ").append(i).append('\n');
+    }
+    Path file = dir.resolve("input.txt");
+    Files.writeString(file, input);
+
+    IModel sequential = new ShapesPhotoAlbumModel();
+    try (InputStream in = new FileInputStream(file.toFile())) {
+      ActionReader.readInput(in, sequential::executeCommand);
+    }
+    try (InputStream in = new FileInputStream(file.toFile())) {
+      ActionReader.readInput(in, model::executeCommand, ForkJoinPool.commonPool());
+    }
+
+    assertEquals(20, model.getSnapshotCount());
+    for (int i = 0; i < 20; i++) {
+      assertEquals(sequential.getSnapshot(i).getDescription(), model.getSnapshot(i).getDescription());
+      assertEquals(sequential.getSnapshot(i).getContent(), model.getSnapshot(i).getContent());
+    }
+
+    // Everything before the first invalid command runs, nothing after it
+    input.append("move s0 oops 1\nsnapshot Too far\nresize s0 1\n");
+    Files.writeString(file, input);
+    IModel failing = new ShapesPhotoAlbumModel();
+    try (InputStream in = new FileInputStream(file.toFile())) {
+      IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+          () -> ActionReader.readInput(in, failing::executeCommand, ForkJoinPool.commonPool()));
+      assertEquals("Invalid value for action Move", e.getMessage());
+    }
+    assertEquals(20, failing.getSnapshotCount());
+  }
+
+  /**
+   * Test that a compiled album is recognized from its header and loads the same actions as
+   * the text it was compiled from, whether it is read from a file or another stream.
+   */
+  @Test
+  void testReadCompiledAlbum(@TempDir Path dir) throws IOException {
+    String inputData = """
+                shape myrect rectangle 200 -200 50 100 255 0 0
+                shape myoval oval 500 100 60 30 0 255 0
+                move myrect -300 200
+                snapshot After first selfie
+                resize myoval 25 100
+                color myrect 0 0 255
+                remove myoval
+                snapshot Décor
+                """;
+    ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+    BinaryAlbumWriter.compile(new ByteArrayInputStream(inputData.getBytes()), compiled);
+    byte[] bytes = compiled.toByteArray();
+    assertTrue(bytes.length < inputData.length() / 2);
+
+    Path file = dir.resolve("album.bin");
+    Files.write(file, bytes);
+    IModel fromFile = new ShapesPhotoAlbumModel();
+    try (InputStream in = new FileInputStream(file.toFile())) {
+      ActionReader.readInput(in, fromFile::executeCommand);
+    }
+    ActionReader.readInput(new ByteArrayInputStream(bytes), model::executeCommand);
+    IModel fromText = new ShapesPhotoAlbumModel();
+    ActionReader.readInput(new ByteArrayInputStream(inputData.getBytes()), fromText::executeCommand);
+
+    for (IModel loaded : List.of(fromFile, model)) {
+      assertEquals(2, loaded.getSnapshotCount());
+      for (int i = 0; i < 2; i++) {
+        assertEquals(fromText.getSnapshot(i).getDescription(), loaded.getSnapshot(i).getDescription());
+        assertEquals(fromText.getSnapshot(i).getContent(), loaded.getSnapshot(i).getContent());
+      }
+    }
+
+    // An album cut short is rejected instead of loading part of it
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+    assertThrows(IllegalStateException.class,
+        () -> ActionReader.readInput(new ByteArrayInputStream(truncated)));
+  }
+
+  /**
+   * Test that a command registered by other code is parsed from streams and files alike,
+   * ignoring case, and that the built-in commands can't be replaced.
+   */
+  @Test
+  void testRegisterCommand(@TempDir Path dir) throws IOException {
+    String inputData = """
+                shape myrect rectangle 200 200 50 100 255 0 0
+                Origin myrect
+                snapshot At origin
+                """;
+    CommandRegistry commands = ActionReader.getCommands();
+    assertThrows(IllegalArgumentException.class,
+        () -> commands.register("MOVE", line -> new Move(line[1], 0, 0)));
+    assertThrows(IllegalArgumentException.class,
+        () -> commands.register("two words", line -> null));
+
+    commands.register("origin", line -> {
+      if (line.length != 2)
+        throw new IllegalArgumentException("Invalid instruction for action Origin");
+      return new Move(line[1], 0, 0);
+    });
+    try {
+      Path file = Files.writeString(dir.resolve("input.txt"), inputData);
+      IModel fromFile = new ShapesPhotoAlbumModel();
+      try (InputStream in = new FileInputStream(file.toFile())) {
+        ActionReader.readInput(in, fromFile::executeCommand);
+      }
+      ActionReader.readInput(new ByteArrayInputStream(inputData.getBytes()), model::executeCommand);
+
+      for (IModel loaded : List.of(fromFile, model)) {
+        IShape shape = loaded.getSnapshot(0).getContent().get(0);
+        assertEquals(new Point2D(0, 0), shape.getPosition());
+      }
+      assertThrows(IllegalArgumentException.class,
+          () -> ActionReader.readInput(new ByteArrayInputStream("origin".getBytes())));
+    }
+    finally {
+      commands.unregister("origin");
+    }
+    assertEquals(0, ActionReader.readInput(new ByteArrayInputStream("origin myrect".getBytes())).size());
+  }
+
+  /**
+   * Test that a command registered in a registry of its own is only understood by readers
+   * given that registry, from streams, mapped files and parallel chunks alike.
+   */
+  @Test
+  void testOwnRegistry(@TempDir Path dir) throws IOException {
+    String inputData = """
+                shape myrect rectangle 200 200 50 100 255 0 0
+                origin myrect
+                snapshot At origin
+                """;
+    CommandRegistry commands = new CommandRegistry();
+    commands.register("origin", line -> new Move(line[1], 0, 0));
+    Path file = Files.writeString(dir.resolve("input.txt"), inputData);
+
+    IModel fromStream = new ShapesPhotoAlbumModel();
+    ActionReader.readInput(new ByteArrayInputStream(inputData.getBytes()),
+        fromStream::executeCommand, null, commands);
+    IModel fromFile = new ShapesPhotoAlbumModel();
+    try (InputStream in = new FileInputStream(file.toFile())) {
+      ActionReader.readInput(in, fromFile::executeCommand, null, commands);
+    }
+    IModel fromChunks = new ShapesPhotoAlbumModel();
+    try (InputStream in = new FileInputStream(file.toFile())) {
+      ActionReader.readInput(in, fromChunks::executeCommand, ForkJoinPool.commonPool(), commands);
+    }
+    for (IModel loaded : List.of(fromStream, fromFile, fromChunks)) {
+      IShape shape = loaded.getSnapshot(0).getContent().get(0);
+      assertEquals(new Point2D(0, 0), shape.getPosition());
+    }
+
+    // The shared registry doesn't know the command
+    try (InputStream in = new FileInputStream(file.toFile())) {
+      ActionReader.readInput(in, model::executeCommand);
+    }
+    assertEquals(new Point2D(200, 200), model.getSnapshot(0).getContent().get(0).getPosition());
+    assertThrows(IllegalArgumentException.class,
+        () -> ActionReader.readInput(new ByteArrayInputStream(inputData.getBytes()),
+            action -> { }, null, null));
+  }
 }
@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import shapesphotoalbum.controller.AlbumCache;
+import shapesphotoalbum.controller.reader.ActionReader;
+import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.ShapesPhotoAlbumModel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for AlbumCache.
+ */
+public class AlbumCacheTest {
+  private static final String INPUT = """
+      shape myrect rectangle 200 200 50 100 255 0 0
+      snapshot First
+      move myrect 300 200
+      snapshot Second
+      """;
+
+  /**
+   * Test that an album is found again only for the same input content, and that misses and
+   * hits are counted.
+   */
+  @Test
+  void testGetAndPut(@TempDir Path dir) throws IOException {
+    Path input = Files.writeString(dir.resolve("input.txt"), INPUT);
+    AlbumCache cache = new AlbumCache(dir.resolve("cache"), 1 << 20);
+
+    String key = AlbumCache.keyOf(input);
+    assertNull(cache.get(key));
+    cache.put(key, build(input));
+
+    IModel cached = cache.get(AlbumCache.keyOf(input));
+    assertNotNull(cached);
+    assertEquals(2, cached.getSnapshotCount());
+    assertEquals("Second", cached.getSnapshot(1).getDescription());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+
+    // A different content of the same file is a different entry
+    Files.writeString(input, INPUT.replace("300", "301"));
+    assertNotEquals(key, AlbumCache.keyOf(input));
+    assertNull(cache.get(AlbumCache.keyOf(input)));
+
+    // A damaged entry is dropped instead of loaded
+    Files.write(dir.resolve("cache").resolve(key + ".album"), new byte[] {1, 2, 3});
+    assertNull(cache.get(key));
+    assertFalse(Files.exists(dir.resolve("cache").resolve(key + ".album")));
+    assertEquals(3, cache.getMissCount());
+  }
+
+  /**
+   * Test that the least recently used entries are evicted to stay within the size limit.
+   */
+  @Test
+  void testEviction(@TempDir Path dir) throws IOException {
+    Path input = Files.writeString(dir.resolve("input.txt"), INPUT);
+    IModel model = build(input);
+    Path cacheDir = dir.resolve("cache");
+
+    AlbumCache probe = new AlbumCache(dir.resolve("probe"), 1 << 20);
+    probe.put("entry", model);
+    long entrySize = Files.size(dir.resolve("probe").resolve("entry.album"));
+
+    AlbumCache cache = new AlbumCache(cacheDir, entrySize * 2);
+    cache.put("a", model);
+    cache.put("b", model);
+    Files.setLastModifiedTime(cacheDir.resolve("a.album"), FileTime.fromMillis(1000));
+    Files.setLastModifiedTime(cacheDir.resolve("b.album"), FileTime.fromMillis(2000));
+    assertNotNull(cache.get("a")); // now the most recently used
+
+    cache.put("c", model);
+    assertTrue(Files.exists(cacheDir.resolve("a.album")));
+    assertFalse(Files.exists(cacheDir.resolve("b.album")));
+    assertTrue(Files.exists(cacheDir.resolve("c.album")));
+  }
+
+  /**
+   * Test that a hit gives the same album as the miss that filled the cache, even for colors
+   * with components outside 0 to 255.
+   */
+  @Test
+  void testHitEqualsMiss(@TempDir Path dir) throws IOException {
+    Path input = Files.writeString(dir.resolve("input.txt"), """
+        shape a rectangle 0 0 10 10 300 -5 0
+        snapshot First
+        shape b oval 5 5 20 20 -1 256 70000
+        snapshot Second
+        move a 10 10
+        """);
+    AlbumCache cache = new AlbumCache(dir.resolve("cache"), 1 << 20);
+    IModel missed = build(input);
+    cache.put(AlbumCache.keyOf(input), missed);
+
+    IModel hit = cache.get(AlbumCache.keyOf(input));
+    assertNotNull(hit);
+    assertEquals(missed.getSnapshotCount(), hit.getSnapshotCount());
+    for (int i = 0; i < missed.getSnapshotCount(); i++) {
+      assertEquals(missed.getSnapshot(i).getId(), hit.getSnapshot(i).getId());
+      assertEquals(missed.getSnapshot(i).getContent(), hit.getSnapshot(i).getContent());
+    }
+    assertEquals(missed.getCurrentState().toString(), hit.getCurrentState().toString());
+  }
+
+  private static IModel build(Path input) throws IOException {
+    IModel model = new ShapesPhotoAlbumModel();
+    try (InputStream in = Files.newInputStream(input)) {
+      ActionReader.readInput(in, model::executeCommand);
+    }
+    return model;
+  }
+}
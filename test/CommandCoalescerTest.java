@@ -0,0 +1,90 @@
+import org.junit.jupiter.api.Test;
+import shapesphotoalbum.controller.reader.ActionReader;
+import shapesphotoalbum.controller.reader.CommandCoalescer;
+import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.ShapesPhotoAlbumModel;
+import shapesphotoalbum.model.command.IAction;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CommandCoalescer.
+ */
+public class CommandCoalescerTest {
+  private static final String INPUT = """
+      shape myrect rectangle 200 200 50 100 255 0 0
+      shape myoval oval 500 100 60 30 0 255 0
+      snapshot Start
+      move myrect 210 200
+      move myrect 220 200
+      color myoval 0 0 255
+      move myrect 230 200
+      color myoval 0 0 128
+      shape temp rectangle 0 0 10 10 0 0 0
+      move temp 5 5
+      remove temp
+      snapshot Moved
+      shape late oval 10 10 5 5 1 2 3
+      move late 20 20
+      resize late 6 7
+      color late 4 5 6
+      resize myoval 10 10
+      remove myoval
+      snapshot Late
+      move late 30 30
+      move late 40 40
+      """;
+
+  /**
+   * Test that the coalesced commands give the same snapshots and final photo with fewer
+   * commands.
+   */
+  @Test
+  void testCoalesce() {
+    List<IAction> actions = ActionReader.readInput(new ByteArrayInputStream(INPUT.getBytes()));
+    List<IAction> coalesced = CommandCoalescer.coalesce(actions);
+    // 2 moves and a color change folded, temp never seen, 3 edits of late folded into its
+    // creation, the resize of myoval dropped, 1 move after the last snapshot folded
+    assertEquals(actions.size() - 11, coalesced.size());
+
+    IModel expected = new ShapesPhotoAlbumModel();
+    actions.forEach(expected::executeCommand);
+    IModel model = new ShapesPhotoAlbumModel();
+    coalesced.forEach(model::executeCommand);
+
+    assertEquals(expected.getSnapshotCount(), model.getSnapshotCount());
+    for (int i = 0; i < expected.getSnapshotCount(); i++) {
+      assertEquals(expected.getSnapshot(i).getDescription(), model.getSnapshot(i).getDescription());
+      assertEquals(expected.getSnapshot(i).getContent(), model.getSnapshot(i).getContent());
+    }
+    assertEquals(expected.getCurrentState().takeSnapshot(null).getContent(),
+        model.getCurrentState().takeSnapshot(null).getContent());
+  }
+
+  /**
+   * Test that streamed actions are held back only until the next snapshot, and that
+   * colors out of bounds still fail.
+   */
+  @Test
+  void testStreaming() {
+    IModel model = new ShapesPhotoAlbumModel();
+    CommandCoalescer coalescer = new CommandCoalescer(model::executeCommand);
+    ActionReader.readInput(new ByteArrayInputStream(INPUT.getBytes()), coalescer);
+    assertEquals(3, model.getSnapshotCount());
+    assertNull(model.getCurrentState().takeSnapshot(null).getContent().stream()
+        .filter(shape -> shape.getName().equals("late") && shape.getPosition().getX() == 40)
+        .findAny().orElse(null));
+
+    coalescer.flush();
+    assertEquals(40, model.getCurrentState().takeSnapshot(null).getContent().stream()
+        .filter(shape -> shape.getName().equals("late")).findAny().orElseThrow().getPosition().getX());
+    assertEquals(11, coalescer.getCoalescedCount());
+
+    CommandCoalescer failing = new CommandCoalescer(model::executeCommand);
+    ActionReader.readInput(new ByteArrayInputStream("color myrect 0 300 0\ncolor myrect 0 0 0".getBytes()), failing);
+    assertThrows(IllegalArgumentException.class, failing::flush);
+  }
+}
@@ -1,5 +1,6 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import shapesphotoalbum.controller.GraphicalController;
 import shapesphotoalbum.controller.ICommandDelegate;
 import shapesphotoalbum.controller.WebController;
@@ -10,8 +11,12 @@ import shapesphotoalbum.view.IGraphicalView;
 import shapesphotoalbum.view.IWebView;
 
 import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -63,6 +68,46 @@ class MockModel implements IModel {
     return copy;
   }
 
+  @Override
+  public int getSnapshotCount() {
+    log.append("Get snapshot count\n");
+    return snapshots.size();
+  }
+
+  @Override
+  public List<SnapshotInfo> getSnapshotInfo() {
+    List<SnapshotInfo> info = new ArrayList<>();
+    for (ISnapshot s : snapshots.values()) {
+      log.append("Get snapshot info: ").append(s.getDescription()).append("\n");
+      info.add(new SnapshotInfo(info.size(), s));
+    }
+    return info;
+  }
+
+  @Override
+  public ISnapshot getSnapshot(int index) {
+    ISnapshot s = new ArrayList<>(snapshots.values()).get(index);
+    log.append("Get snapshot: ").append(s.getDescription()).append("\n");
+    return s;
+  }
+
+  @Override
+  public ISnapshot getSnapshot(String id) {
+    ISnapshot s = snapshots.get(id);
+    if (s == null)
+      throw new IllegalArgumentException("Snapshot doesn't exist");
+    log.append("Get snapshot: ").append(s.getDescription()).append("\n");
+    return s;
+  }
+
+  @Override
+  public Iterator<ISnapshot> getSnapshots(int from, int to) {
+    List<ISnapshot> range = new ArrayList<>(snapshots.values()).subList(from, to);
+    for (ISnapshot s : range)
+      log.append("Get snapshot: ").append(s.getDescription()).append("\n");
+    return range.iterator();
+  }
+
   @Override
   public void takeSnapshot(String description) {
     log.append("Take snapshot, description: ").append(description).append("\n");
@@ -186,8 +231,10 @@ public class IControllerTest {
               Model executes command
               Model executes command
               Model executes command
+              Get snapshot count
+              Get snapshot info: First snapshot
+              Get snapshot info: Second snapshot
               Get snapshot: First snapshot
-              Get snapshot: Second snapshot 
               """;
     assertEquals(expectedOutput, mockGraphicModel.getOutput());
 
@@ -259,4 +306,28 @@ public class IControllerTest {
                 """;
     assertEquals(expectedOutput, mockGraphicalView.getOutput());
   }
+
+  /**
+   * Test that the buttons of a tailed album with no snapshot yet only tell the user so.
+   */
+  @Test
+  void testTailWithoutSnapshots(@TempDir Path dir) throws IOException {
+    Path file = Files.writeString(dir.resolve("input.txt"), "shape myrect rectangle 200 200 50 100 255 0 0\n");
+    try (InputStream in = new FileInputStream(file.toFile())) {
+      GraphicalController controller =
+          new GraphicalController(new ShapesPhotoAlbumModel(), mockGraphicalView, in, null, true);
+      controller.showInfo();
+      controller.selectMenu(0);
+      controller.pageForward();
+      controller.pageBackward();
+    }
+
+    String expectedOutput = """
+                Pop-up window shown: No snapshots in this album yet.
+                Pop-up window shown: No snapshots in this album yet.
+                Pop-up window shown: No snapshots in this album yet.
+                Pop-up window shown: No snapshots in this album yet.
+                """;
+    assertEquals(expectedOutput, mockGraphicalView.getOutput());
+  }
 }
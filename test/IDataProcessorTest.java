@@ -1,11 +1,20 @@
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import shapesphotoalbum.controller.reader.FileProcessor;
 import shapesphotoalbum.controller.reader.IDataProcessor;
+import shapesphotoalbum.controller.reader.MappedFileProcessor;
+import shapesphotoalbum.controller.reader.ParallelFileProcessor;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
@@ -48,6 +57,63 @@ public class IDataProcessorTest {
     assertEquals("100", content.get(8)[3]);
   }
 
+  /**
+   * Tests the memory-mapped file processor.
+   * Verifies that it splits every line the same way as the file processor.
+   */
+  @Test
+  void testMappedFileProcessor(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("input.txt");
+    Files.writeString(file, """
+        # Make a rectangle
+            shape myrect rectangle 200 200 50 100 255 0 0
+
+        \tcolor  myrect 0 0 255\r
+        snapshot   été
+        remove myrect""");
+
+    List<String[]> expected = new FileProcessor(Files.newInputStream(file)).process();
+    List<String[]> content;
+    try (FileChannel channel = FileChannel.open(file)) {
+      content = new MappedFileProcessor(channel).process();
+    }
+
+    assertEquals(expected.size(), content.size());
+    for (int i = 0; i < expected.size(); i++)
+      assertArrayEquals(expected.get(i), content.get(i));
+    assertArrayEquals(new String[] {"snapshot", "été"}, content.get(4));
+  }
+
+  /**
+   * Tests the parallel file processor.
+   * Verifies that splitting the file into small chunks keeps every line whole and in order.
+   */
+  @Test
+  void testParallelFileProcessor(@TempDir Path dir) throws IOException {
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      input.append("shape rect").append(i).append(" rectangle 200 200 50 100 255 0 0\n");
+      input.append("\n");
+      input.append("  move rect").append(i).append(" 300 200\n");
+    }
+    Path file = dir.resolve("input.txt");
+    Files.writeString(file, input);
+
+    List<String[]> expected = new FileProcessor(Files.newInputStream(file)).process();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try (FileChannel channel = FileChannel.open(file)) {
+      List<String[]> content = new ParallelFileProcessor(channel, pool, 100).process();
+
+      assertEquals(expected.size(), content.size());
+      for (int i = 0; i < expected.size(); i++)
+        assertArrayEquals(expected.get(i), content.get(i));
+      assertEquals(Files.size(file), channel.position());
+    }
+    finally {
+      pool.shutdown();
+    }
+  }
+
   /**
    * Provides mock input data as a list of string arrays for testing purposes.
    */
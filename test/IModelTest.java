@@ -1,11 +1,20 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import shapesphotoalbum.model.AlbumStateFile;
+import shapesphotoalbum.model.EventSourcedAlbumModel;
 import shapesphotoalbum.model.IModel;
 import shapesphotoalbum.model.ISnapshot;
 import shapesphotoalbum.model.ShapesPhotoAlbumModel;
+import shapesphotoalbum.model.SnapshotInfo;
 import shapesphotoalbum.model.command.*;
 import shapesphotoalbum.model.shape.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -181,6 +190,197 @@ public class IModelTest {
 
   }
 
+  /**
+   * Tests reading snapshots by position, by ID, by range and through their metadata.
+   */
+  @Test
+  public void testPagedSnapshotAccess() {
+    album.executeCommand(createRect);
+    album.executeCommand(createOval);
+    album.takeSnapshot("first");
+    album.executeCommand(moveRect);
+    album.takeSnapshot("second");
+    album.executeCommand(removeRect);
+    album.takeSnapshot("third");
+
+    List<ISnapshot> snapshots = album.getSnapshots();
+    assertEquals(3, album.getSnapshotCount());
+
+    List<SnapshotInfo> info = album.getSnapshotInfo();
+    assertEquals(3, info.size());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(i, info.get(i).getIndex());
+      assertEquals(snapshots.get(i).getId(), info.get(i).getId());
+      assertEquals(snapshots.get(i).getDescription(), info.get(i).getDescription());
+      assertSame(snapshots.get(i), album.getSnapshot(i));
+    }
+    assertSame(snapshots.get(1), album.getSnapshot(snapshots.get(1).getId()));
+
+    Iterator<ISnapshot> range = album.getSnapshots(1, 3);
+    assertSame(snapshots.get(1), range.next());
+    assertSame(snapshots.get(2), range.next());
+    assertFalse(range.hasNext());
+    assertFalse(album.getSnapshots(3, 3).hasNext());
+
+    assertThrows(IndexOutOfBoundsException.class, () -> album.getSnapshot(3));
+    assertThrows(IndexOutOfBoundsException.class, () -> album.getSnapshots(2, 4));
+    IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () -> album.getSnapshot("missing"));
+    assertEquals("Snapshot doesn't exist", exception.getMessage());
+  }
+
+  /**
+   * Tests that an event-sourced model rebuilds the same snapshots as the default model,
+   * whatever its checkpoint interval and the order snapshots are read in.
+   */
+  @Test
+  public void testEventSourcedModelMatchesDefaultModel() {
+    for (int interval : new int[] {1, 3, 50}) {
+      IModel expected = new ShapesPhotoAlbumModel();
+      IModel replayed = new EventSourcedAlbumModel(interval);
+      for (IModel model : new IModel[] {expected, replayed}) {
+        for (int i = 0; i < 20; i++)
+          model.executeCommand(new Create("S" + i, ShapeType.OVAL, i, i, 5, 5, 0, 0, 0));
+        for (int step = 0; step < 60; step++) {
+          model.executeCommand(new Move("S" + step % 20, step, -step));
+          if (step % 7 == 0)
+            model.executeCommand(new Resize("S" + step % 11, step, step));
+          if (step % 5 == 0)
+            model.executeCommand(new TakeSnapshot("step " + step));
+        }
+        model.executeCommand(new Remove("S3"));
+        model.takeSnapshot("last");
+      }
+
+      assertEquals(expected.getSnapshotCount(), replayed.getSnapshotCount());
+      int count = expected.getSnapshotCount();
+      for (int i = count - 1; i >= 0; i -= 2) { // backwards, then forwards
+        assertEquals(expected.getSnapshot(i).getContent(), replayed.getSnapshot(i).getContent());
+        assertEquals(expected.getSnapshot(i).getDescription(),
+            replayed.getSnapshotInfo().get(i).getDescription());
+      }
+      Iterator<ISnapshot> all = replayed.getSnapshots(0, count);
+      for (int i = 0; i < count; i++) {
+        ISnapshot snapshot = all.next();
+        assertEquals(expected.getSnapshot(i).getContent(), snapshot.getContent());
+        assertEquals(replayed.getSnapshotInfo().get(i).getId(), snapshot.getId());
+        assertEquals(snapshot.getId(), replayed.getSnapshot(snapshot.getId()).getId());
+      }
+      assertEquals(expected.getCurrentState().toString(), replayed.getCurrentState().toString());
+    }
+
+    IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () -> new EventSourcedAlbumModel(0));
+    assertEquals("Checkpoint interval must be positive", exception.getMessage());
+  }
+
+  /**
+   * Tests that executing blocks of actions gives the same snapshots as executing each action,
+   * and that the failures of a block are reported together without stopping the block.
+   */
+  @Test
+  public void testExecuteBatch() {
+    List<IAction> actions = new ArrayList<>();
+    for (int i = 0; i < 10; i++)
+      actions.add(new Create("S" + i, ShapeType.RECTANGLE, i, i, 5, 5, 0, 0, 0));
+    for (int step = 0; step < 40; step++) {
+      actions.add(new Move("S" + step % 10, step, -step));
+      actions.add(new ChangeColor("S" + step % 3, step, 0, 0));
+      if (step % 4 == 0)
+        actions.add(new Resize("S" + step % 7, step, step + 1));
+      if (step == 36)
+        actions.add(new Remove("S5"));
+      if (step % 6 == 0)
+        actions.add(new TakeSnapshot("step " + step));
+    }
+
+    IModel expected = new ShapesPhotoAlbumModel();
+    actions.forEach(expected::executeCommand);
+    for (IModel model : new IModel[] {album, new EventSourcedAlbumModel(4)}) {
+      model.executeBatch(actions.subList(0, 30));
+      model.executeBatch(actions.subList(30, actions.size()));
+      assertEquals(expected.getSnapshotCount(), model.getSnapshotCount());
+      for (int i = 0; i < expected.getSnapshotCount(); i++)
+        assertEquals(expected.getSnapshot(i).getContent(), model.getSnapshot(i).getContent());
+      assertEquals(expected.getCurrentState().toString(), model.getCurrentState().toString());
+    }
+
+    List<IAction> failing = List.of(new Move("S5", 0, 0), new Move("S1", 7, 7),
+        new ChangeColor("S1", 0, 300, 0), new Resize("S1", 9, 9), new TakeSnapshot("batch"));
+    IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () -> album.executeBatch(failing));
+    assertEquals("2 of 5 commands failed, first Command 1: Shape to be moved doesn't exist",
+        exception.getMessage());
+    assertEquals("Command 3: Color value is out of bound", exception.getSuppressed()[1].getMessage());
+    IShape shape = album.getSnapshot(album.getSnapshotCount() - 1).getContent().get(1);
+    assertEquals(new Point2D(7, 7), shape.getPosition());
+    assertEquals(9, shape.getHorizontalDimension());
+  }
+
+  /**
+   * Tests that a saved album state loads back into the same snapshots and current photo,
+   * and that shapes unchanged between snapshots are shared again.
+   */
+  @Test
+  public void testSaveAndLoadState(@TempDir Path dir) throws IOException {
+    for (int i = 0; i < 20; i++)
+      album.executeCommand(new Create("S" + i, ShapeType.OVAL, i, i, 5, 5, 0, 0, 0));
+    for (int step = 0; step < 30; step++) {
+      album.executeCommand(new Move("S" + step % 20, step, -step));
+      if (step % 3 == 0)
+        album.executeCommand(new TakeSnapshot("step " + step));
+    }
+    album.executeCommand(new Remove("S3"));
+
+    Path file = dir.resolve("album.state");
+    AlbumStateFile.save(album, file);
+    IModel loaded = AlbumStateFile.load(file);
+
+    assertEquals(album.getSnapshotCount(), loaded.getSnapshotCount());
+    for (int i = 0; i < album.getSnapshotCount(); i++) {
+      ISnapshot expected = album.getSnapshot(i);
+      ISnapshot actual = loaded.getSnapshot(i);
+      assertEquals(expected.getId(), actual.getId());
+      assertEquals(expected.getTimestamp(), actual.getTimestamp());
+      assertEquals(expected.getDescription(), actual.getDescription());
+      assertEquals(expected.getContent(), actual.getContent());
+    }
+    assertEquals(album.getCurrentState().toString(), loaded.getCurrentState().toString());
+    assertSame(loaded.getSnapshot(0).getContent().get(19), loaded.getSnapshot(1).getContent().get(19));
+
+    // The loaded album keeps going like the original one
+    loaded.executeCommand(new Move("S4", 0, 0));
+    loaded.takeSnapshot("after reopening");
+    assertEquals(album.getSnapshotCount() + 1, loaded.getSnapshotCount());
+
+    AlbumStateFile.save(new ShapesPhotoAlbumModel(), file);
+    assertEquals(0, AlbumStateFile.load(file).getSnapshotCount());
+    Path bad = Files.write(dir.resolve("bad.state"), new byte[] {1, 2, 3});
+    assertThrows(IllegalStateException.class, () -> AlbumStateFile.load(bad));
+  }
+
+  /**
+   * Tests that a saved album state loads back colors with components outside 0 to 255, which
+   * creating a shape accepts, both in the snapshots and in the current photo.
+   */
+  @Test
+  public void testSaveAndLoadStateColors(@TempDir Path dir) {
+    album.executeCommand(new Create("a", ShapeType.RECTANGLE, 0, 0, 10, 10, 300, -5, 0));
+    album.takeSnapshot("first");
+    album.executeCommand(new Create("b", ShapeType.OVAL, 5, 5, 20, 20,
+        Integer.MIN_VALUE, Integer.MAX_VALUE, 256));
+
+    Path file = dir.resolve("album.state");
+    AlbumStateFile.save(album, file);
+    IModel loaded = AlbumStateFile.load(file);
+
+    assertEquals(album.getSnapshot(0).getContent(), loaded.getSnapshot(0).getContent());
+    assertEquals(new Color(300, -5, 0), loaded.getSnapshot(0).getContent().get(0).getColor());
+    assertEquals(album.getCurrentState().toString(), loaded.getCurrentState().toString());
+    assertEquals(new Color(Integer.MIN_VALUE, Integer.MAX_VALUE, 256),
+        loaded.getCurrentState().takeSnapshot("").getContent().get(1).getColor());
+  }
+
   /**
    * Tests converting the album to a string representation.
    */
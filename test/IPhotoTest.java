@@ -1,9 +1,14 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import shapesphotoalbum.model.ColumnarPhoto;
+import shapesphotoalbum.model.IModel;
 import shapesphotoalbum.model.IPhoto;
 import shapesphotoalbum.model.ISnapshot;
+import shapesphotoalbum.model.InMemorySnapshotStore;
 import shapesphotoalbum.model.Photo;
+import shapesphotoalbum.model.ShapesPhotoAlbumModel;
+import shapesphotoalbum.model.command.Move;
 import shapesphotoalbum.model.shape.*;
 
 import java.util.List;
@@ -158,6 +163,131 @@ public class IPhotoTest {
     assertEquals(mock, content.getFirst());
   }
 
+  /**
+   * Tests that snapshots and copies are not affected by later edits of the photo.
+   */
+  @Test
+  void testSnapshotUnaffectedByLaterEdits() {
+    photo.addShape(mock);
+    ISnapshot before = photo.takeSnapshot("");
+    IPhoto copy = photo.copy();
+
+    photo.moveShape(mock.getName(), 300, 400);
+    photo.resizeShape(mock.getName(), 10, 20);
+    photo.changeColor(mock.getName(), 0, 0, 255);
+
+    assertEquals(mock, before.getContent().get(0));
+    assertEquals(mock.toString(), copy.toString());
+    assertEquals(new Point2D(100, 100), mock.getPosition());
+
+    IShape edited = photo.takeSnapshot("").getContent().get(0);
+    assertEquals(new Point2D(300, 400), edited.getPosition());
+    assertEquals(10, edited.getHorizontalDimension());
+    assertEquals(new Color(0, 0, 255), edited.getColor());
+  }
+
+  /**
+   * Tests that shapes keep their insertion order through edits and removals.
+   */
+  @Test
+  void testInsertionOrderKept() {
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      IShape shape = new Oval("O" + i, new Point2D(i, i), 5, 5, new Color(0, 0, 0));
+      photo.addShape(shape);
+      if (i % 3 != 0)
+        expected.append(shape);
+    }
+    for (int i = 0; i < 200; i += 3)
+      photo.removeShape("O" + i);
+
+    assertEquals(expected.toString(), photo.toString());
+  }
+
+  /**
+   * Tests that a columnar photo ends up in the same state as a photo after the same edits.
+   */
+  @Test
+  void testColumnarPhotoMatchesPhoto() {
+    IPhoto columnar = new ColumnarPhoto();
+    for (IPhoto p : new IPhoto[] {photo, columnar}) {
+      for (int i = 0; i < 150; i++)
+        p.addShape(i % 2 == 0
+            ? new Rectangle("S" + i, new Point2D(i, -i), i, 2 * i, new Color(i, 0, 255 - i))
+            : new Oval("S" + i, new Point2D(-i, i), 3, 4, new Color(0, i, 0)));
+      for (int i = 0; i < 150; i += 2)
+        p.removeShape("S" + i);
+      for (int i = 1; i < 150; i += 4) {
+        p.moveShape("S" + i, 7, 8);
+        p.resizeShape("S" + i, 9, 10);
+        p.changeColor("S" + i, 11, 12, 13);
+      }
+      p.addShape(new Rectangle("S0", new Point2D(1, 1), 1, 1, new Color(1, 1, 1)));
+    }
+
+    assertEquals(photo.toString(), columnar.toString());
+    assertEquals(photo.takeSnapshot("").getContent(), columnar.takeSnapshot("").getContent());
+    assertEquals(columnar, columnar.copy());
+
+    IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () ->
+            columnar.addShape(new Oval("S1", new Point2D(0, 0), 1, 1, new Color(0, 0, 0))));
+    assertEquals("Shape name is already taken, please select another name",
+        exception.getMessage());
+
+    ISnapshot before = columnar.takeSnapshot("");
+    columnar.moveShape("S1", 100, 100);
+    assertEquals(new Point2D(7, 8), before.getContent().get(0).getPosition());
+  }
+
+  /**
+   * Tests that shapes can be edited by the interned ID of their name.
+   */
+  @Test
+  void testEditByNameId() {
+    photo.addShape(mock);
+    ShapeNameTable names = photo.getNameTable();
+    int id = names.find("TestShape");
+    assertEquals(id, photo.takeSnapshot("").getContent().get(0).getNameId());
+    assertEquals("TestShape", names.nameOf(id));
+    assertEquals(id, names.intern("TestShape"));
+
+    photo.moveShape(id, 5, 6);
+    photo.resizeShape(id, 7, 8);
+    photo.changeColor(id, 0, 1, 0);
+    IShape edited = photo.takeSnapshot("").getContent().get(0);
+    assertEquals(new Point2D(5, 6), edited.getPosition());
+    assertEquals(7, edited.getHorizontalDimension());
+    assertEquals(new Color(0, 1, 0), edited.getColor());
+
+    photo.removeShape(id);
+    assertEquals("", photo.toString());
+
+    IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () ->
+            photo.moveShape(ShapeNameTable.NO_NAME, 0, 0));
+    assertEquals("Shape to be moved doesn't exist", exception.getMessage());
+  }
+
+  /**
+   * Tests that each album interns names into a table of its own, shared by its copies, and
+   * that commands carrying IDs of another table still find their shape.
+   */
+  @Test
+  void testNameTablePerAlbum() {
+    photo.addShape(mock);
+    assertSame(photo.getNameTable(), photo.copy().getNameTable());
+    assertEquals(ShapeNameTable.NO_NAME, new Photo().getNameTable().find("TestShape"));
+
+    ShapeNameTable reader = new ShapeNameTable();
+    reader.intern("Other");
+    IModel model = new ShapesPhotoAlbumModel(photo, new InMemorySnapshotStore());
+    model.executeCommand(new Move(reader, reader.intern("TestShape"), 5, 6));
+    model.executeCommand(new Move(reader, reader.intern("TestShape"), 7, 8));
+    assertEquals(new Point2D(7, 8), photo.takeSnapshot("").getContent().get(0).getPosition());
+    assertEquals(1, photo.getNameTable().size());
+  }
+
   /**
    * Tests taking a snapshot of an empty photo.
    */
@@ -0,0 +1,286 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import shapesphotoalbum.model.ColumnarPhoto;
+import shapesphotoalbum.model.DeltaSnapshotStore;
+import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.IPhoto;
+import shapesphotoalbum.model.ISnapshot;
+import shapesphotoalbum.model.ISnapshotStore;
+import shapesphotoalbum.model.InMemorySnapshotStore;
+import shapesphotoalbum.model.MappedSnapshotStore;
+import shapesphotoalbum.model.Photo;
+import shapesphotoalbum.model.ShapesPhotoAlbumModel;
+import shapesphotoalbum.model.SpillingSnapshotStore;
+import shapesphotoalbum.model.command.*;
+import shapesphotoalbum.model.shape.Color;
+import shapesphotoalbum.model.shape.Point2D;
+import shapesphotoalbum.model.shape.Rectangle;
+import shapesphotoalbum.model.shape.ShapeType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the {@link ISnapshotStore} interface.
+ */
+public class ISnapshotStoreTest {
+  /**
+   * Runs the same album on a model using the given store.
+   * @param store The snapshot store to use.
+   * @return The model after running the album.
+   */
+  private static IModel runAlbum(ISnapshotStore store) {
+    return runAlbum(new Photo(), store);
+  }
+
+  /**
+   * Runs the same album on a model starting from the given photo and using the given store.
+   * @param photo The empty photo holding the current state.
+   * @param store The snapshot store to use.
+   * @return The model after running the album.
+   */
+  private static IModel runAlbum(IPhoto photo, ISnapshotStore store) {
+    IModel model = new ShapesPhotoAlbumModel(photo, store);
+    for (int i = 0; i < 100; i++)
+      model.executeCommand(new Create("S" + i, i % 2 == 0 ? ShapeType.OVAL : ShapeType.RECTANGLE,
+          i, i, 10, 10, 0, 0, 0));
+
+    for (int step = 0; step < 40; step++) {
+      model.executeCommand(new Move("S" + step, step * 5, 7));
+      model.executeCommand(new Resize("S" + (99 - step), 3, step));
+      model.executeCommand(new ChangeColor("S50", step, 255 - step, 0));
+      if (step % 4 == 0) {
+        // remove and re-add a shape, it moves to the end of the order
+        model.executeCommand(new Remove("S" + (step + 1)));
+        model.executeCommand(new Create("S" + (step + 1), ShapeType.OVAL, 1, 2, 3, 4, 5, 6, 7));
+      }
+      if (step % 7 == 0)
+        model.executeCommand(new Remove("S" + (51 + step / 7)));
+      model.executeCommand(new TakeSnapshot("step " + step));
+    }
+    return model;
+  }
+
+  /**
+   * Tests that invalid keyframe intervals are rejected.
+   */
+  @Test
+  void testInvalidKeyframeInterval() {
+    IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () -> new DeltaSnapshotStore(0));
+
+    assertEquals("Keyframe interval must be positive", exception.getMessage());
+  }
+
+  /**
+   * Tests that delta storage gives back the same snapshots as in-memory storage.
+   */
+  @Test
+  void testDeltaStoreMatchesInMemoryStore() {
+    List<ISnapshot> expected = runAlbum(new InMemorySnapshotStore()).getSnapshots();
+
+    for (int interval : new int[] {1, 3, 16, 1000}) {
+      List<ISnapshot> actual = runAlbum(new DeltaSnapshotStore(interval)).getSnapshots();
+      assertEquals(expected.size(), actual.size());
+
+      for (int i = 0; i < expected.size(); i++) {
+        assertEquals(expected.get(i).getDescription(), actual.get(i).getDescription());
+        assertEquals(expected.get(i).getContent(), actual.get(i).getContent());
+      }
+    }
+  }
+
+  /**
+   * Tests that delta storage gives back the same snapshots for content that is not taken
+   * from a {@link Photo}.
+   */
+  @Test
+  void testDeltaStoreColumnarContent() {
+    List<ISnapshot> expected = runAlbum(new InMemorySnapshotStore()).getSnapshots();
+
+    for (int interval : new int[] {1, 3, 1000}) {
+      List<ISnapshot> actual =
+          runAlbum(new ColumnarPhoto(), new DeltaSnapshotStore(interval)).getSnapshots();
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++)
+        assertEquals(expected.get(i).getContent(), actual.get(i).getContent());
+    }
+  }
+
+  /**
+   * Tests that snapshots of two copies of a photo, each changed its own way, are stored
+   * with their own content rather than as a delta of one another.
+   */
+  @Test
+  void testDeltaStoreSiblingPhotos() {
+    IPhoto photo = new Photo();
+    for (int i = 0; i < 10; i++)
+      photo.addShape(new Rectangle("S" + i, new Point2D(i, i), 5, 5, new Color(0, 0, 0)));
+    IPhoto left = photo.copy();
+    IPhoto right = photo.copy();
+    left.addShape(new Rectangle("L", new Point2D(1, 1), 5, 5, new Color(1, 0, 0)));
+    left.removeShape("S2");
+    right.addShape(new Rectangle("R", new Point2D(2, 2), 5, 5, new Color(0, 1, 0)));
+    right.removeShape("S5");
+
+    ISnapshotStore store = new DeltaSnapshotStore(1000);
+    ISnapshot leftSnapshot = left.takeSnapshot("left");
+    ISnapshot rightSnapshot = right.takeSnapshot("right");
+    store.add(leftSnapshot);
+    store.add(rightSnapshot);
+
+    assertEquals(leftSnapshot.getContent(), store.get(0).getContent());
+    assertEquals(rightSnapshot.getContent(), store.get(1).getContent());
+  }
+
+  /**
+   * Tests looking up snapshots by position.
+   */
+  @Test
+  void testSizeAndGet() {
+    ISnapshotStore store = new DeltaSnapshotStore(4);
+    runAlbum(store);
+
+    assertEquals(40, store.size());
+    assertEquals("step 0", store.get(0).getDescription());
+    assertEquals("step 39", store.get(39).getDescription());
+    assertThrows(IndexOutOfBoundsException.class, () -> store.get(40));
+  }
+
+  /**
+   * Tests that a spilling store keeps within its limits and faults spilled snapshots back in
+   * with the same content as in-memory storage.
+   */
+  @Test
+  void testSpillingStoreMatchesInMemoryStore() throws IOException {
+    List<ISnapshot> expected = runAlbum(new InMemorySnapshotStore()).getSnapshots();
+
+    try (SpillingSnapshotStore store = new SpillingSnapshotStore(5, Long.MAX_VALUE)) {
+      List<ISnapshot> actual = runAlbum(store).getSnapshots();
+      assertEquals(5, store.getResidentCount());
+      assertEquals(35, store.getSpillCount());
+
+      for (int i = 0; i < expected.size(); i++) {
+        assertEquals(expected.get(i).getDescription(), actual.get(i).getDescription());
+        assertEquals(expected.get(i).getContent(), actual.get(i).getContent());
+      }
+      assertEquals(5, store.getResidentCount());
+      assertEquals(40, store.getMissCount()); // the 5 resident ones were spilled on the way
+      long hits = store.getHitCount();
+
+      assertSame(store.get(39), store.get(39));
+      assertEquals(hits + 2, store.getHitCount());
+      assertEquals(40, store.getMissCount());
+    }
+
+    try (SpillingSnapshotStore store = new SpillingSnapshotStore(Integer.MAX_VALUE, 1)) {
+      runAlbum(store);
+      assertEquals(1, store.getResidentCount()); // the latest one stays even if too large
+      assertEquals(expected.get(3).getContent(), store.get(3).getContent());
+      assertEquals(1, store.getMissCount());
+    }
+
+    IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () -> new SpillingSnapshotStore(0, 10));
+    assertEquals("Snapshot limits must be positive", exception.getMessage());
+  }
+
+  /**
+   * Tests that a memory-mapped archive gives back the same snapshots as in-memory storage,
+   * both while it is written and after it is reopened.
+   */
+  @Test
+  void testMappedStoreMatchesInMemoryStore(@TempDir Path dir) throws IOException {
+    List<ISnapshot> expected = runAlbum(new InMemorySnapshotStore()).getSnapshots();
+    Path file = dir.resolve("album.snapshots");
+    String lastId;
+
+    try (MappedSnapshotStore store = new MappedSnapshotStore(file)) {
+      IModel model = runAlbum(store);
+      assertEquals(expected.size(), store.size());
+      for (int i = 0; i < expected.size(); i++) {
+        ISnapshot actual = model.getSnapshot(i);
+        assertEquals(expected.get(i).getDescription(), actual.getDescription());
+        assertEquals(expected.get(i).getContent(), actual.getContent());
+        assertEquals(actual, actual.copy());
+      }
+      lastId = store.get(expected.size() - 1).getId();
+    }
+
+    try (MappedSnapshotStore reopened = MappedSnapshotStore.open(file)) {
+      assertEquals(expected.size(), reopened.size());
+      ISnapshot last = reopened.get(expected.size() - 1);
+      assertEquals(lastId, last.getId());
+      assertEquals(expected.get(expected.size() - 1).getContent(), last.getContent());
+      assertThrows(UnsupportedOperationException.class, () ->
+          last.getContent().get(0).setHorizontalDimension(0));
+
+      // appending to a reopened archive keeps the earlier snapshots
+      reopened.add(expected.get(0));
+      assertEquals(expected.size() + 1, reopened.size());
+      assertEquals(expected.get(0).getContent(), reopened.get(expected.size()).getContent());
+      assertEquals(expected.get(1).getContent(), reopened.get(1).getContent());
+    }
+
+    Files.write(file, new byte[] {0, 0, 1}, StandardOpenOption.APPEND);
+    IllegalStateException exception =
+        assertThrows(IllegalStateException.class, () -> MappedSnapshotStore.open(file));
+    assertEquals("Incomplete snapshot archive", exception.getMessage());
+  }
+
+  /**
+   * Runs a small album whose colors have components outside 0 to 255, which the model keeps
+   * as they are.
+   * @param store The snapshot store to use.
+   * @return The model after running the album.
+   */
+  private static IModel runOutOfRangeColors(ISnapshotStore store) {
+    IModel model = new ShapesPhotoAlbumModel(store);
+    model.executeCommand(new Create("a", ShapeType.RECTANGLE, 0, 0, 10, 10, 300, -5, 0));
+    model.executeCommand(new Create("b", ShapeType.OVAL, 5, 5, 20, 20, -1, 256, 70000));
+    model.executeCommand(new TakeSnapshot("first"));
+    model.executeCommand(new Create("c", ShapeType.RECTANGLE, 1, 1, 2, 2,
+        Integer.MIN_VALUE, Integer.MAX_VALUE, -300));
+    model.executeCommand(new TakeSnapshot("second"));
+    return model;
+  }
+
+  /**
+   * Tests that a memory-mapped archive keeps color components outside 0 to 255.
+   */
+  @Test
+  void testMappedStoreKeepsColors(@TempDir Path dir) throws IOException {
+    List<ISnapshot> expected = runOutOfRangeColors(new InMemorySnapshotStore()).getSnapshots();
+    Path file = dir.resolve("album.snapshots");
+
+    try (MappedSnapshotStore store = new MappedSnapshotStore(file)) {
+      runOutOfRangeColors(store);
+    }
+    try (MappedSnapshotStore reopened = MappedSnapshotStore.open(file)) {
+      assertEquals(expected.size(), reopened.size());
+      for (int i = 0; i < expected.size(); i++)
+        assertEquals(expected.get(i).getContent(), reopened.get(i).getContent());
+    }
+  }
+
+  /**
+   * Tests that a snapshot spilled to disk comes back with color components outside 0 to 255.
+   */
+  @Test
+  void testSpillingStoreKeepsColors() throws IOException {
+    List<ISnapshot> expected = runOutOfRangeColors(new InMemorySnapshotStore()).getSnapshots();
+
+    try (SpillingSnapshotStore store = new SpillingSnapshotStore(1, Long.MAX_VALUE)) {
+      runOutOfRangeColors(store);
+      assertEquals(1, store.getSpillCount());
+      for (int i = 0; i < expected.size(); i++)
+        assertEquals(expected.get(i).getContent(), store.get(i).getContent());
+      assertEquals(2, store.getMissCount()); // each one was read back from the spill file
+    }
+  }
+}
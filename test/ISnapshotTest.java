@@ -1,6 +1,7 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import shapesphotoalbum.model.ISnapshot;
+import shapesphotoalbum.model.Photo;
 import shapesphotoalbum.model.Snapshot;
 import shapesphotoalbum.model.shape.*;
 
@@ -93,9 +94,44 @@ public class ISnapshotTest {
    */
   @Test
   void testGetContent() {
-    List<IShape> copy = s1.getContent();
-    assertEquals(copy, s1.getContent());
-    assertNotSame(copy, s1.getContent()); // test the returned is a copy
+    List<IShape> shapes = s1.getContent();
+    assertEquals(shapes, s1.getContent());
+    assertEquals(content, shapes);
+
+    // the content is read-only and not affected by the shapes it was taken from
+    assertThrows(UnsupportedOperationException.class, () -> shapes.add(R));
+    assertThrows(UnsupportedOperationException.class, () ->
+        shapes.get(0).setHorizontalDimension(1));
+    assertThrows(UnsupportedOperationException.class, () ->
+        shapes.get(0).getPosition().setPosition(1, 1));
+    R.setHorizontalDimension(1);
+    assertEquals(50, shapes.get(0).getHorizontalDimension());
+
+    // a copy of a shape can be changed
+    IShape copy = shapes.get(0).copy();
+    copy.setHorizontalDimension(1);
+    assertEquals(1, copy.getHorizontalDimension());
+  }
+
+  /**
+   * Tests that the content of a snapshot taken from a photo is a read-only view of its shapes,
+   * also once shapes were removed from the photo.
+   */
+  @Test
+  void testGetContentView() {
+    Photo photo = new Photo();
+    photo.addShape(R);
+    photo.addShape(O);
+    photo.addShape(new Rectangle("S", new Point2D(0, 0), 1, 1, new Color(0, 0, 0)));
+    photo.removeShape("O");
+    List<IShape> shapes = photo.takeSnapshot("").getContent();
+
+    assertEquals(2, shapes.size());
+    assertEquals("R", shapes.get(0).getName());
+    assertEquals("S", shapes.get(1).getName());
+    assertEquals(new ArrayList<>(shapes), shapes);
+    assertThrows(IndexOutOfBoundsException.class, () -> shapes.get(2));
+    assertThrows(UnsupportedOperationException.class, () -> shapes.remove(0));
   }
 
   /**
@@ -0,0 +1,259 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import shapesphotoalbum.controller.adaptor.SvgSymbols;
+import shapesphotoalbum.model.IModel;
+import shapesphotoalbum.model.ISnapshot;
+import shapesphotoalbum.model.ShapesPhotoAlbumModel;
+import shapesphotoalbum.model.command.ChangeColor;
+import shapesphotoalbum.model.command.Create;
+import shapesphotoalbum.model.command.Move;
+import shapesphotoalbum.model.command.Remove;
+import shapesphotoalbum.model.shape.ShapeType;
+import shapesphotoalbum.view.IWebView;
+import shapesphotoalbum.view.PagedWebView;
+import shapesphotoalbum.view.PlaybackWebView;
+import shapesphotoalbum.view.StreamingWebView;
+import shapesphotoalbum.view.WebView;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link IWebView} implementations.
+ */
+public class IWebViewTest {
+  /**
+   * Test that the streaming web view writes the same file as the web view.
+   */
+  @Test
+  void testStreamingWebViewMatchesWebView(@TempDir Path dir) throws IOException {
+    IModel model = new ShapesPhotoAlbumModel();
+    model.executeCommand(new Create("R", ShapeType.RECTANGLE, 200, 200, 50, 100, 255, 0, 0));
+    model.executeCommand(new Create("O", ShapeType.OVAL, 500, 100, 60, 30, 0, 255, 0));
+    model.takeSnapshot("First");
+    model.executeCommand(new Move("R", 300, 200));
+    model.executeCommand(new ChangeColor("O", 0, 0, 255));
+    model.takeSnapshot("Second");
+
+    Path expected = dir.resolve("web.html");
+    Path actual = dir.resolve("streaming.html");
+    IWebView web = new WebView(expected.toString());
+    StreamingWebView streaming = new StreamingWebView(actual.toString());
+    for (ISnapshot snapshot : model.getSnapshots()) {
+      web.addSnapshot(snapshot);
+      streaming.addSnapshot(snapshot);
+    }
+    assertTrue(Files.exists(actual)); // opened before the view is finished
+    web.displayWindow();
+    streaming.displayWindow();
+
+    assertEquals(Files.readString(expected), Files.readString(actual));
+    assertThrows(IllegalStateException.class, () -> streaming.addSnapshot(model.getSnapshot(0)));
+
+    // An album without snapshots still gets a complete page
+    Path empty = dir.resolve("empty.html");
+    new StreamingWebView(empty.toString()).close();
+    assertTrue(Files.readString(empty).endsWith("</html>\n"));
+  }
+
+  /**
+   * Test that rendering the snapshots on a pool keeps them in album order, whatever the window.
+   */
+  @Test
+  void testParallelStreamingWebView(@TempDir Path dir) throws IOException {
+    IModel model = new ShapesPhotoAlbumModel();
+    for (int i = 0; i < 20; i++)
+      model.executeCommand(new Create("S" + i, i % 2 == 0 ? ShapeType.RECTANGLE : ShapeType.OVAL,
+          i * 10, i * 5, 10 + i, 20 + i, i, 2 * i, 3 * i));
+    for (int step = 0; step < 40; step++) {
+      model.executeCommand(new Move("S" + step % 20, step, 2 * step));
+      model.takeSnapshot("Step " + step);
+    }
+
+    Path expected = dir.resolve("web.html");
+    IWebView web = new WebView(expected.toString());
+    for (ISnapshot snapshot : model.getSnapshots())
+      web.addSnapshot(snapshot);
+    web.displayWindow();
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      for (int window : new int[] {1, 3, 100}) {
+        Path actual = dir.resolve("parallel-" + window + ".html");
+        StreamingWebView streaming = new StreamingWebView(actual.toString(), pool, window);
+        for (ISnapshot snapshot : model.getSnapshots())
+          streaming.addSnapshot(snapshot);
+        streaming.displayWindow();
+        assertEquals(Files.readString(expected), Files.readString(actual));
+      }
+    }
+    finally {
+      pool.shutdown();
+    }
+
+    assertThrows(IllegalArgumentException.class,
+        () -> new StreamingWebView(dir.resolve("x.html").toString(), pool, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> new StreamingWebView(dir.resolve("x.html").toString(), null, 4));
+  }
+
+  /**
+   * Test that the symbol mode writes each shape state once, and that its references expand to
+   * the page of the web view.
+   */
+  @Test
+  void testSymbolStreamingWebView(@TempDir Path dir) throws IOException {
+    IModel model = new ShapesPhotoAlbumModel();
+    model.executeCommand(new Create("R", ShapeType.RECTANGLE, 200, 200, 50, 100, 255, 0, 0));
+    model.executeCommand(new Create("O", ShapeType.OVAL, 500, 100, 60, 30, 0, 255, 0));
+    model.takeSnapshot("First");
+    model.executeCommand(new Move("R", 300, 200));
+    model.takeSnapshot("Second");
+    model.executeCommand(new Move("R", 200, 200));
+    model.takeSnapshot("Third");
+
+    Path expected = dir.resolve("web.html");
+    IWebView web = new WebView(expected.toString());
+    Path actual = dir.resolve("symbols.html");
+    SvgSymbols symbols = new SvgSymbols();
+    StreamingWebView streaming = new StreamingWebView(actual.toString(), symbols);
+    for (ISnapshot snapshot : model.getSnapshots()) {
+      web.addSnapshot(snapshot);
+      streaming.addSnapshot(snapshot);
+    }
+    web.displayWindow();
+    streaming.displayWindow();
+    assertEquals(3, symbols.size()); // R at two positions and O
+
+    // Each state is written once, then referred to
+    String page = Files.readString(actual);
+    assertEquals(3, count(page, " id='s"));
+    assertEquals(3, count(page, "<use href='#s"));
+
+    // Putting the elements back in place of the references gives the page of the web view
+    Matcher use = Pattern.compile("<use href='#(s\\d+)' />\n").matcher(page);
+    StringBuilder expanded = new StringBuilder();
+    while (use.find()) {
+      Matcher element = Pattern.compile("<(\\w+) id='" + use.group(1) + "'([^\n]*\n)").matcher(page);
+      assertTrue(element.find());
+      use.appendReplacement(expanded, Matcher.quoteReplacement("<" + element.group(1) + element.group(2)));
+    }
+    use.appendTail(expanded);
+    assertEquals(Files.readString(expected), expanded.toString().replaceAll(" id='s\\d+'", ""));
+  }
+
+  /**
+   * Test that the playback view writes each shape once and only the changes of each snapshot.
+   */
+  @Test
+  void testPlaybackWebView(@TempDir Path dir) throws IOException {
+    IModel model = new ShapesPhotoAlbumModel();
+    model.executeCommand(new Create("R", ShapeType.RECTANGLE, 200, 200, 50, 100, 255, 0, 0));
+    model.executeCommand(new Create("O", ShapeType.OVAL, 500, 100, 60, 30, 0, 255, 0));
+    model.takeSnapshot("Say \"hi\" </script>");
+    model.executeCommand(new Move("R", 300, 200));
+    model.takeSnapshot("Moved");
+    model.executeCommand(new Remove("O"));
+    model.takeSnapshot("Removed");
+    model.executeCommand(new Create("O", ShapeType.OVAL, 10, 10, 60, 30, 0, 255, 0));
+    model.takeSnapshot("Back");
+    model.takeSnapshot("Unchanged");
+
+    Path file = dir.resolve("playback.html");
+    PlaybackWebView playback = new PlaybackWebView(file.toString());
+    for (ISnapshot snapshot : model.getSnapshots())
+      playback.addSnapshot(snapshot);
+    assertTrue(Files.exists(file)); // opened before the view is finished
+    playback.displayWindow();
+    assertThrows(IllegalStateException.class, () -> playback.addSnapshot(model.getSnapshot(0)));
+
+    String page = Files.readString(file);
+    String[] frames = page.lines().filter(line -> line.startsWith("frames.push(")).toArray(String[]::new);
+    assertEquals(5, frames.length);
+    assertTrue(frames[0].startsWith("frames.push([\"" + model.getSnapshot(0).getId() + "\""));
+    assertTrue(frames[0].contains("\"Say \\\"hi\\\" \\u003c/script\\u003e\""));
+    assertTrue(frames[0].endsWith(",[0,200,200,50,100,255,0,0,1,500,100,60,30,0,255,0],[]]);"));
+    assertTrue(frames[1].endsWith(",[0,300,200,50,100,255,0,0],[]]);"));
+    assertTrue(frames[2].endsWith(",[],[1]]);"));
+    assertTrue(frames[3].endsWith(",[1,10,10,60,30,0,255,0],[]]);"));
+    assertTrue(frames[4].endsWith(",[],[]]);"));
+
+    // The shapes are written once, in a single SVG element
+    assertEquals(1, count(page, "<rect"));
+    assertEquals(1, count(page, "<ellipse"));
+    assertEquals(1, count(page, "<svg"));
+    assertEquals(2, count(page, "</script>"));
+    assertTrue(page.endsWith("</html>\n"));
+  }
+
+  /**
+   * Test that the paged view splits the snapshots of the web view into linked pages with an
+   * index, whether or not the last page is full.
+   */
+  @Test
+  void testPagedWebView(@TempDir Path dir) throws IOException {
+    IModel model = new ShapesPhotoAlbumModel();
+    model.executeCommand(new Create("R", ShapeType.RECTANGLE, 200, 200, 50, 100, 255, 0, 0));
+    for (int i = 0; i < 7; i++) {
+      model.executeCommand(new Move("R", 10 * i, 20 * i));
+      model.takeSnapshot(i == 0 ? "<b>First</b>" : "Step " + i);
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      for (int size : new int[] {7, 6}) {
+        Path web = dir.resolve("web" + size + ".html");
+        Path album = dir.resolve("album" + size + ".html");
+        IWebView expected = new WebView(web.toString());
+        PagedWebView paged = new PagedWebView(album.toString(), 3, pool);
+        for (ISnapshot snapshot : model.getSnapshots().subList(0, size)) {
+          expected.addSnapshot(snapshot);
+          paged.addSnapshot(snapshot);
+        }
+        expected.displayWindow();
+        paged.displayWindow();
+
+        String index = Files.readString(album);
+        assertEquals(size, count(index, "<tr><td>"));
+        assertTrue(index.contains("<a href='album" + size + "-1.html#snapshot-1'>"));
+        assertTrue(index.contains("<a href='album" + size + "-3.html#snapshot-7'>") == (size == 7));
+        assertTrue(index.contains("<td>&lt;b&gt;First&lt;/b&gt;</td>"));
+
+        // The snapshots of the pages, in order, are those of the web view
+        int pages = (size + 2) / 3;
+        StringBuilder snapshots = new StringBuilder();
+        for (int number = 1; number <= pages; number++) {
+          String page = Files.readString(dir.resolve("album" + size + "-" + number + ".html"));
+          assertTrue(page.contains("<a href='album" + size + ".html'>Index</a>"));
+          assertEquals(number > 1, page.contains("Previous page"));
+          assertEquals(number < pages, page.contains("Next page"));
+          snapshots.append(page, page.indexOf("<div class='snapshot'"), page.lastIndexOf("</div>\n") + 7);
+        }
+        assertFalse(Files.exists(dir.resolve("album" + size + "-" + (pages + 1) + ".html")));
+        String html = Files.readString(web);
+        assertEquals(html.substring(html.indexOf("<div class='snapshot'"), html.lastIndexOf("</div>\n") + 7),
+            snapshots.toString().replaceAll(" id='snapshot-\\d+'", ""));
+      }
+    }
+    finally {
+      pool.shutdown();
+    }
+
+    assertThrows(IllegalArgumentException.class,
+        () -> new PagedWebView(dir.resolve("x.html").toString(), 0, pool));
+  }
+
+  /**
+   * Counts the occurrences of a text in a page.
+   */
+  private static int count(String page, String text) {
+    return page.split(Pattern.quote(text), -1).length - 1;
+  }
+}
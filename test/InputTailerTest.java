@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import shapesphotoalbum.controller.reader.InputTailer;
+import shapesphotoalbum.model.command.IAction;
+import shapesphotoalbum.model.command.Move;
+import shapesphotoalbum.model.command.TakeSnapshot;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for InputTailer.
+ */
+public class InputTailerTest {
+  /**
+   * Test that only complete lines are parsed, each of them once, as they are appended.
+   */
+  @Test
+  void testPoll(@TempDir Path dir) throws IOException {
+    Path file = Files.writeString(dir.resolve("input.txt"), """
+        shape myrect rectangle 200 200 50 100 255 0 0
+        snapshot First
+        move myrect 10""");
+    List<IAction> actions = new ArrayList<>();
+
+    try (FileChannel channel = FileChannel.open(file)) {
+      InputTailer tailer = new InputTailer(channel);
+      assertTrue(tailer.poll(actions::add));
+      assertEquals(2, actions.size());
+      assertFalse(tailer.poll(actions::add)); // the move is still being written
+
+      append(file, " 20\nsnapshot Sec");
+      assertTrue(tailer.poll(actions::add));
+      assertEquals(3, actions.size());
+      assertEquals(20, ((Move) actions.get(2)).getY());
+
+      append(file, "ond\n");
+      assertTrue(tailer.poll(actions::add));
+      assertEquals("Second", ((TakeSnapshot) actions.get(3)).getDescription());
+      assertEquals(Files.size(file), tailer.getOffset());
+
+      // An invalid line is reported once, and the lines after it are read as usual
+      append(file, "move myrect 1\n");
+      assertThrows(IllegalArgumentException.class, () -> tailer.poll(actions::add));
+      append(file, "move myrect 1 2\n");
+      assertTrue(tailer.poll(actions::add));
+      assertEquals(5, actions.size());
+    }
+  }
+
+  /**
+   * Test that the valid lines appended along with invalid ones are all parsed in the same poll.
+   */
+  @Test
+  void testPollPastInvalidLines(@TempDir Path dir) throws IOException {
+    Path file = Files.writeString(dir.resolve("input.txt"), "");
+    List<IAction> actions = new ArrayList<>();
+
+    try (FileChannel channel = FileChannel.open(file)) {
+      InputTailer tailer = new InputTailer(channel);
+      append(file, """
+          shape myrect rectangle 200 200 50 100 255 0 0
+          move myrect 1
+          move myrect 10 20
+          resize myrect
+          snapshot After
+          """);
+      IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+          () -> tailer.poll(actions::add));
+      assertEquals(1, e.getSuppressed().length);
+      assertEquals(3, actions.size());
+      assertEquals(20, ((Move) actions.get(1)).getY());
+      assertEquals("After", ((TakeSnapshot) actions.get(2)).getDescription());
+      assertEquals(Files.size(file), tailer.getOffset());
+      assertFalse(tailer.poll(actions::add));
+    }
+  }
+
+  private static void append(Path file, String text) throws IOException {
+    Files.writeString(file, text, StandardOpenOption.APPEND);
+  }
+}
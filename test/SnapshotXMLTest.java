@@ -1,9 +1,12 @@
 import org.junit.jupiter.api.Test;
 import shapesphotoalbum.controller.adaptor.SnapshotXML;
+import shapesphotoalbum.controller.adaptor.SvgEmitter;
 import shapesphotoalbum.model.ISnapshot;
 import shapesphotoalbum.model.Snapshot;
 import shapesphotoalbum.model.shape.*;
 
+import java.io.CharArrayWriter;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -48,4 +51,50 @@ public class SnapshotXMLTest {
                 </svg>""", snapshot.getId());
     assertEquals(expectedXml, xml.trim());
   }
+
+  /**
+   * Test that the SvgEmitter writes the same markup as formatting each shape, into a
+   * StringBuilder, a Writer or any other Appendable.
+   */
+  @Test
+  void testSvgEmitter() {
+    int[] values = {0, 7, -7, 10, 255, -1000, 123456789, Integer.MAX_VALUE, Integer.MIN_VALUE};
+    List<IShape> content = new ArrayList<>();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < values.length; i++) {
+      int x = values[i];
+      int y = values[(i + 1) % values.length];
+      int w = values[(i + 2) % values.length];
+      int h = values[(i + 3) % values.length];
+      int r = i * 31 % 256;
+      if (i % 2 == 0) {
+        content.add(new Rectangle("r" + i, new Point2D(x, y), w, h, new Color(r, 0, 255)));
+        expected.append(String.format("<rect x='%d' y='%d' width='%d' height='%d' fill='rgb(%d,%d,%d)' />\n",
+            x, y, w, h, r, 0, 255));
+      }
+      else {
+        content.add(new Oval("o" + i, new Point2D(x, y), w, h, new Color(r, 0, 255)));
+        expected.append(String.format("<ellipse cx='%d' cy='%d' rx='%d' ry='%d' fill='rgb(%d,%d,%d)' />\n",
+            x, y, w, h, r, 0, 255));
+      }
+    }
+
+    SvgEmitter emitter = new SvgEmitter();
+    StringBuilder builder = new StringBuilder();
+    StringWriter writer = new StringWriter();
+    CharArrayWriter chars = new CharArrayWriter();
+    StringBuffer other = new StringBuffer();
+    for (IShape shape : content) {
+      emitter.emitShape(shape, builder);
+      emitter.emitShape(shape, writer);
+      emitter.emitShape(shape, other);
+    }
+    assertEquals(expected.toString(), builder.toString());
+    assertEquals(expected.toString(), writer.toString());
+    assertEquals(expected.toString(), other.toString());
+
+    ISnapshot snapshot = new Snapshot("1", "now", "many shapes", content);
+    new SnapshotXML(snapshot).appendSnapshotXML(chars);
+    assertEquals(new SnapshotXML(snapshot).getSnapshotXML(), chars.toString());
+  }
 }